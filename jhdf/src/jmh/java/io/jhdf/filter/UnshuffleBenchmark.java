@@ -0,0 +1,88 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.filter;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the unshuffle used by {@link ByteShuffleFilter} to the column by column loop it replaced. The
+ * <code>bytes</code> counter is the bytes unshuffled per second, so its score divided by 10<sup>9</sup> is the
+ * throughput in GB/s.
+ * <p>
+ * Run with <code>./gradlew jmh</code>
+ *
+ * @author James Mudd
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class UnshuffleBenchmark {
+
+	@Param({"2", "4", "8", "12"})
+	private int elementSize;
+
+	/** Typical chunk sizes, the larger doesn't fit in the CPU cache */
+	@Param({"65536", "4194304"})
+	private int chunkSize;
+
+	private byte[] shuffled;
+	private byte[] unshuffled;
+	private int elements;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Bytes {
+		public long bytes;
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		elements = chunkSize / elementSize;
+		shuffled = new byte[elements * elementSize];
+		unshuffled = new byte[shuffled.length];
+		new Random(123).nextBytes(shuffled);
+	}
+
+	@Benchmark
+	public byte[] unshuffle(Bytes bytes) {
+		ByteShuffleFilter.unshuffle(shuffled, 0, elements, 0, elements, elementSize, unshuffled, 0);
+		bytes.bytes += unshuffled.length;
+		return unshuffled;
+	}
+
+	@Benchmark
+	public byte[] columnByColumnUnshuffle(Bytes bytes) {
+		int pos = 0;
+		for (int i = 0; i < elementSize; i++) {
+			for (int j = 0; j < elements; j++) {
+				unshuffled[j * elementSize + i] = shuffled[pos];
+				pos++;
+			}
+		}
+		bytes.bytes += unshuffled.length;
+		return unshuffled;
+	}
+}
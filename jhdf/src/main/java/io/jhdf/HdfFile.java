@@ -16,6 +16,7 @@ import io.jhdf.api.Dataset;
 import io.jhdf.api.Group;
 import io.jhdf.api.Node;
 import io.jhdf.api.NodeType;
+import io.jhdf.dataset.chunked.ChunkCache;
 import io.jhdf.exceptions.HdfException;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -33,6 +34,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The HDF file class this object represents a HDF5 file on disk and provides
@@ -159,6 +162,84 @@ public class HdfFile implements Group, AutoCloseable {
 		logger.info("Closed HDF file '{}'", getFile().getAbsolutePath());
 	}
 
+	/**
+	 * Gets the cache of decoded chunks shared by all the chunked datasets in this file. It is disabled by default,
+	 * set a budget to enable it e.g. <code>hdfFile.getChunkCache().setBudget(64 * 1024 * 1024)</code>. This is
+	 * useful when the same chunks are read repeatedly.
+	 *
+	 * @return the decoded chunk cache of this file
+	 */
+	public ChunkCache getChunkCache() {
+		return hdfFc.getChunkCache();
+	}
+
+	/**
+	 * Gets the executor used to decode the chunks of chunked datasets in parallel. By default this is the common
+	 * {@link ForkJoinPool}, the same as parallel streams.
+	 *
+	 * @return the chunk decoding executor of this file
+	 */
+	public Executor getExecutor() {
+		return hdfFc.getExecutor();
+	}
+
+	/**
+	 * Sets the executor used to decode the chunks of chunked datasets in parallel. This allows the threads used by
+	 * reads of this file to be isolated from other work or capped, e.g. a {@link ForkJoinPool} or fixed thread pool
+	 * of the desired size. The calling thread always works on the read as well, so <code>Runnable::run</code> makes
+	 * reads sequential. It can also be set for a single dataset, see
+	 * {@link io.jhdf.dataset.chunked.ChunkedDatasetBase#setExecutor(Executor)}.
+	 *
+	 * @param executor the executor to use or <code>null</code> to use the common {@link ForkJoinPool}
+	 */
+	public void setExecutor(Executor executor) {
+		hdfFc.setExecutor(executor);
+	}
+
+	/**
+	 * Gets the maximum gap in bytes between chunks which are read from the file in a single read. By default this is
+	 * {@value HdfFileChannel#DEFAULT_CHUNK_READ_GAP}.
+	 *
+	 * @return the maximum gap between chunks read together
+	 */
+	public int getChunkReadGap() {
+		return hdfFc.getChunkReadGap();
+	}
+
+	/**
+	 * Sets the maximum gap in bytes between chunks which are read from the file in a single read. When reading chunked
+	 * datasets the chunks are read in file order, and chunks closer than this are read together with the bytes
+	 * between them discarded. Larger gaps mean fewer, larger reads which suits spinning disks and network file
+	 * systems, 0 only merges chunks which are adjacent in the file.
+	 *
+	 * @param chunkReadGap the maximum gap between chunks read together
+	 * @throws HdfException if the gap is negative
+	 */
+	public void setChunkReadGap(int chunkReadGap) {
+		hdfFc.setChunkReadGap(chunkReadGap);
+	}
+
+	/**
+	 * Checks if the checksums of chunks, e.g. Fletcher32, are verified when they are decoded. By default they are.
+	 *
+	 * @return <code>true</code> if checksums are verified
+	 */
+	public boolean isChecksumVerificationEnabled() {
+		return hdfFc.isChecksumVerificationEnabled();
+	}
+
+	/**
+	 * Sets if the checksums of chunks, e.g. Fletcher32, are verified when they are decoded. Verifying is cheap
+	 * compared to reading and decompressing the chunks, but can be disabled when throughput matters more than
+	 * detecting corrupted data. The checksums are still removed from the data. Chunks already in the chunk cache are
+	 * not verified again.
+	 *
+	 * @param checksumVerificationEnabled <code>true</code> to verify checksums, <code>false</code> to skip verifying
+	 */
+	public void setChecksumVerificationEnabled(boolean checksumVerificationEnabled) {
+		hdfFc.setChecksumVerificationEnabled(checksumVerificationEnabled);
+	}
+
 	/**
 	 * Returns the size of this HDF5 file.
 	 *
@@ -9,6 +9,7 @@
  */
 package io.jhdf;
 
+import io.jhdf.dataset.chunked.ChunkCache;
 import io.jhdf.exceptions.HdfException;
 
 import java.io.IOException;
@@ -16,6 +17,8 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
 
@@ -28,8 +31,15 @@ import static java.nio.ByteOrder.LITTLE_ENDIAN;
  */
 public class HdfFileChannel {
 
+	/** By default chunks up to 16 KiB apart are read together */
+	public static final int DEFAULT_CHUNK_READ_GAP = 16 * 1024;
+
 	private final FileChannel fc;
 	private final Superblock sb;
+	private final ChunkCache chunkCache = new ChunkCache();
+	private volatile Executor executor = ForkJoinPool.commonPool();
+	private volatile int chunkReadGap = DEFAULT_CHUNK_READ_GAP;
+	private volatile boolean checksumVerificationEnabled = true;
 
 	public HdfFileChannel(FileChannel fileChannel, Superblock superblock) {
 		this.fc = fileChannel;
@@ -50,7 +60,12 @@ public class HdfFileChannel {
 	public ByteBuffer readBufferFromAddress(long address, int length) {
 		ByteBuffer bb = ByteBuffer.allocate(length);
 		try {
-			fc.read(bb, address + sb.getBaseAddressByte());
+			// A single read may return fewer bytes than requested, so keep reading until full or the end of the file
+			while (bb.hasRemaining()) {
+				if (fc.read(bb, address + sb.getBaseAddressByte() + bb.position()) <= 0) {
+					break;
+				}
+			}
 		} catch (IOException e) {
 			throw new HdfException(
 					"Failed to read from file at address '" + address + "' (raw address '" + address
@@ -83,6 +98,73 @@ public class HdfFileChannel {
 		return sb;
 	}
 
+	/**
+	 * Gets the cache of decoded chunks shared by all the chunked datasets in this file.
+	 *
+	 * @return the decoded chunk cache of this file
+	 */
+	public ChunkCache getChunkCache() {
+		return chunkCache;
+	}
+
+	/**
+	 * Gets the executor used to decode chunks in parallel, by default the common {@link ForkJoinPool}.
+	 *
+	 * @return the chunk decoding executor of this file
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Sets the executor used to decode chunks in parallel.
+	 *
+	 * @param executor the executor to use or <code>null</code> to use the common {@link ForkJoinPool}
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor == null ? ForkJoinPool.commonPool() : executor;
+	}
+
+	/**
+	 * Gets the maximum gap in bytes between chunks which are read from the file in a single read.
+	 *
+	 * @return the maximum gap between chunks read together
+	 */
+	public int getChunkReadGap() {
+		return chunkReadGap;
+	}
+
+	/**
+	 * Sets the maximum gap in bytes between chunks which are read from the file in a single read.
+	 *
+	 * @param chunkReadGap the maximum gap between chunks read together, 0 only merges adjacent chunks
+	 * @throws HdfException if the gap is negative
+	 */
+	public void setChunkReadGap(int chunkReadGap) {
+		if (chunkReadGap < 0) {
+			throw new HdfException("Chunk read gap must not be negative but was " + chunkReadGap);
+		}
+		this.chunkReadGap = chunkReadGap;
+	}
+
+	/**
+	 * Checks if the checksums of chunks, e.g. Fletcher32, are verified when they are decoded.
+	 *
+	 * @return <code>true</code> if checksums are verified
+	 */
+	public boolean isChecksumVerificationEnabled() {
+		return checksumVerificationEnabled;
+	}
+
+	/**
+	 * Sets if the checksums of chunks, e.g. Fletcher32, are verified when they are decoded.
+	 *
+	 * @param checksumVerificationEnabled <code>true</code> to verify checksums, <code>false</code> to only strip them
+	 */
+	public void setChecksumVerificationEnabled(boolean checksumVerificationEnabled) {
+		this.checksumVerificationEnabled = checksumVerificationEnabled;
+	}
+
 	public FileChannel getFileChannel(){
 		return fc;
 	}
@@ -236,6 +236,25 @@ public final class Utils {
 		return headerData;
 	}
 
+	/**
+	 * Gets the remaining bytes of the buffer, from its position to its limit, as an
+	 * array. If the buffer wraps exactly an array that array is returned without
+	 * copying, so the result may share data with the buffer. The position of the
+	 * buffer is not changed.
+	 *
+	 * @param buffer the buffer to get the bytes of
+	 * @return the remaining bytes of the buffer
+	 */
+	public static byte[] toByteArray(ByteBuffer buffer) {
+		if (buffer.hasArray() && buffer.arrayOffset() + buffer.position() == 0
+				&& buffer.remaining() == buffer.array().length) {
+			return buffer.array();
+		}
+		final byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return bytes;
+	}
+
 	private static final BigInteger TWO = BigInteger.valueOf(2);
 
 	/**
@@ -325,4 +344,20 @@ public final class Utils {
 
 		return chunkOffset;
 	}
+
+	/**
+	 * Converts an index in each dimension into a linear index. This supports indexes and dimensions larger than
+	 * {@link Integer#MAX_VALUE}.
+	 *
+	 * @param index      the index in each dimension
+	 * @param dimensions the dimensions
+	 * @return the linear index
+	 */
+	public static long dimensionIndexToLinearIndex(long[] index, long[] dimensions) {
+		long linear = 0;
+		for (int i = 0; i < dimensions.length; i++) {
+			linear = linear * dimensions[i] + index[i];
+		}
+		return linear;
+	}
 }
@@ -12,6 +12,9 @@ package io.jhdf.api;
 import io.jhdf.object.datatype.DataType;
 import io.jhdf.object.message.DataLayout;
 
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+
 /**
  * HDF5 dataset. Datasets contain the real data within a HDF5 file.
  *
@@ -38,9 +41,20 @@ public interface Dataset extends Node {
 	 * Gets the dimensions of this dataset
 	 *
 	 * @return the dimensions of this dataset
+	 * @throws io.jhdf.exceptions.HdfException if any dimension is larger than {@link Integer#MAX_VALUE} see
+	 *                                         {@link #getLongDimensions()}
 	 */
 	int[] getDimensions();
 
+	/**
+	 * Gets the dimensions of this dataset. Unlike {@link #getDimensions()} this supports datasets with dimensions
+	 * larger than {@link Integer#MAX_VALUE}, such datasets can be read in slices see
+	 * {@link #getData(long[], int[])}.
+	 *
+	 * @return the dimensions of this dataset
+	 */
+	long[] getLongDimensions();
+
 	/**
 	 * Checks if this dataset is scalar i.e is a single element with no dimensions.
 	 *
@@ -76,9 +90,20 @@ public interface Dataset extends Node {
 	 * {@link #getDimensions()}
 	 *
 	 * @return the max size of this dataset
+	 * @throws io.jhdf.exceptions.HdfException if any max size is larger than {@link Integer#MAX_VALUE} see
+	 *                                         {@link #getLongMaxSize()}
 	 */
 	int[] getMaxSize();
 
+	/**
+	 * Gets the max size of this dataset. If not specified this will be equal to {@link #getLongDimensions()}. Unlike
+	 * {@link #getMaxSize()} this supports max sizes larger than {@link Integer#MAX_VALUE}. Unlimited dimensions are
+	 * -1.
+	 *
+	 * @return the max size of this dataset
+	 */
+	long[] getLongMaxSize();
+
 	/**
 	 * Gets the data layout of this dataset.
 	 *
@@ -105,6 +130,202 @@ public interface Dataset extends Node {
 	 */
 	Object getData();
 
+	/**
+	 * Gets the data from the HDF5 dataset as a flat (1D) Java array. This avoids creating the nested arrays returned
+	 * by {@link #getData()} for multi-dimensional datasets, so it is much cheaper for large datasets and the data is
+	 * contiguous in memory.
+	 * <p>
+	 * The elements are in row-major (C) order, the shape of the data is given by {@link #getDimensions()}. The type of
+	 * the array will be the return value of {@link #getJavaType()}. For scalar datasets a one element array is
+	 * returned. If {@link #isCompound()} returns <code>true</code> a {@link java.util.Map} of flat arrays is returned.
+	 *
+	 * @return the data in the dataset as a flat Java array or <code>null</code> if the dataset is empty.
+	 */
+	Object getDataFlat();
+
+	/**
+	 * Gets a slice of the data from the HDF5 dataset and converts it to a Java object. Only the data inside the
+	 * slice is read, so the cost of the read scales with the size of the slice not the size of the dataset.
+	 * <p>
+	 * The returned type will be a Java array of dimensions <code>sliceDimensions</code>, the type of the array will
+	 * be the return value of {@link #getJavaType()}. For scalar datasets empty arrays should be passed and the scalar
+	 * value will be returned, see {@link #getData()}.
+	 *
+	 * @param sliceOffset     the position of the first element of the slice in each dimension
+	 * @param sliceDimensions the number of elements of the slice in each dimension
+	 * @return the data in the slice as a Java object or <code>null</code> if the dataset is empty.
+	 * @throws io.jhdf.exceptions.HdfException if the slice is not inside the dataset
+	 */
+	Object getData(long[] sliceOffset, int[] sliceDimensions);
+
+	/**
+	 * Gets a strided selection (hyperslab) of the data from the HDF5 dataset and converts it to a Java object. In the
+	 * same way as HDF5, in each dimension <code>count</code> blocks of <code>block</code> elements are selected, the
+	 * first starting at <code>start</code> and each following block starting <code>stride</code> elements after the
+	 * previous one. For example to read every 10th element of a 1D dataset use <code>start={0}, stride={10},
+	 * count={size / 10}, block={1}</code>.
+	 * <p>
+	 * The returned type will be a Java array of dimensions <code>count * block</code> in each dimension, the type of
+	 * the array will be the return value of {@link #getJavaType()}. Only the selected data is read, for chunked
+	 * datasets chunks containing no selected elements are skipped.
+	 *
+	 * @param start  the position of the first selected element in each dimension
+	 * @param stride the number of elements between the start of each block in each dimension
+	 * @param count  the number of blocks in each dimension
+	 * @param block  the number of elements in each block in each dimension
+	 * @return the selected data as a Java object or <code>null</code> if the dataset is empty.
+	 * @throws io.jhdf.exceptions.HdfException if the selection is not valid or not inside the dataset
+	 */
+	Object getData(long[] start, long[] stride, int[] count, int[] block);
+
+	/**
+	 * Gets the elements at the given points (coordinates) from the HDF5 dataset in a single read. For chunked
+	 * datasets each chunk containing points is only read and decoded once, so this should be used instead of
+	 * reading points one by one.
+	 * <p>
+	 * The returned type will be a 1D Java array with one element per point in the same order as the points. The type
+	 * of the array will be the return value of {@link #getJavaType()}.
+	 *
+	 * @param points the coordinates of each point, each must have one value per dimension of the dataset
+	 * @return the data at the points as a Java object or <code>null</code> if the dataset is empty.
+	 * @throws io.jhdf.exceptions.HdfException if any point is not inside the dataset
+	 */
+	Object getPoints(long[][] points);
+
+	/**
+	 * Gets an iterator over the data of the HDF5 dataset in blocks of rows, where rows are along the first (slowest
+	 * varying) dimension. Each block is returned in the same way as {@link #getData(long[], int[])} with a slice
+	 * covering <code>rowsPerBlock</code> rows and the whole of every other dimension; the last block may have fewer
+	 * rows.
+	 * <p>
+	 * Only the data of one block is held at a time, so this allows datasets larger than the heap to be processed
+	 * with memory bounded by the block size. For chunked datasets each chunk is only decoded once, even if it spans
+	 * several blocks.
+	 *
+	 * @param rowsPerBlock the number of rows in each block, must be positive
+	 * @return an iterator over the data of each block of rows
+	 * @throws io.jhdf.exceptions.HdfException if the dataset is scalar or <code>rowsPerBlock</code> is not positive
+	 */
+	Iterator<Object> rowBlocks(int rowsPerBlock);
+
+	/**
+	 * Reads the raw bytes of all the elements of the HDF5 dataset into the destination buffer. The data is written
+	 * starting at the position of the buffer which is then advanced by {@link #getDiskSize()} bytes. The bytes are
+	 * copied as stored in the file, so are in the byte order of the data type, the order of the buffer is not
+	 * changed.
+	 * <p>
+	 * As no new storage is allocated this is useful when reading the same shaped datasets many times. If the dataset
+	 * has no data the buffer is not changed. Elements in chunks which were never written are set to zero, the same
+	 * as when reading into new storage.
+	 *
+	 * @param destination the buffer to fill, must have at least {@link #getDiskSize()} bytes remaining
+	 * @throws io.jhdf.exceptions.HdfException if the buffer is too small
+	 */
+	void readInto(ByteBuffer destination);
+
+	/**
+	 * Reads all the elements of the HDF5 dataset into the destination array in row-major (C) order, starting at
+	 * <code>destinationOffset</code>. The dataset must hold 1 byte signed integers. If the dataset has no data the
+	 * array is not changed.
+	 *
+	 * @param destination       the array to fill
+	 * @param destinationOffset the index in the array to write the first element to
+	 * @throws io.jhdf.exceptions.HdfTypeException if the dataset elements are not the type of the array
+	 * @throws io.jhdf.exceptions.HdfException     if the array is too small
+	 */
+	void readInto(byte[] destination, int destinationOffset);
+
+	/**
+	 * Reads all the elements of the HDF5 dataset into the destination array in row-major (C) order, starting at
+	 * <code>destinationOffset</code>. The dataset must hold 2 byte signed integers. If the dataset has no data the
+	 * array is not changed.
+	 *
+	 * @param destination       the array to fill
+	 * @param destinationOffset the index in the array to write the first element to
+	 * @throws io.jhdf.exceptions.HdfTypeException if the dataset elements are not the type of the array
+	 * @throws io.jhdf.exceptions.HdfException     if the array is too small
+	 */
+	void readInto(short[] destination, int destinationOffset);
+
+	/**
+	 * Reads all the elements of the HDF5 dataset into the destination array in row-major (C) order, starting at
+	 * <code>destinationOffset</code>. The dataset must hold 4 byte signed integers. If the dataset has no data the
+	 * array is not changed.
+	 *
+	 * @param destination       the array to fill
+	 * @param destinationOffset the index in the array to write the first element to
+	 * @throws io.jhdf.exceptions.HdfTypeException if the dataset elements are not the type of the array
+	 * @throws io.jhdf.exceptions.HdfException     if the array is too small
+	 */
+	void readInto(int[] destination, int destinationOffset);
+
+	/**
+	 * Reads all the elements of the HDF5 dataset into the destination array in row-major (C) order, starting at
+	 * <code>destinationOffset</code>. The dataset must hold 8 byte signed integers. If the dataset has no data the
+	 * array is not changed.
+	 *
+	 * @param destination       the array to fill
+	 * @param destinationOffset the index in the array to write the first element to
+	 * @throws io.jhdf.exceptions.HdfTypeException if the dataset elements are not the type of the array
+	 * @throws io.jhdf.exceptions.HdfException     if the array is too small
+	 */
+	void readInto(long[] destination, int destinationOffset);
+
+	/**
+	 * Reads all the elements of the HDF5 dataset into the destination array in row-major (C) order, starting at
+	 * <code>destinationOffset</code>. The dataset must hold 4 byte floating point numbers. If the dataset has no data
+	 * the array is not changed.
+	 *
+	 * @param destination       the array to fill
+	 * @param destinationOffset the index in the array to write the first element to
+	 * @throws io.jhdf.exceptions.HdfTypeException if the dataset elements are not the type of the array
+	 * @throws io.jhdf.exceptions.HdfException     if the array is too small
+	 */
+	void readInto(float[] destination, int destinationOffset);
+
+	/**
+	 * Reads all the elements of the HDF5 dataset into the destination array in row-major (C) order, starting at
+	 * <code>destinationOffset</code>. The dataset must hold 8 byte floating point numbers. If the dataset has no data
+	 * the array is not changed.
+	 *
+	 * @param destination       the array to fill
+	 * @param destinationOffset the index in the array to write the first element to
+	 * @throws io.jhdf.exceptions.HdfTypeException if the dataset elements are not the type of the array
+	 * @throws io.jhdf.exceptions.HdfException     if the array is too small
+	 */
+	void readInto(double[] destination, int destinationOffset);
+
+	/**
+	 * Reads all the elements of the HDF5 dataset into a new <code>double</code> array in row-major (C) order,
+	 * converting from the stored fixed or floating point type in a single pass. Signed integers are sign extended
+	 * and unsigned integers are zero extended.
+	 *
+	 * @return the elements of the dataset converted to double or <code>null</code> if the dataset has no data
+	 * @throws io.jhdf.exceptions.HdfTypeException if the dataset elements are not numeric
+	 */
+	double[] readAsDoubles();
+
+	/**
+	 * Reads all the elements of the HDF5 dataset into a new <code>float</code> array in row-major (C) order,
+	 * converting from the stored fixed or floating point type in a single pass. Converting 64 bit types may lose
+	 * precision.
+	 *
+	 * @return the elements of the dataset converted to float or <code>null</code> if the dataset has no data
+	 * @throws io.jhdf.exceptions.HdfTypeException if the dataset elements are not numeric
+	 */
+	float[] readAsFloats();
+
+	/**
+	 * Reads all the elements of the HDF5 dataset into a new <code>long</code> array in row-major (C) order,
+	 * converting from the stored fixed point type in a single pass. Signed integers are sign extended and unsigned
+	 * integers are zero extended.
+	 *
+	 * @return the elements of the dataset converted to long or <code>null</code> if the dataset has no data
+	 * @throws io.jhdf.exceptions.HdfTypeException if the dataset elements are not integers, or are unsigned 64 bit
+	 *                                             values too large for a long
+	 */
+	long[] readAsLongs();
+
 	/**
 	 * Gets the Java type that will be used to represent this data.
 	 *
@@ -13,16 +13,13 @@ import io.jhdf.HdfFileChannel;
 import io.jhdf.Superblock;
 import io.jhdf.Utils;
 import io.jhdf.dataset.chunked.Chunk;
-import io.jhdf.dataset.chunked.indexing.ChunkImpl;
+import io.jhdf.dataset.chunked.indexing.ChunkTable;
 import io.jhdf.exceptions.HdfException;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.BitSet;
 import java.util.List;
 
-import static java.util.stream.Collectors.toList;
-
 /**
  * V1 B-trees where the node type is 1 i.e. points to raw data chunk nodes
  *
@@ -41,7 +38,7 @@ public abstract class BTreeV1Data extends BTreeV1 {
 
 	/* package */ static class BTreeV1DataLeafNode extends BTreeV1Data {
 
-		private final ArrayList<Chunk> chunks;
+		private final ChunkTable chunks;
 
 		/* package */ BTreeV1DataLeafNode(HdfFileChannel hdfFc, long address, int dataDimensions) {
 			super(hdfFc, address);
@@ -54,21 +51,21 @@ public abstract class BTreeV1Data extends BTreeV1 {
 			final long keysAddress = address + 8 + 2 * hdfFc.getSizeOfOffsets();
 			final ByteBuffer bb = hdfFc.readBufferFromAddress(keysAddress, keysAndPointersBytes);
 
-			chunks = new ArrayList<>(entriesUsed);
+			chunks = new ChunkTable(dataDimensions, entriesUsed);
+			// Reused for every key as the table copies it
+			final long[] chunkOffset = new long[dataDimensions];
 			for (int i = 0; i < entriesUsed; i++) {
-				Chunk chunk = readKeyAsChunk(hdfFc.getSuperblock(), dataDimensions, bb);
-				chunks.add(chunk);
+				readKeyIntoTable(hdfFc.getSuperblock(), chunkOffset, bb);
 			}
 
 			bb.position(bb.position() + keySize);
 		}
 
-		private Chunk readKeyAsChunk(Superblock sb, int dataDimensions, ByteBuffer bb) {
+		private void readKeyIntoTable(Superblock sb, long[] chunkOffset, ByteBuffer bb) {
 			final int chunkSize = Utils.readBytesAsUnsignedInt(bb, 4);
-			final BitSet filterMask = BitSet.valueOf(new byte[] { bb.get(), bb.get(), bb.get(), bb.get() });
-			final int[] chunkOffset = new int[dataDimensions];
-			for (int j = 0; j < dataDimensions; j++) {
-				chunkOffset[j] = Utils.readBytesAsUnsignedInt(bb, 8);
+			final int filterMask = bb.getInt(); // Little endian so bit i is filter i
+			for (int j = 0; j < chunkOffset.length; j++) {
+				chunkOffset[j] = Utils.readBytesAsUnsignedLong(bb, 8);
 			}
 			long zero = Utils.readBytesAsUnsignedLong(bb, 8);
 			if (zero != 0) {
@@ -76,12 +73,16 @@ public abstract class BTreeV1Data extends BTreeV1 {
 			}
 
 			final long chunkAddress = Utils.readBytesAsUnsignedLong(bb, sb.getSizeOfOffsets());
-			return new ChunkImpl(chunkAddress, chunkSize, chunkOffset, filterMask);
+			chunks.add(chunkAddress, chunkSize, filterMask, chunkOffset);
 		}
 
 		@Override
 		public List<Long> getChildAddresses() {
-			return chunks.stream().map(Chunk::getAddress).collect(toList());
+			final List<Long> childAddresses = new ArrayList<>(chunks.size());
+			for (int i = 0; i < chunks.size(); i++) {
+				childAddresses.add(chunks.getAddress(i));
+			}
+			return childAddresses;
 		}
 
 		@Override
@@ -93,6 +94,7 @@ public abstract class BTreeV1Data extends BTreeV1 {
 	/* package */ static class BTreeV1DataNonLeafNode extends BTreeV1Data {
 
 		private final List<BTreeV1Data> childNodes;
+		private final int dataDimensions;
 
 		/* package */ BTreeV1DataNonLeafNode(HdfFileChannel hdfFc, long address, int dataDimensions) {
 			super(hdfFc, address);
@@ -105,6 +107,7 @@ public abstract class BTreeV1Data extends BTreeV1 {
 			final long keysAddress = address + 8 + 2 * hdfFc.getSizeOfOffsets();
 			final ByteBuffer keysAndPointersBuffer = hdfFc.readBufferFromAddress(keysAddress, keysAndPointersBytes);
 
+			this.dataDimensions = dataDimensions;
 			childNodes = new ArrayList<>(entriesUsed);
 
 			for (int i = 0; i < entriesUsed; i++) {
@@ -116,11 +119,11 @@ public abstract class BTreeV1Data extends BTreeV1 {
 
 		@Override
 		public List<Chunk> getChunks() {
-			List<Chunk> childAddresses = new ArrayList<>();
+			final ChunkTable chunks = new ChunkTable(dataDimensions);
 			for (BTreeV1Data child : childNodes) {
-				childAddresses.addAll(child.getChunks());
+				chunks.addAll(child.getChunks());
 			}
-			return childAddresses;
+			return chunks;
 		}
 
 		@Override
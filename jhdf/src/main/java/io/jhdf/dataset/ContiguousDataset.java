@@ -11,16 +11,32 @@ package io.jhdf.dataset;
 
 import io.jhdf.HdfFileChannel;
 import io.jhdf.ObjectHeader;
+import io.jhdf.Utils;
 import io.jhdf.api.Group;
 import io.jhdf.exceptions.HdfException;
+import io.jhdf.exceptions.HdfTypeException;
+import io.jhdf.object.datatype.DataType;
 import io.jhdf.object.message.DataLayoutMessage.ContiguousDataLayoutMessage;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.function.Function;
 
 import static io.jhdf.Constants.UNDEFINED_ADDRESS;
+import static java.lang.Math.toIntExact;
 
 public class ContiguousDataset extends DatasetBase {
 
+	/**
+	 * The largest region of the file mapped at once when reading a slice. Mapping is lazy so a window much larger
+	 * than the slice does not cause extra reads, but it is limited to keep the address space used bounded.
+	 */
+	private static final long MAX_SLICE_MAP_WINDOW_BYTES = 64L * 1024 * 1024;
+
 	public ContiguousDataset(HdfFileChannel hdfFc, long address, String name, Group parent, ObjectHeader oh) {
 		super(hdfFc, address, name, parent, oh);
 	}
@@ -34,6 +50,11 @@ public class ContiguousDataset extends DatasetBase {
 			return null;
 		}
 
+		if (contiguousDataLayoutMessage.getSize() > MAX_BUFFER_BYTES) {
+			throw new HdfException("Dataset '" + getPath() + "' of " + contiguousDataLayoutMessage.getSize()
+					+ " bytes is too large to map into a single buffer, read it in slices");
+		}
+
 		try {
 			ByteBuffer data = hdfFc.map(contiguousDataLayoutMessage.getAddress(),
 					contiguousDataLayoutMessage.getSize());
@@ -44,6 +65,256 @@ public class ContiguousDataset extends DatasetBase {
 		}
 	}
 
+	@Override
+	protected boolean readSliceInto(Hyperslab hyperslab, ElementSink sink) {
+		final long dataAddress = getDataAddress();
+		// Check for empty dataset
+		if (dataAddress == UNDEFINED_ADDRESS) {
+			return false;
+		}
+
+		final int elementSize = getDataType().getSize();
+		final long datasetBytes = getDiskSize();
+
+		// Only map the parts of the dataset containing runs, reusing the mapped window while runs fall inside it
+		final SliceWindow window = new SliceWindow(dataAddress, datasetBytes);
+		hyperslab.forEachRun((datasetIndex, sliceIndex, length) ->
+				sink.put(window.get(datasetIndex * elementSize, length * elementSize), sliceIndex, length));
+		return true;
+	}
+
+	@Override
+	protected ByteBuffer getPointsDataBuffer(long[][] points) {
+		final long dataAddress = getDataAddress();
+		// Check for empty dataset
+		if (dataAddress == UNDEFINED_ADDRESS) {
+			return null;
+		}
+
+		final long[] dimensions = getLongDimensions();
+		final int elementSize = getDataType().getSize();
+		final byte[] pointsArray = new byte[Math.multiplyExact(points.length, elementSize)];
+
+		final SliceWindow window = new SliceWindow(dataAddress, getDiskSize());
+		for (int i = 0; i < points.length; i++) {
+			final long linearIndex = Utils.dimensionIndexToLinearIndex(points[i], dimensions);
+			window.get(linearIndex * elementSize, elementSize).get(pointsArray, i * elementSize, elementSize);
+		}
+
+		final ByteBuffer pointsBuffer = ByteBuffer.wrap(pointsArray);
+		convertToCorrectEndiness(pointsBuffer);
+		return pointsBuffer;
+	}
+
+	private ByteBuffer mapData(long address, long length) {
+		try {
+			return hdfFc.map(address, length);
+		} catch (Exception e) {
+			throw new HdfException("Failed to map data buffer for dataset '" + getPath() + "'", e);
+		}
+	}
+
+	/**
+	 * The currently mapped region of the dataset used when reading a slice. This allows datasets larger than can be
+	 * mapped into a single buffer to be read.
+	 */
+	private final class SliceWindow {
+		private final long dataAddress;
+		private final long datasetBytes;
+		private ByteBuffer buffer;
+		private long startByte;
+
+		private SliceWindow(long dataAddress, long datasetBytes) {
+			this.dataAddress = dataAddress;
+			this.datasetBytes = datasetBytes;
+		}
+
+		/**
+		 * Gets a buffer holding the bytes, positioned at the first byte. The window is only remapped if the bytes are
+		 * outside it.
+		 */
+		private ByteBuffer get(long firstByte, int bytes) {
+			if (buffer == null || firstByte < startByte || firstByte + bytes > startByte + buffer.capacity()) {
+				// Align the start of the window so nearby reads in any order can reuse it
+				startByte = firstByte - firstByte % (MAX_SLICE_MAP_WINDOW_BYTES / 2);
+				final long windowSize = Math.max(firstByte + bytes - startByte,
+						Math.min(datasetBytes - startByte, MAX_SLICE_MAP_WINDOW_BYTES));
+				buffer = mapData(dataAddress + startByte, windowSize);
+				convertToCorrectEndiness(buffer);
+			}
+			buffer.position(toIntExact(firstByte - startByte));
+			return buffer;
+		}
+	}
+
+	/**
+	 * Gets a read-only view of the whole dataset as doubles, mapped directly from the file without copying. The
+	 * dataset must hold 8 byte floating point numbers.
+	 *
+	 * @return the view of the dataset or <code>null</code> if the dataset has no data
+	 * @throws HdfTypeException if the dataset elements are not 8 byte floating point numbers
+	 * @throws HdfException     if the dataset is too large for a single buffer
+	 */
+	public DataView<DoubleBuffer> getDoubleView() {
+		return getView(double.class, Double.BYTES, ByteBuffer::asDoubleBuffer);
+	}
+
+	/**
+	 * Gets a read-only view of a range of rows of the dataset as doubles, mapped directly from the file without
+	 * copying. Rows are along the first dimension. The dataset must hold 8 byte floating point numbers.
+	 *
+	 * @param firstRow the first row in the view
+	 * @param rowCount the number of rows in the view
+	 * @return the view of the rows or <code>null</code> if the dataset has no data
+	 * @throws HdfTypeException if the dataset elements are not 8 byte floating point numbers
+	 * @throws HdfException     if the rows are outside the dataset or too large for a single buffer
+	 */
+	public DataView<DoubleBuffer> getDoubleView(long firstRow, int rowCount) {
+		return getView(double.class, Double.BYTES, firstRow, rowCount, ByteBuffer::asDoubleBuffer);
+	}
+
+	/**
+	 * Gets a read-only view of the whole dataset as floats, mapped directly from the file without copying. The
+	 * dataset must hold 4 byte floating point numbers.
+	 *
+	 * @return the view of the dataset or <code>null</code> if the dataset has no data
+	 * @throws HdfTypeException if the dataset elements are not 4 byte floating point numbers
+	 * @throws HdfException     if the dataset is too large for a single buffer
+	 */
+	public DataView<FloatBuffer> getFloatView() {
+		return getView(float.class, Float.BYTES, ByteBuffer::asFloatBuffer);
+	}
+
+	/**
+	 * Gets a read-only view of a range of rows of the dataset as floats, mapped directly from the file without
+	 * copying. Rows are along the first dimension. The dataset must hold 4 byte floating point numbers.
+	 *
+	 * @param firstRow the first row in the view
+	 * @param rowCount the number of rows in the view
+	 * @return the view of the rows or <code>null</code> if the dataset has no data
+	 * @throws HdfTypeException if the dataset elements are not 4 byte floating point numbers
+	 * @throws HdfException     if the rows are outside the dataset or too large for a single buffer
+	 */
+	public DataView<FloatBuffer> getFloatView(long firstRow, int rowCount) {
+		return getView(float.class, Float.BYTES, firstRow, rowCount, ByteBuffer::asFloatBuffer);
+	}
+
+	/**
+	 * Gets a read-only view of the whole dataset as ints, mapped directly from the file without copying. The
+	 * dataset must hold 4 byte signed integers.
+	 *
+	 * @return the view of the dataset or <code>null</code> if the dataset has no data
+	 * @throws HdfTypeException if the dataset elements are not 4 byte signed integers
+	 * @throws HdfException     if the dataset is too large for a single buffer
+	 */
+	public DataView<IntBuffer> getIntView() {
+		return getView(int.class, Integer.BYTES, ByteBuffer::asIntBuffer);
+	}
+
+	/**
+	 * Gets a read-only view of a range of rows of the dataset as ints, mapped directly from the file without
+	 * copying. Rows are along the first dimension. The dataset must hold 4 byte signed integers.
+	 *
+	 * @param firstRow the first row in the view
+	 * @param rowCount the number of rows in the view
+	 * @return the view of the rows or <code>null</code> if the dataset has no data
+	 * @throws HdfTypeException if the dataset elements are not 4 byte signed integers
+	 * @throws HdfException     if the rows are outside the dataset or too large for a single buffer
+	 */
+	public DataView<IntBuffer> getIntView(long firstRow, int rowCount) {
+		return getView(int.class, Integer.BYTES, firstRow, rowCount, ByteBuffer::asIntBuffer);
+	}
+
+	/**
+	 * Gets a read-only view of the whole dataset as longs, mapped directly from the file without copying. The
+	 * dataset must hold 8 byte signed integers.
+	 *
+	 * @return the view of the dataset or <code>null</code> if the dataset has no data
+	 * @throws HdfTypeException if the dataset elements are not 8 byte signed integers
+	 * @throws HdfException     if the dataset is too large for a single buffer
+	 */
+	public DataView<LongBuffer> getLongView() {
+		return getView(long.class, Long.BYTES, ByteBuffer::asLongBuffer);
+	}
+
+	/**
+	 * Gets a read-only view of a range of rows of the dataset as longs, mapped directly from the file without
+	 * copying. Rows are along the first dimension. The dataset must hold 8 byte signed integers.
+	 *
+	 * @param firstRow the first row in the view
+	 * @param rowCount the number of rows in the view
+	 * @return the view of the rows or <code>null</code> if the dataset has no data
+	 * @throws HdfTypeException if the dataset elements are not 8 byte signed integers
+	 * @throws HdfException     if the rows are outside the dataset or too large for a single buffer
+	 */
+	public DataView<LongBuffer> getLongView(long firstRow, int rowCount) {
+		return getView(long.class, Long.BYTES, firstRow, rowCount, ByteBuffer::asLongBuffer);
+	}
+
+	private <B extends Buffer> DataView<B> getView(Class<?> primitiveType, int bytes,
+												   Function<ByteBuffer, B> asTypedBuffer) {
+		checkViewType(primitiveType, bytes);
+		final long dataAddress = getDataAddress();
+		// Check for empty dataset
+		if (dataAddress == UNDEFINED_ADDRESS) {
+			return null;
+		}
+		checkViewSize(getDiskSize());
+
+		return new DataView<>(mapView(dataAddress, getDiskSize(), asTypedBuffer), getLongDimensions(), 0);
+	}
+
+	private <B extends Buffer> DataView<B> getView(Class<?> primitiveType, int bytes, long firstRow, int rowCount,
+												   Function<ByteBuffer, B> asTypedBuffer) {
+		checkViewType(primitiveType, bytes);
+		final long[] dimensions = getLongDimensions();
+		if (dimensions.length == 0) {
+			throw new HdfException("Cannot view rows of scalar dataset '" + getPath() + "'");
+		}
+		if (firstRow < 0 || rowCount < 0 || firstRow + rowCount > dimensions[0]) {
+			throw new HdfException("Rows " + firstRow + " to " + (firstRow + rowCount) + " are outside dataset '"
+					+ getPath() + "' with " + dimensions[0] + " rows");
+		}
+		final long dataAddress = getDataAddress();
+		// Check for empty dataset
+		if (dataAddress == UNDEFINED_ADDRESS) {
+			return null;
+		}
+
+		final long rowBytes = dimensions[0] == 0 ? 0 : getDiskSize() / dimensions[0];
+		final long viewBytes = rowBytes * rowCount;
+		checkViewSize(viewBytes);
+
+		final long[] viewDimensions = dimensions.clone();
+		viewDimensions[0] = rowCount;
+		return new DataView<>(mapView(dataAddress + firstRow * rowBytes, viewBytes, asTypedBuffer), viewDimensions,
+				firstRow);
+	}
+
+	private <B extends Buffer> B mapView(long address, long length, Function<ByteBuffer, B> asTypedBuffer) {
+		// Read only mapping so the typed buffer is also read only
+		final ByteBuffer data = mapData(address, length);
+		convertToCorrectEndiness(data);
+		return asTypedBuffer.apply(data);
+	}
+
+	private void checkViewType(Class<?> primitiveType, int bytes) {
+		// The view is of the raw elements so they must already be the primitive type
+		final DataType dataType = getDataType();
+		if (dataType.getJavaType() != primitiveType || dataType.getSize() != bytes) {
+			throw new HdfTypeException("Cannot view dataset '" + getPath() + "' of type "
+					+ dataType.getJavaType().getSimpleName() + " (" + dataType.getSize() + " bytes) as "
+					+ primitiveType.getSimpleName());
+		}
+	}
+
+	private void checkViewSize(long bytes) {
+		if (bytes > Integer.MAX_VALUE) {
+			throw new HdfException("View of " + bytes + " bytes of dataset '" + getPath()
+					+ "' is too large for a single buffer, use a view of a range of rows");
+		}
+	}
+
 	/**
 	 * Gets the address of the data in the HDF5-file relative to the end of the userblock. To get the absolute data
 	 * address in the file, {@code file.getUserBlockSize()} needs to be added.
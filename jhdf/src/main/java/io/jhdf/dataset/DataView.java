@@ -0,0 +1,95 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset;
+
+import io.jhdf.Utils;
+import io.jhdf.exceptions.HdfException;
+
+import java.nio.Buffer;
+import java.util.Arrays;
+
+/**
+ * A read-only view of the elements of a dataset directly over the mapped file, so no data is copied onto the heap.
+ * The buffer holds the elements in row-major (C) order and already has the byte order of the dataset.
+ * <p>
+ * Views are obtained from {@link ContiguousDataset}, e.g. {@link ContiguousDataset#getDoubleView()}.
+ *
+ * @param <B> the type of the buffer
+ * @author James Mudd
+ */
+public final class DataView<B extends Buffer> {
+
+	private final B buffer;
+	private final long[] dimensions;
+	private final long firstRow;
+
+	DataView(B buffer, long[] dimensions, long firstRow) {
+		this.buffer = buffer;
+		this.dimensions = dimensions;
+		this.firstRow = firstRow;
+	}
+
+	/**
+	 * Gets the read-only buffer of the elements. The buffer is shared by all users of this view, so prefer the
+	 * absolute get methods or duplicate it if using relative gets.
+	 *
+	 * @return the buffer of the elements in this view
+	 */
+	public B getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Gets the shape of the view. For views of a range of rows the first dimension is the number of rows in the
+	 * view.
+	 *
+	 * @return the dimensions of the view
+	 */
+	public long[] getDimensions() {
+		return dimensions.clone();
+	}
+
+	/**
+	 * Gets the first row of the dataset in this view, this is 0 for views of the whole dataset.
+	 *
+	 * @return the index of the first row in the view
+	 */
+	public long getFirstRow() {
+		return firstRow;
+	}
+
+	/**
+	 * Gets the index in the buffer of the element at the position in the view.
+	 *
+	 * @param position the position of the element in each dimension of the view
+	 * @return the index in the buffer of the element
+	 * @throws HdfException if the position is outside the view
+	 */
+	public int getIndex(long... position) {
+		if (position.length != dimensions.length) {
+			throw new HdfException("Position " + Arrays.toString(position) + " does not match view dimensions "
+					+ Arrays.toString(dimensions));
+		}
+		for (int i = 0; i < dimensions.length; i++) {
+			if (position[i] < 0 || position[i] >= dimensions[i]) {
+				throw new HdfException("Position " + Arrays.toString(position) + " is outside view dimensions "
+						+ Arrays.toString(dimensions));
+			}
+		}
+		return (int) Utils.dimensionIndexToLinearIndex(position, dimensions);
+	}
+
+	@Override
+	public String toString() {
+		return "DataView [buffer=" + buffer.getClass().getSimpleName()
+				+ ", dimensions=" + Arrays.toString(dimensions)
+				+ ", firstRow=" + firstRow + "]";
+	}
+}
@@ -15,6 +15,8 @@ import io.jhdf.ObjectHeader;
 import io.jhdf.api.Dataset;
 import io.jhdf.api.Group;
 import io.jhdf.api.NodeType;
+import io.jhdf.exceptions.HdfException;
+import io.jhdf.exceptions.HdfTypeException;
 import io.jhdf.object.datatype.CompoundDataType;
 import io.jhdf.object.datatype.DataType;
 import io.jhdf.object.datatype.OrderedDataType;
@@ -28,9 +30,14 @@ import io.jhdf.object.message.FillValueMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Array;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
+import static java.lang.Math.toIntExact;
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static org.apache.commons.lang3.ClassUtils.primitiveToWrapper;
 
@@ -43,6 +50,17 @@ public abstract class DatasetBase extends AbstractNode implements Dataset {
 	private final DataType dataType;
 	private final DataSpace dataSpace;
 
+	/**
+	 * The largest number of bytes read into a single buffer or array. Java arrays and buffers are indexed by int, the
+	 * exact limit for arrays depends on the JVM so a few bytes are kept spare.
+	 */
+	protected static final long MAX_BUFFER_BYTES = Integer.MAX_VALUE - 8;
+
+	/**
+	 * The largest number of elements read into a single array, for the same reason a few are kept spare.
+	 */
+	private static final long MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
 	public DatasetBase(HdfFileChannel hdfFc, long address, String name, Group parent, ObjectHeader oh) {
 		super(hdfFc, address, name, parent);
 		this.hdfFc = hdfFc;
@@ -84,6 +102,11 @@ public abstract class DatasetBase extends AbstractNode implements Dataset {
 		return dataSpace.getDimensions();
 	}
 
+	@Override
+	public long[] getLongDimensions() {
+		return dataSpace.getLongDimensions();
+	}
+
 	@Override
 	public int[] getMaxSize() {
 		if (dataSpace.isMaxSizesPresent()) {
@@ -93,6 +116,15 @@ public abstract class DatasetBase extends AbstractNode implements Dataset {
 		}
 	}
 
+	@Override
+	public long[] getLongMaxSize() {
+		if (dataSpace.isMaxSizesPresent()) {
+			return dataSpace.getLongMaxSizes();
+		} else {
+			return getLongDimensions();
+		}
+	}
+
 	@Override
 	public DataLayout getDataLayout() {
 		return getHeaderMessage(DataLayoutMessage.class).getDataLayout();
@@ -118,6 +150,11 @@ public abstract class DatasetBase extends AbstractNode implements Dataset {
 	public Object getData() {
 		logger.debug("Getting data for '{}'...", getPath());
 
+		if (getDiskSize() > MAX_BUFFER_BYTES) {
+			// Too large to fit in a single buffer
+			return getData(getFullHyperslab());
+		}
+
 		final ByteBuffer bb = getDataBuffer();
 		if (bb == null) {
 			// Empty
@@ -133,9 +170,116 @@ public abstract class DatasetBase extends AbstractNode implements Dataset {
 		}
 	}
 
+	@Override
+	public Object getDataFlat() {
+		logger.debug("Getting flat data for '{}'...", getPath());
+
+		if (getDiskSize() > MAX_BUFFER_BYTES) {
+			throw new HdfException("Dataset '" + getPath() + "' of " + getDiskSize()
+					+ " bytes is too large to read into a flat array, read it in slices");
+		}
+
+		final ByteBuffer bb = getDataBuffer();
+		if (bb == null) {
+			// Empty
+			return null;
+		}
+
+		final DataType type = getDataType();
+		// Reading as a 1D dataset means the data is filled with a single bulk get
+		final int[] flatDimensions = new int[]{toIntExact(getSize())};
+
+		if(type instanceof CompoundDataType) {
+			return CompoundDatasetReader.readDataset((CompoundDataType) type, bb, getSize(), flatDimensions, hdfFc);
+		} else {
+			return DatasetReader.readDataset(type, bb, flatDimensions, hdfFc);
+		}
+	}
+
+	@Override
+	public Object getData(long[] sliceOffset, int[] sliceDimensions) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Getting data slice offset={} dimensions={} for '{}'...", Arrays.toString(sliceOffset),
+					Arrays.toString(sliceDimensions), getPath());
+		}
+
+		return getData(new Hyperslab(getLongDimensions(), sliceOffset, sliceDimensions));
+	}
+
+	@Override
+	public Object getData(long[] start, long[] stride, int[] count, int[] block) {
+		final Hyperslab hyperslab = new Hyperslab(getLongDimensions(), start, stride, count, block);
+		logger.debug("Getting data {} for '{}'...", hyperslab, getPath());
+
+		return getData(hyperslab);
+	}
+
+	@Override
+	public Object getPoints(long[][] points) {
+		logger.debug("Getting data for {} points of '{}'...", points.length, getPath());
+
+		checkPoints(points);
+
+		final ByteBuffer bb = getPointsDataBuffer(points);
+		if (bb == null) {
+			// Empty
+			return null;
+		}
+
+		final DataType type = getDataType();
+
+		if(type instanceof CompoundDataType) {
+			return CompoundDatasetReader.readDataset((CompoundDataType) type, bb, points.length,
+					new int[]{points.length}, hdfFc);
+		} else {
+			return DatasetReader.readDataset(type, bb, new int[]{points.length}, hdfFc);
+		}
+	}
+
+	private void checkPoints(long[][] points) {
+		final long[] dimensions = getLongDimensions();
+		for (long[] point : points) {
+			if (point == null || point.length != dimensions.length) {
+				throw new HdfException("Point " + Arrays.toString(point) + " does not match dataset dimensions "
+						+ Arrays.toString(dimensions));
+			}
+			for (int i = 0; i < dimensions.length; i++) {
+				if (point[i] < 0 || point[i] >= dimensions[i]) {
+					throw new HdfException("Point " + Arrays.toString(point) + " is outside dataset dimensions "
+							+ Arrays.toString(dimensions));
+				}
+			}
+		}
+	}
+
+	private Object getData(Hyperslab hyperslab) {
+		return getData(hyperslab, this::readSliceInto);
+	}
+
+	private Object getData(Hyperslab hyperslab, SliceReader reader) {
+		if (hyperslab.getSize() * getDataType().getSize() > MAX_BUFFER_BYTES) {
+			return getLargeData(hyperslab, reader);
+		}
+
+		final ByteBuffer bb = getSliceDataBuffer(hyperslab, reader);
+		if (bb == null) {
+			// Empty
+			return null;
+		}
+
+		final DataType type = getDataType();
+
+		if(type instanceof CompoundDataType) {
+			return CompoundDatasetReader.readDataset((CompoundDataType) type, bb, hyperslab.getSize(),
+					hyperslab.getDimensions(), hdfFc);
+		} else {
+			return DatasetReader.readDataset(type, bb, hyperslab.getDimensions(), hdfFc);
+		}
+	}
+
 	@Override
 	public boolean isScalar() {
-		return getDimensions().length == 0;
+		return getLongDimensions().length == 0;
 	}
 
 	@Override
@@ -154,6 +298,321 @@ public abstract class DatasetBase extends AbstractNode implements Dataset {
 	 */
 	public abstract ByteBuffer getDataBuffer();
 
+	/**
+	 * Gets a buffer holding only the data inside the slice. The elements are in the same order as they would be in
+	 * a dataset with the slice dimensions. The returned buffer will be of the correct order (endiness).
+	 *
+	 * @param sliceOffset     the position of the first element of the slice in each dimension
+	 * @param sliceDimensions the number of elements of the slice in each dimension
+	 * @return the buffer holding the slice data or <code>null</code> if the dataset is empty
+	 * @throws HdfException if the slice is not inside the dataset
+	 */
+	public ByteBuffer getSliceDataBuffer(long[] sliceOffset, int[] sliceDimensions) {
+		return getSliceDataBuffer(new Hyperslab(getLongDimensions(), sliceOffset, sliceDimensions));
+	}
+
+	/**
+	 * Gets a buffer holding only the selected data. The elements are in the same order as they would be in a
+	 * dataset with the dimensions of the selection. The returned buffer will be of the correct order (endiness).
+	 *
+	 * @param hyperslab the selection to read, created with the dimensions of this dataset
+	 * @return the buffer holding the selected data or <code>null</code> if the dataset is empty
+	 */
+	protected ByteBuffer getSliceDataBuffer(Hyperslab hyperslab) {
+		return getSliceDataBuffer(hyperslab, this::readSliceInto);
+	}
+
+	private ByteBuffer getSliceDataBuffer(Hyperslab hyperslab, SliceReader reader) {
+		final int elementSize = getDataType().getSize();
+		final long sliceBytes = hyperslab.getSize() * elementSize;
+		if (sliceBytes > MAX_BUFFER_BYTES) {
+			throw new HdfException("Selection of " + sliceBytes + " bytes from dataset '" + getPath()
+					+ "' is too large for a single buffer, read it in slices");
+		}
+		final byte[] sliceArray = new byte[(int) sliceBytes];
+		logger.trace("Created data buffer for '{}' of size {} bytes", getPath(), sliceArray.length);
+
+		if (!reader.readSliceInto(hyperslab, ElementSink.of(sliceArray, 0, elementSize))) {
+			// Empty
+			return null;
+		}
+
+		final ByteBuffer sliceBuffer = ByteBuffer.wrap(sliceArray);
+		convertToCorrectEndiness(sliceBuffer);
+		return sliceBuffer;
+	}
+
+	/**
+	 * Reads the selected data into the sink. The index of each element put into the sink is its index in a dataset
+	 * with the dimensions of the selection.
+	 * <p>
+	 * This implementation reads the full data buffer and copies the selection out of it, subclasses able to read
+	 * less data should override it.
+	 *
+	 * @param hyperslab the selection to read, created with the dimensions of this dataset
+	 * @param sink      the destination of the selected elements
+	 * @return <code>true</code> if the data was read, <code>false</code> if the dataset has no data
+	 */
+	protected boolean readSliceInto(Hyperslab hyperslab, ElementSink sink) {
+		final ByteBuffer fullBuffer = getDataBuffer();
+		if (fullBuffer == null) {
+			// Empty
+			return false;
+		}
+		// Duplicate so the position of the full buffer is not changed
+		final ByteBuffer dataBuffer = fullBuffer.duplicate().order(fullBuffer.order());
+
+		final int elementSize = getDataType().getSize();
+		hyperslab.forEachRun((datasetIndex, sliceIndex, length) -> {
+			dataBuffer.position(toIntExact(datasetIndex * elementSize));
+			sink.put(dataBuffer, sliceIndex, length);
+		});
+		return true;
+	}
+
+	/**
+	 * Reads a selection of the dataset into a sink, in the same way as {@link #readSliceInto(Hyperslab, ElementSink)}.
+	 * Allows readers holding state between reads to be used.
+	 */
+	@FunctionalInterface
+	protected interface SliceReader {
+		boolean readSliceInto(Hyperslab hyperslab, ElementSink sink);
+	}
+
+	@Override
+	public Iterator<Object> rowBlocks(int rowsPerBlock) {
+		return rowBlocks(rowsPerBlock, this::readSliceInto);
+	}
+
+	/**
+	 * Gets an iterator over blocks of rows where each block is read using the reader. As blocks are read in order
+	 * the reader can keep data between blocks e.g. chunks spanning several blocks.
+	 *
+	 * @param rowsPerBlock the number of rows in each block
+	 * @param reader       the reader to read each block with
+	 * @return an iterator over the data of each block of rows
+	 */
+	protected Iterator<Object> rowBlocks(int rowsPerBlock, SliceReader reader) {
+		if (isScalar()) {
+			throw new HdfException("Cannot iterate rows of scalar dataset '" + getPath() + "'");
+		}
+		if (rowsPerBlock <= 0) {
+			throw new HdfException("Rows per block must be positive but was " + rowsPerBlock);
+		}
+		logger.debug("Iterating '{}' in blocks of {} rows", getPath(), rowsPerBlock);
+
+		return new RowBlockIterator(rowsPerBlock, reader);
+	}
+
+	private final class RowBlockIterator implements Iterator<Object> {
+		private final long[] datasetDimensions = getLongDimensions();
+		private final int rowsPerBlock;
+		private final SliceReader reader;
+		private long nextRow = 0;
+
+		private RowBlockIterator(int rowsPerBlock, SliceReader reader) {
+			this.rowsPerBlock = rowsPerBlock;
+			this.reader = reader;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return nextRow < datasetDimensions[0];
+		}
+
+		@Override
+		public Object next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			// The block covers whole rows, so is a single contiguous region of the dataset
+			final long[] blockOffset = new long[datasetDimensions.length];
+			blockOffset[0] = nextRow;
+			final int[] blockDimensions = new int[datasetDimensions.length];
+			blockDimensions[0] = (int) Math.min(rowsPerBlock, datasetDimensions[0] - nextRow);
+			for (int i = 1; i < datasetDimensions.length; i++) {
+				blockDimensions[i] = toIntExact(datasetDimensions[i]);
+			}
+			nextRow += blockDimensions[0];
+
+			return getData(new Hyperslab(datasetDimensions, blockOffset, blockDimensions), reader);
+		}
+	}
+
+	@Override
+	public void readInto(ByteBuffer destination) {
+		if (destination.remaining() < getDiskSize()) {
+			throw new HdfException("Destination buffer with " + destination.remaining()
+					+ " bytes remaining is too small for dataset '" + getPath() + "' of " + getDiskSize() + " bytes");
+		}
+		if (readSliceInto(getFullHyperslab(), ElementSink.of(destination, getDataType().getSize()))) {
+			destination.position(destination.position() + toIntExact(getDiskSize()));
+		}
+	}
+
+	@Override
+	public void readInto(byte[] destination, int destinationOffset) {
+		checkReadInto(byte.class, Byte.BYTES, destination.length, destinationOffset);
+		readSliceInto(getFullHyperslab(), ElementSink.of(destination, destinationOffset));
+	}
+
+	@Override
+	public void readInto(short[] destination, int destinationOffset) {
+		checkReadInto(short.class, Short.BYTES, destination.length, destinationOffset);
+		readSliceInto(getFullHyperslab(), ElementSink.of(destination, destinationOffset));
+	}
+
+	@Override
+	public void readInto(int[] destination, int destinationOffset) {
+		checkReadInto(int.class, Integer.BYTES, destination.length, destinationOffset);
+		readSliceInto(getFullHyperslab(), ElementSink.of(destination, destinationOffset));
+	}
+
+	@Override
+	public void readInto(long[] destination, int destinationOffset) {
+		checkReadInto(long.class, Long.BYTES, destination.length, destinationOffset);
+		readSliceInto(getFullHyperslab(), ElementSink.of(destination, destinationOffset));
+	}
+
+	@Override
+	public void readInto(float[] destination, int destinationOffset) {
+		checkReadInto(float.class, Float.BYTES, destination.length, destinationOffset);
+		readSliceInto(getFullHyperslab(), ElementSink.of(destination, destinationOffset));
+	}
+
+	@Override
+	public void readInto(double[] destination, int destinationOffset) {
+		checkReadInto(double.class, Double.BYTES, destination.length, destinationOffset);
+		readSliceInto(getFullHyperslab(), ElementSink.of(destination, destinationOffset));
+	}
+
+	@Override
+	public double[] readAsDoubles() {
+		final NumericType numericType = NumericType.of(getDataType());
+		final double[] data = new double[getConvertedSize()];
+		return readSliceInto(getFullHyperslab(), numericType.toDoubles(data, 0)) ? data : null;
+	}
+
+	@Override
+	public float[] readAsFloats() {
+		final NumericType numericType = NumericType.of(getDataType());
+		final float[] data = new float[getConvertedSize()];
+		return readSliceInto(getFullHyperslab(), numericType.toFloats(data, 0)) ? data : null;
+	}
+
+	@Override
+	public long[] readAsLongs() {
+		final NumericType numericType = NumericType.of(getDataType());
+		final long[] data = new long[getConvertedSize()];
+		return readSliceInto(getFullHyperslab(), numericType.toLongs(data, 0)) ? data : null;
+	}
+
+	private int getConvertedSize() {
+		if (getSize() > MAX_ARRAY_LENGTH) {
+			throw new HdfException("Dataset '" + getPath() + "' of " + getSize()
+					+ " elements is too large to read into an array, read it in slices");
+		}
+		return (int) getSize();
+	}
+
+	private void checkReadInto(Class<?> primitiveType, int bytes, int destinationLength, int destinationOffset) {
+		// The elements are copied without conversion so must already be the primitive type
+		if (dataType.getJavaType() != primitiveType || dataType.getSize() != bytes) {
+			throw new HdfTypeException("Cannot read dataset '" + getPath() + "' of type "
+					+ dataType.getJavaType().getSimpleName() + " (" + dataType.getSize() + " bytes) into a "
+					+ primitiveType.getSimpleName() + " array");
+		}
+		if (destinationOffset < 0 || destinationLength - destinationOffset < getSize()) {
+			throw new HdfException("Destination array of length " + destinationLength + " with offset "
+					+ destinationOffset + " is too small for dataset '" + getPath() + "' of size " + getSize());
+		}
+	}
+
+	private Hyperslab getFullHyperslab() {
+		final int[] dimensions = getDimensions();
+		return new Hyperslab(getLongDimensions(), new long[dimensions.length], dimensions);
+	}
+
+	/**
+	 * Reads a selection too large to fit in a single buffer. The data is copied directly into the rows of the
+	 * returned multi-dimensional array, so only the size of each row is limited.
+	 */
+	private Object getLargeData(Hyperslab hyperslab, SliceReader reader) {
+		final int[] dimensions = hyperslab.getDimensions();
+		final Class<?> javaType = dataType.getJavaType();
+		if (dimensions.length < 2 || !isDirectlyCopyable()) {
+			throw new HdfException("Selection of " + hyperslab.getSize() + " elements from dataset '" + getPath()
+					+ "' is too large to read at once, read it in slices");
+		}
+		logger.debug("Reading {} of '{}' directly into rows", hyperslab, getPath());
+
+		final Object data = Array.newInstance(javaType, dimensions);
+		if (!reader.readSliceInto(hyperslab, new NestedArraySink(data, dimensions))) {
+			// Empty
+			return null;
+		}
+		return data;
+	}
+
+	/**
+	 * @return <code>true</code> if the elements of this dataset are a primitive Java type with the same number of
+	 * bytes, so can be copied without conversion
+	 */
+	private boolean isDirectlyCopyable() {
+		final Class<?> javaType = dataType.getJavaType();
+		if (javaType == byte.class) {
+			return dataType.getSize() == Byte.BYTES;
+		} else if (javaType == short.class) {
+			return dataType.getSize() == Short.BYTES;
+		} else if (javaType == int.class) {
+			return dataType.getSize() == Integer.BYTES;
+		} else if (javaType == long.class) {
+			return dataType.getSize() == Long.BYTES;
+		} else if (javaType == float.class) {
+			return dataType.getSize() == Float.BYTES;
+		} else if (javaType == double.class) {
+			return dataType.getSize() == Double.BYTES;
+		}
+		return false;
+	}
+
+	/**
+	 * Gets a buffer holding the elements at the points in the same order as the points. The returned buffer will be
+	 * of the correct order (endiness).
+	 * <p>
+	 * This implementation reads the full data buffer and copies the points out of it, subclasses able to read less
+	 * data should override it.
+	 *
+	 * @param points the coordinates of each point, already checked to be inside the dataset
+	 * @return the buffer holding the point data or <code>null</code> if the dataset is empty
+	 */
+	protected ByteBuffer getPointsDataBuffer(long[][] points) {
+		final ByteBuffer fullBuffer = getDataBuffer();
+		if (fullBuffer == null) {
+			// Empty
+			return null;
+		}
+		// Duplicate so the position of the full buffer is not changed
+		final ByteBuffer dataBuffer = fullBuffer.duplicate();
+
+		final long[] dimensions = getLongDimensions();
+		final int elementSize = getDataType().getSize();
+		final byte[] pointsArray = new byte[Math.multiplyExact(points.length, elementSize)];
+		for (int i = 0; i < points.length; i++) {
+			long linearIndex = 0;
+			for (int j = 0; j < dimensions.length; j++) {
+				linearIndex = linearIndex * dimensions[j] + points[i][j];
+			}
+			dataBuffer.position(toIntExact(linearIndex * elementSize));
+			dataBuffer.get(pointsArray, i * elementSize, elementSize);
+		}
+
+		final ByteBuffer pointsBuffer = ByteBuffer.wrap(pointsArray);
+		convertToCorrectEndiness(pointsBuffer);
+		return pointsBuffer;
+	}
+
 	@Override
 	public Object getFillValue() {
 		FillValueMessage fillValueMessage = getHeaderMessage(FillValueMessage.class);
@@ -0,0 +1,142 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Destination for the elements read from a dataset. Readers copy each run of elements directly from the data buffers
+ * (e.g. a decoded chunk) into the sink, so no intermediate copy of the whole dataset is needed.
+ * <p>
+ * Runs may be put concurrently from several threads, but never to overlapping elements.
+ *
+ * @author James Mudd
+ */
+@FunctionalInterface
+public interface ElementSink {
+
+	/**
+	 * Copies a run of elements into the sink.
+	 *
+	 * @param source       buffer holding the run starting at its position, its order is the byte order of the
+	 *                     dataset. The position may be changed.
+	 * @param elementIndex the index of the first element of the run in the destination
+	 * @param length       the number of elements in the run
+	 */
+	void put(ByteBuffer source, long elementIndex, int length);
+
+	/**
+	 * Creates a sink copying the raw bytes of the elements into an array.
+	 *
+	 * @param destination the array to copy into
+	 * @param offset      the index in the array of the first element
+	 * @param elementSize the number of bytes in each element
+	 * @return the sink
+	 */
+	static ElementSink of(byte[] destination, int offset, int elementSize) {
+		return (source, elementIndex, length) ->
+				source.get(destination, offset + Math.toIntExact(elementIndex * elementSize), length * elementSize);
+	}
+
+	/**
+	 * Creates a sink copying the raw bytes of the elements into a buffer.
+	 *
+	 * @param destination the buffer to copy into, the first element is copied to its position
+	 * @param elementSize the number of bytes in each element
+	 * @return the sink
+	 */
+	static ElementSink of(ByteBuffer destination, int elementSize) {
+		if (destination.hasArray()) {
+			return of(destination.array(), destination.arrayOffset() + destination.position(), elementSize);
+		}
+		final int start = destination.position();
+		return (source, elementIndex, length) -> {
+			final int bytes = length * elementSize;
+			// Use a duplicate so runs can be put concurrently
+			final ByteBuffer target = destination.duplicate();
+			target.position(start + Math.toIntExact(elementIndex * elementSize));
+			final ByteBuffer run = source.slice();
+			run.limit(bytes);
+			target.put(run);
+			source.position(source.position() + bytes);
+		};
+	}
+
+	/**
+	 * Creates a sink converting the elements into an array. The elements must be 1 byte integers.
+	 *
+	 * @param destination the array to copy into
+	 * @param offset      the index in the array of the first element
+	 * @return the sink
+	 */
+	static ElementSink of(byte[] destination, int offset) {
+		return of(destination, offset, Byte.BYTES);
+	}
+
+	/**
+	 * Creates a sink converting the elements into an array. The elements must be 2 byte integers.
+	 *
+	 * @param destination the array to copy into
+	 * @param offset      the index in the array of the first element
+	 * @return the sink
+	 */
+	static ElementSink of(short[] destination, int offset) {
+		return (source, elementIndex, length) ->
+				source.asShortBuffer().get(destination, offset + Math.toIntExact(elementIndex), length);
+	}
+
+	/**
+	 * Creates a sink converting the elements into an array. The elements must be 4 byte integers.
+	 *
+	 * @param destination the array to copy into
+	 * @param offset      the index in the array of the first element
+	 * @return the sink
+	 */
+	static ElementSink of(int[] destination, int offset) {
+		return (source, elementIndex, length) ->
+				source.asIntBuffer().get(destination, offset + Math.toIntExact(elementIndex), length);
+	}
+
+	/**
+	 * Creates a sink converting the elements into an array. The elements must be 8 byte integers.
+	 *
+	 * @param destination the array to copy into
+	 * @param offset      the index in the array of the first element
+	 * @return the sink
+	 */
+	static ElementSink of(long[] destination, int offset) {
+		return (source, elementIndex, length) ->
+				source.asLongBuffer().get(destination, offset + Math.toIntExact(elementIndex), length);
+	}
+
+	/**
+	 * Creates a sink converting the elements into an array. The elements must be 4 byte floats.
+	 *
+	 * @param destination the array to copy into
+	 * @param offset      the index in the array of the first element
+	 * @return the sink
+	 */
+	static ElementSink of(float[] destination, int offset) {
+		return (source, elementIndex, length) ->
+				source.asFloatBuffer().get(destination, offset + Math.toIntExact(elementIndex), length);
+	}
+
+	/**
+	 * Creates a sink converting the elements into an array. The elements must be 8 byte floats.
+	 *
+	 * @param destination the array to copy into
+	 * @param offset      the index in the array of the first element
+	 * @return the sink
+	 */
+	static ElementSink of(double[] destination, int offset) {
+		return (source, elementIndex, length) ->
+				source.asDoubleBuffer().get(destination, offset + Math.toIntExact(elementIndex), length);
+	}
+}
@@ -0,0 +1,371 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset;
+
+import io.jhdf.exceptions.HdfException;
+
+import java.util.Arrays;
+
+/**
+ * A hyperslab selection of a dataset. In the same way as HDF5 the selection is described in each dimension by a
+ * start, a stride, a count and a block. i.e. <code>count</code> blocks of <code>block</code> elements, the first
+ * starting at <code>start</code> and each following one <code>stride</code> elements after the previous one.
+ * <p>
+ * The selected elements are returned as a dataset of dimensions <code>count * block</code> in each dimension. The
+ * selection is read as a sequence of runs, each run is a block of elements which is contiguous in both the dataset
+ * and the selection. This allows readers to copy only the selected bytes.
+ *
+ * @author James Mudd
+ */
+public final class Hyperslab {
+
+	/** The maximum number of elements passed in a single run, longer runs are split. */
+	static final int MAX_RUN_LENGTH = 1 << 20;
+
+	private final long[] datasetDimensions;
+	private final long[] start;
+	private final long[] stride;
+	private final int[] count;
+	private final int[] block;
+	private final int[] dimensions;
+
+	/**
+	 * Creates a new rectangular hyperslab selection.
+	 *
+	 * @param datasetDimensions the dimensions of the dataset the selection is from
+	 * @param offset            the position of the first selected element in each dimension
+	 * @param dimensions        the number of elements selected in each dimension
+	 * @throws HdfException if the selection does not fit inside the dataset
+	 */
+	public Hyperslab(long[] datasetDimensions, long[] offset, int[] dimensions) {
+		this(datasetDimensions, offset, ones(datasetDimensions.length), intOnes(datasetDimensions.length), dimensions);
+	}
+
+	/**
+	 * Creates a new hyperslab selection.
+	 *
+	 * @param datasetDimensions the dimensions of the dataset the selection is from
+	 * @param start             the position of the first selected element in each dimension
+	 * @param stride            the number of elements between the start of each block in each dimension
+	 * @param count             the number of blocks in each dimension
+	 * @param block             the number of elements in each block in each dimension
+	 * @throws HdfException if the selection is not valid or does not fit inside the dataset
+	 */
+	public Hyperslab(long[] datasetDimensions, long[] start, long[] stride, int[] count, int[] block) {
+		if (start == null || stride == null || count == null || block == null) {
+			throw new HdfException("Hyperslab start, stride, count and block must be specified");
+		}
+		final int rank = datasetDimensions.length;
+		if (start.length != rank || stride.length != rank || count.length != rank || block.length != rank) {
+			throw new HdfException("Hyperslab " + describe(start, stride, count, block)
+					+ " does not match dataset dimensions " + Arrays.toString(datasetDimensions));
+		}
+
+		this.datasetDimensions = datasetDimensions.clone();
+		this.start = start.clone();
+		this.stride = stride.clone();
+		this.count = count.clone();
+		this.block = block.clone();
+		this.dimensions = new int[rank];
+
+		for (int i = 0; i < rank; i++) {
+			if (start[i] < 0 || count[i] < 0 || block[i] < 0) {
+				throw new HdfException("Hyperslab " + describe(start, stride, count, block)
+						+ " has negative start, count or block");
+			}
+			if (count[i] > 1 && stride[i] < block[i]) {
+				throw new HdfException("Hyperslab " + describe(start, stride, count, block)
+						+ " has overlapping blocks, stride must not be less than block");
+			}
+			if (count[i] > 0 && block[i] > 0
+					&& start[i] + (count[i] - 1) * stride[i] + block[i] > datasetDimensions[i]) {
+				throw new HdfException("Hyperslab " + describe(start, stride, count, block)
+						+ " is outside dataset dimensions " + Arrays.toString(datasetDimensions));
+			}
+
+			try {
+				dimensions[i] = Math.multiplyExact(count[i], block[i]);
+			} catch (ArithmeticException e) {
+				throw new HdfException("Hyperslab " + describe(start, stride, count, block)
+						+ " selects too many elements in a dimension, count * block must fit in an int", e);
+			}
+
+			// Adjacent blocks form a single contiguous block, normalizing makes runs as long as possible
+			if (count[i] > 1 && stride[i] == block[i]) {
+				this.count[i] = 1;
+				this.block[i] = dimensions[i];
+			}
+			if (this.count[i] == 1) {
+				this.stride[i] = this.block[i];
+			}
+		}
+	}
+
+	/**
+	 * @return the number of elements selected in each dimension i.e. <code>count * block</code>
+	 */
+	public int[] getDimensions() {
+		return dimensions.clone();
+	}
+
+	/**
+	 * @return the total number of elements selected
+	 */
+	public long getSize() {
+		long size = 1;
+		for (int dimension : dimensions) {
+			size *= dimension;
+		}
+		return size;
+	}
+
+	/**
+	 * Calls the consumer for every run of this selection in order. The runs are as long as possible, i.e. if the
+	 * selection covers the full extent of the fastest dimensions they are merged into a single run, up to
+	 * {@value #MAX_RUN_LENGTH} elements.
+	 *
+	 * @param consumer to be called for each run, the box index passed is the linear index in the dataset
+	 */
+	public void forEachRun(RunConsumer consumer) {
+		forEachRunInBox(new long[datasetDimensions.length], datasetDimensions, consumer);
+	}
+
+	/**
+	 * Checks if any of the selected elements are inside the box e.g. a chunk.
+	 *
+	 * @param boxOffset     the position of the first element of the box in the dataset
+	 * @param boxDimensions the dimensions of the box
+	 * @return <code>true</code> if the box contains selected elements <code>false</code> otherwise
+	 */
+	public boolean intersects(long[] boxOffset, long[] boxDimensions) {
+		if (getSize() == 0) {
+			return false;
+		}
+		for (int i = 0; i < dimensions.length; i++) {
+			final long boxEnd = boxOffset[i] + boxDimensions[i];
+			final int firstBlock = firstBlockEndingAfter(i, boxOffset[i]);
+			if (firstBlock >= count[i] || Math.max(boxOffset[i], blockStart(i, firstBlock)) >= boxEnd) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the boxes containing selected elements in one dimension, for a grid of equal sized boxes e.g. chunks,
+	 * where box <code>b</code> starts at <code>b * boxLength</code>. Boxes in the gaps between strided blocks are
+	 * skipped, so the work done is proportional to the number of boxes found not the size of the dataset.
+	 *
+	 * @param dimension the dimension to find the boxes in
+	 * @param boxLength the length of every box in the dimension
+	 * @return the grid positions of the boxes containing selected elements, in ascending order
+	 */
+	public int[] getIntersectingBoxes(int dimension, int boxLength) {
+		if (getSize() == 0) {
+			return new int[0];
+		}
+		final long lastBox = (start[dimension] + (count[dimension] - 1) * stride[dimension] + block[dimension] - 1)
+				/ boxLength;
+		final int[] boxes = new int[Math.toIntExact(lastBox - start[dimension] / boxLength + 1)];
+		int found = 0;
+		long box = start[dimension] / boxLength;
+		while (box <= lastBox) {
+			final long boxStart = box * boxLength;
+			final int firstBlock = firstBlockEndingAfter(dimension, boxStart);
+			if (firstBlock >= count[dimension]) {
+				break;
+			}
+			final long firstBlockStart = blockStart(dimension, firstBlock);
+			if (firstBlockStart >= boxStart + boxLength) {
+				// In the gap between blocks, jump to the box containing the next block
+				box = firstBlockStart / boxLength;
+			} else {
+				boxes[found++] = Math.toIntExact(box++);
+			}
+		}
+		return found == boxes.length ? boxes : Arrays.copyOf(boxes, found);
+	}
+
+	/**
+	 * Calls the consumer for every run of the selected elements inside the box in order. This allows data stored in
+	 * blocks, e.g. chunks, to be copied into the selection one block at a time without reading anything that is not
+	 * selected. Runs are merged where they are contiguous in both the box and the selection.
+	 *
+	 * @param boxOffset     the position of the first element of the box in the dataset
+	 * @param boxDimensions the dimensions of the box
+	 * @param consumer      to be called for each run, the box index passed is the linear index inside the box
+	 */
+	public void forEachRunInBox(long[] boxOffset, long[] boxDimensions, RunConsumer consumer) {
+		final int rank = dimensions.length;
+		if (!intersects(boxOffset, boxDimensions)) {
+			return; // Nothing selected in this box
+		}
+		if (rank == 0) {
+			// Scalar only one element
+			consumer.accept(0, 0, 1);
+			return;
+		}
+
+		// The selected intervals of the box in each dimension. As a position in the box, position in the selection
+		// and length. Each dimension holds 3 values per interval.
+		final long[][] intervals = new long[rank][];
+		for (int i = 0; i < rank; i++) {
+			intervals[i] = selectedIntervals(i, boxOffset[i], boxDimensions[i]);
+		}
+
+		// Number of elements to move for one step in each dimension of the box and the selection
+		final long[] boxStrides = new long[rank];
+		final long[] sliceStrides = new long[rank];
+		boxStrides[rank - 1] = 1;
+		sliceStrides[rank - 1] = 1;
+		for (int i = rank - 2; i >= 0; i--) {
+			boxStrides[i] = boxStrides[i + 1] * boxDimensions[i + 1];
+			sliceStrides[i] = sliceStrides[i + 1] * dimensions[i + 1];
+		}
+
+		// Merge the fastest dimensions while they are a single interval fully covering the box and the selection
+		int runDimension = rank - 1;
+		long runElements = 1;
+		while (runDimension > 0
+				&& intervals[runDimension].length == 3
+				&& intervals[runDimension][2] == boxDimensions[runDimension]
+				&& intervals[runDimension][2] == dimensions[runDimension]) {
+			runElements *= boxDimensions[runDimension];
+			runDimension--;
+		}
+
+		// Iterate every selected index of the dimensions slower than the run dimension. The position is the
+		// interval and offset into the interval in each dimension.
+		final int[] interval = new int[runDimension];
+		final long[] offsetInInterval = new long[runDimension];
+		final long[] runIntervals = intervals[runDimension];
+		while (true) {
+			long boxIndex = 0;
+			long sliceIndex = 0;
+			for (int i = 0; i < runDimension; i++) {
+				boxIndex += (intervals[i][3 * interval[i]] + offsetInInterval[i]) * boxStrides[i];
+				sliceIndex += (intervals[i][3 * interval[i] + 1] + offsetInInterval[i]) * sliceStrides[i];
+			}
+			for (int j = 0; j < runIntervals.length; j += 3) {
+				long runBoxIndex = boxIndex + runIntervals[j] * boxStrides[runDimension];
+				long runSliceIndex = sliceIndex + runIntervals[j + 1] * sliceStrides[runDimension];
+				long remaining = runIntervals[j + 2] * runElements;
+				// Split very long runs so the number of bytes in each always fits in an int
+				while (remaining > 0) {
+					final int length = (int) Math.min(remaining, MAX_RUN_LENGTH);
+					consumer.accept(runBoxIndex, runSliceIndex, length);
+					runBoxIndex += length;
+					runSliceIndex += length;
+					remaining -= length;
+				}
+			}
+
+			// Move to the next position
+			int dim = runDimension - 1;
+			while (dim >= 0) {
+				if (++offsetInInterval[dim] < intervals[dim][3 * interval[dim] + 2]) {
+					break;
+				}
+				offsetInInterval[dim] = 0;
+				if (3 * ++interval[dim] < intervals[dim].length) {
+					break;
+				}
+				interval[dim] = 0;
+				dim--;
+			}
+			if (dim < 0) {
+				return; // Finished
+			}
+		}
+	}
+
+	/**
+	 * Finds the selected intervals in one dimension of a box.
+	 *
+	 * @return the intervals as position in the box, position in the selection and length
+	 */
+	private long[] selectedIntervals(int dimension, long boxStart, long boxLength) {
+		final long boxEnd = boxStart + boxLength;
+		final int firstBlock = firstBlockEndingAfter(dimension, boxStart);
+		int lastBlock = count[dimension] - 1;
+		if (boxEnd <= start[dimension] + lastBlock * stride[dimension]) {
+			lastBlock = (int) ((boxEnd - 1 - start[dimension]) / stride[dimension]);
+		}
+
+		final long[] intervals = new long[3 * (lastBlock - firstBlock + 1)];
+		int used = 0;
+		for (int k = firstBlock; k <= lastBlock; k++) {
+			final long intervalStart = Math.max(boxStart, blockStart(dimension, k));
+			final long intervalEnd = Math.min(boxEnd, blockStart(dimension, k) + block[dimension]);
+			if (intervalStart < intervalEnd) {
+				intervals[used++] = intervalStart - boxStart;
+				intervals[used++] = (long) k * block[dimension] + intervalStart - blockStart(dimension, k);
+				intervals[used++] = intervalEnd - intervalStart;
+			}
+		}
+		return used == intervals.length ? intervals : Arrays.copyOf(intervals, used);
+	}
+
+	/**
+	 * @return the index of the first block in this dimension which ends after the position, may be equal to count
+	 * if there are none
+	 */
+	private int firstBlockEndingAfter(int dimension, long position) {
+		if (position < start[dimension] + block[dimension]) {
+			return 0;
+		}
+		final long blocks = (position - start[dimension] - block[dimension]) / stride[dimension] + 1;
+		return (int) Math.min(blocks, count[dimension]);
+	}
+
+	private long blockStart(int dimension, int blockIndex) {
+		return start[dimension] + blockIndex * stride[dimension];
+	}
+
+	private static long[] ones(int length) {
+		final long[] ones = new long[length];
+		Arrays.fill(ones, 1L);
+		return ones;
+	}
+
+	private static int[] intOnes(int length) {
+		final int[] ones = new int[length];
+		Arrays.fill(ones, 1);
+		return ones;
+	}
+
+	private static String describe(long[] start, long[] stride, int[] count, int[] block) {
+		return "start=" + Arrays.toString(start) +
+				", stride=" + Arrays.toString(stride) +
+				", count=" + Arrays.toString(count) +
+				", block=" + Arrays.toString(block);
+	}
+
+	@Override
+	public String toString() {
+		return "Hyperslab{" + describe(start, stride, count, block) + '}';
+	}
+
+	/**
+	 * Consumer of the runs making up a hyperslab selection.
+	 */
+	@FunctionalInterface
+	public interface RunConsumer {
+
+		/**
+		 * Accepts a run of contiguous elements.
+		 *
+		 * @param boxIndex   the linear index in the dataset, or box, of the first element of the run
+		 * @param sliceIndex the linear index in the selection of the first element of the run
+		 * @param length     the number of elements in the run
+		 */
+		void accept(long boxIndex, long sliceIndex, int length);
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset;
+
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+
+/**
+ * Sink copying elements directly into the rows (fastest dimension) of a multi-dimensional primitive array. As each
+ * row is a separate array the total number of elements is not limited to {@link Integer#MAX_VALUE}, only the length
+ * of each row is.
+ * <p>
+ * The elements must be the primitive type of the array, with the same number of bytes.
+ *
+ * @author James Mudd
+ */
+final class NestedArraySink implements ElementSink {
+
+	private final Object data;
+	private final int[] dimensions;
+	private final int rowLength;
+	private final int elementSize;
+
+	/**
+	 * Creates a new sink.
+	 *
+	 * @param data       the multi-dimensional primitive array to fill
+	 * @param dimensions the dimensions of the array
+	 */
+	NestedArraySink(Object data, int[] dimensions) {
+		this.data = data;
+		this.dimensions = dimensions.clone();
+		this.rowLength = dimensions[dimensions.length - 1];
+
+		Class<?> componentType = data.getClass();
+		while (componentType.isArray()) {
+			componentType = componentType.getComponentType();
+		}
+		this.elementSize = sizeOf(componentType);
+	}
+
+	@Override
+	public void put(ByteBuffer source, long elementIndex, int length) {
+		// The run may span several rows
+		while (length > 0) {
+			final int column = (int) (elementIndex % rowLength);
+			final int elements = Math.min(length, rowLength - column);
+			copyToRow(source, getRow(elementIndex / rowLength), column, elements);
+			source.position(source.position() + elements * elementSize);
+
+			elementIndex += elements;
+			length -= elements;
+		}
+	}
+
+	private Object getRow(long rowIndex) {
+		// Find the index in each dimension apart from the fastest
+		final int[] index = new int[dimensions.length - 1];
+		for (int i = index.length - 1; i >= 0; i--) {
+			index[i] = (int) (rowIndex % dimensions[i]);
+			rowIndex /= dimensions[i];
+		}
+
+		Object row = data;
+		for (int i : index) {
+			row = Array.get(row, i);
+		}
+		return row;
+	}
+
+	private static void copyToRow(ByteBuffer source, Object row, int column, int elements) {
+		if (row instanceof byte[]) {
+			source.duplicate().get((byte[]) row, column, elements);
+		} else if (row instanceof short[]) {
+			source.asShortBuffer().get((short[]) row, column, elements);
+		} else if (row instanceof int[]) {
+			source.asIntBuffer().get((int[]) row, column, elements);
+		} else if (row instanceof long[]) {
+			source.asLongBuffer().get((long[]) row, column, elements);
+		} else if (row instanceof float[]) {
+			source.asFloatBuffer().get((float[]) row, column, elements);
+		} else if (row instanceof double[]) {
+			source.asDoubleBuffer().get((double[]) row, column, elements);
+		} else {
+			throw new IllegalArgumentException("Unsupported row type " + row.getClass().getSimpleName());
+		}
+	}
+
+	private static int sizeOf(Class<?> primitiveType) {
+		if (primitiveType == byte.class) {
+			return Byte.BYTES;
+		} else if (primitiveType == short.class) {
+			return Short.BYTES;
+		} else if (primitiveType == int.class || primitiveType == float.class) {
+			return Integer.BYTES;
+		} else if (primitiveType == long.class || primitiveType == double.class) {
+			return Long.BYTES;
+		} else {
+			throw new IllegalArgumentException("Unsupported element type " + primitiveType.getSimpleName());
+		}
+	}
+}
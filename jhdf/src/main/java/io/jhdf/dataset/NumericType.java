@@ -0,0 +1,284 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset;
+
+import io.jhdf.exceptions.HdfTypeException;
+import io.jhdf.object.datatype.DataType;
+import io.jhdf.object.datatype.FixedPoint;
+import io.jhdf.object.datatype.FloatingPoint;
+
+import java.nio.ByteBuffer;
+
+import static java.lang.Math.toIntExact;
+
+/**
+ * The numeric types elements can be converted from. Creates sinks converting elements straight from the dataset
+ * buffer into the target primitive type in a single pass, without the intermediate array of the Java type of the
+ * dataset.
+ * <p>
+ * Widening follows the Java rules, signed integers are sign extended and unsigned integers are zero extended.
+ *
+ * @author James Mudd
+ */
+enum NumericType {
+	INT8, UINT8, INT16, UINT16, INT32, UINT32, INT64, UINT64, FLOAT32, FLOAT64;
+
+	/**
+	 * Gets the numeric type of a data type.
+	 *
+	 * @param dataType the data type of the elements
+	 * @return the numeric type of the elements
+	 * @throws HdfTypeException if the data type is not a supported fixed or floating point type
+	 */
+	static NumericType of(DataType dataType) {
+		if (dataType instanceof FixedPoint) {
+			final boolean signed = ((FixedPoint) dataType).isSigned();
+			switch (dataType.getSize()) {
+				case 1:
+					return signed ? INT8 : UINT8;
+				case 2:
+					return signed ? INT16 : UINT16;
+				case 4:
+					return signed ? INT32 : UINT32;
+				case 8:
+					return signed ? INT64 : UINT64;
+				default:
+					break;
+			}
+		} else if (dataType instanceof FloatingPoint) {
+			switch (dataType.getSize()) {
+				case 4:
+					return FLOAT32;
+				case 8:
+					return FLOAT64;
+				default:
+					break;
+			}
+		}
+		throw new HdfTypeException("Cannot convert elements of " + dataType.getClass().getSimpleName()
+				+ " (" + dataType.getSize() + " bytes) to a numeric type");
+	}
+
+	/**
+	 * Creates a sink converting elements of this type into a <code>double</code> array.
+	 *
+	 * @param destination the array to convert into
+	 * @param offset      the index in the array of the first element
+	 * @return the sink
+	 */
+	ElementSink toDoubles(double[] destination, int offset) {
+		if (this == FLOAT64) {
+			// No conversion needed
+			return ElementSink.of(destination, offset);
+		}
+		return (source, elementIndex, length) -> {
+			final int start = offset + toIntExact(elementIndex);
+			final int end = start + length;
+			switch (this) {
+				case INT8:
+					for (int i = start; i < end; i++) {
+						destination[i] = source.get();
+					}
+					break;
+				case UINT8:
+					for (int i = start; i < end; i++) {
+						destination[i] = Byte.toUnsignedInt(source.get());
+					}
+					break;
+				case INT16:
+					for (int i = start; i < end; i++) {
+						destination[i] = source.getShort();
+					}
+					break;
+				case UINT16:
+					for (int i = start; i < end; i++) {
+						destination[i] = Short.toUnsignedInt(source.getShort());
+					}
+					break;
+				case INT32:
+					for (int i = start; i < end; i++) {
+						destination[i] = source.getInt();
+					}
+					break;
+				case UINT32:
+					for (int i = start; i < end; i++) {
+						destination[i] = Integer.toUnsignedLong(source.getInt());
+					}
+					break;
+				case INT64:
+					for (int i = start; i < end; i++) {
+						destination[i] = source.getLong();
+					}
+					break;
+				case UINT64:
+					for (int i = start; i < end; i++) {
+						destination[i] = unsignedLongToDouble(source.getLong());
+					}
+					break;
+				case FLOAT32:
+					for (int i = start; i < end; i++) {
+						destination[i] = source.getFloat();
+					}
+					break;
+				default:
+					throw new HdfTypeException("Cannot convert " + this + " to double");
+			}
+		};
+	}
+
+	/**
+	 * Creates a sink converting elements of this type into a <code>float</code> array. Converting 64 bit types to
+	 * float may lose precision.
+	 *
+	 * @param destination the array to convert into
+	 * @param offset      the index in the array of the first element
+	 * @return the sink
+	 */
+	ElementSink toFloats(float[] destination, int offset) {
+		if (this == FLOAT32) {
+			// No conversion needed
+			return ElementSink.of(destination, offset);
+		}
+		return (source, elementIndex, length) -> {
+			final int start = offset + toIntExact(elementIndex);
+			final int end = start + length;
+			switch (this) {
+				case INT8:
+					for (int i = start; i < end; i++) {
+						destination[i] = source.get();
+					}
+					break;
+				case UINT8:
+					for (int i = start; i < end; i++) {
+						destination[i] = Byte.toUnsignedInt(source.get());
+					}
+					break;
+				case INT16:
+					for (int i = start; i < end; i++) {
+						destination[i] = source.getShort();
+					}
+					break;
+				case UINT16:
+					for (int i = start; i < end; i++) {
+						destination[i] = Short.toUnsignedInt(source.getShort());
+					}
+					break;
+				case INT32:
+					for (int i = start; i < end; i++) {
+						destination[i] = source.getInt();
+					}
+					break;
+				case UINT32:
+					for (int i = start; i < end; i++) {
+						destination[i] = Integer.toUnsignedLong(source.getInt());
+					}
+					break;
+				case INT64:
+					for (int i = start; i < end; i++) {
+						destination[i] = source.getLong();
+					}
+					break;
+				case UINT64:
+					for (int i = start; i < end; i++) {
+						destination[i] = (float) unsignedLongToDouble(source.getLong());
+					}
+					break;
+				case FLOAT64:
+					for (int i = start; i < end; i++) {
+						destination[i] = (float) source.getDouble();
+					}
+					break;
+				default:
+					throw new HdfTypeException("Cannot convert " + this + " to float");
+			}
+		};
+	}
+
+	/**
+	 * Creates a sink converting elements of this type into a <code>long</code> array. Only integer types can be
+	 * converted, unsigned 64 bit values must fit in a <code>long</code>.
+	 *
+	 * @param destination the array to convert into
+	 * @param offset      the index in the array of the first element
+	 * @return the sink
+	 * @throws HdfTypeException if this is a floating point type
+	 */
+	ElementSink toLongs(long[] destination, int offset) {
+		switch (this) {
+			case FLOAT32:
+			case FLOAT64:
+				throw new HdfTypeException("Cannot convert floating point elements to long without losing precision");
+			case INT64:
+				// No conversion needed
+				return ElementSink.of(destination, offset);
+			default:
+				break;
+		}
+		return (source, elementIndex, length) -> {
+			final int start = offset + toIntExact(elementIndex);
+			final int end = start + length;
+			switch (this) {
+				case INT8:
+					for (int i = start; i < end; i++) {
+						destination[i] = source.get();
+					}
+					break;
+				case UINT8:
+					for (int i = start; i < end; i++) {
+						destination[i] = Byte.toUnsignedLong(source.get());
+					}
+					break;
+				case INT16:
+					for (int i = start; i < end; i++) {
+						destination[i] = source.getShort();
+					}
+					break;
+				case UINT16:
+					for (int i = start; i < end; i++) {
+						destination[i] = Short.toUnsignedLong(source.getShort());
+					}
+					break;
+				case INT32:
+					for (int i = start; i < end; i++) {
+						destination[i] = source.getInt();
+					}
+					break;
+				case UINT32:
+					for (int i = start; i < end; i++) {
+						destination[i] = Integer.toUnsignedLong(source.getInt());
+					}
+					break;
+				case UINT64:
+					for (int i = start; i < end; i++) {
+						destination[i] = unsignedLongToLong(source);
+					}
+					break;
+				default:
+					throw new HdfTypeException("Cannot convert " + this + " to long");
+			}
+		};
+	}
+
+	private static double unsignedLongToDouble(long value) {
+		if (value >= 0) {
+			return value;
+		}
+		// Halve keeping the lowest bit for correct rounding, then double
+		return ((value >>> 1) | (value & 1)) * 2.0;
+	}
+
+	private static long unsignedLongToLong(ByteBuffer source) {
+		final long value = source.getLong();
+		if (value < 0) {
+			throw new HdfTypeException("Unsigned value " + Long.toUnsignedString(value) + " is too large for long");
+		}
+		return value;
+	}
+}
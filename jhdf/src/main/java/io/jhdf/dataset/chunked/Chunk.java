@@ -16,7 +16,22 @@ public interface Chunk {
 
     BitSet getFilterMask();
 
-    int[] getChunkOffset();
+    /**
+     * Gets the filter mask as an int, bit i set means filter i of the filter pipeline message was not applied to this
+     * chunk. This avoids creating a {@link BitSet} for every chunk read.
+     *
+     * @return the filter mask
+     */
+    default int getFilterMaskBits() {
+        final BitSet filterMask = getFilterMask();
+        if (filterMask == null) {
+            return 0;
+        }
+        final long[] words = filterMask.toLongArray();
+        return words.length == 0 ? 0 : (int) words[0];
+    }
+
+    long[] getChunkOffset();
 
     long getAddress();
 }
@@ -0,0 +1,152 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked;
+
+import io.jhdf.exceptions.HdfException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of decoded chunks shared by all the chunked datasets in a file, similar to the HDF5 library raw data chunk
+ * cache. Repeated reads of the same chunks are served from memory rather than reading and decoding them again.
+ * <p>
+ * The cache holds up to a budget of decoded bytes, evicting the least recently used chunks when it is exceeded.
+ * Chunks larger than the whole budget are never cached. The budget is 0 by default, which disables the cache.
+ * <p>
+ * This class is thread safe so can be used by the parallel chunk decoding.
+ *
+ * @author James Mudd
+ */
+public final class ChunkCache {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkCache.class);
+
+    /** Chunks by their address in the file, in access order so the first is the least recently used */
+    private final LinkedHashMap<Long, byte[]> chunks = new LinkedHashMap<>(16, 0.75f, true);
+
+    private volatile long budgetBytes;
+    private long sizeBytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * Sets the maximum number of decoded bytes held. If the cache already holds more than the new budget the least
+     * recently used chunks are evicted.
+     *
+     * @param budgetBytes the maximum number of decoded bytes to hold, 0 disables the cache
+     * @throws HdfException if the budget is negative
+     */
+    public synchronized void setBudget(long budgetBytes) {
+        if (budgetBytes < 0) {
+            throw new HdfException("Chunk cache budget must not be negative but was " + budgetBytes);
+        }
+        logger.debug("Setting chunk cache budget to {} bytes", budgetBytes);
+        this.budgetBytes = budgetBytes;
+        evict();
+    }
+
+    /**
+     * @return the maximum number of decoded bytes held
+     */
+    public long getBudget() {
+        return budgetBytes;
+    }
+
+    /**
+     * @return the number of decoded bytes currently held
+     */
+    public synchronized long getSize() {
+        return sizeBytes;
+    }
+
+    /**
+     * @return the number of lookups of chunks held in the cache
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * @return the number of lookups of chunks not held in the cache, while it was enabled
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Removes all the chunks from the cache.
+     */
+    public synchronized void clear() {
+        chunks.clear();
+        sizeBytes = 0;
+    }
+
+    /**
+     * Gets a decoded chunk. The returned array is shared so must not be modified.
+     *
+     * @param address the address of the chunk in the file
+     * @return the decoded chunk or <code>null</code> if it is not cached
+     */
+    byte[] get(long address) {
+        if (budgetBytes == 0) {
+            // Disabled so avoid the lock
+            return null;
+        }
+        synchronized (this) {
+            final byte[] decoded = chunks.get(address);
+            if (decoded == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+            return decoded;
+        }
+    }
+
+    /**
+     * Adds a decoded chunk, evicting the least recently used chunks if the budget is exceeded. The array must not be
+     * modified after it is added.
+     *
+     * @param address the address of the chunk in the file
+     * @param decoded the decoded chunk
+     */
+    void put(long address, byte[] decoded) {
+        if (decoded.length > budgetBytes) {
+            // Too large to cache, or the cache is disabled
+            return;
+        }
+        synchronized (this) {
+            final byte[] previous = chunks.put(address, decoded);
+            sizeBytes += decoded.length;
+            if (previous != null) {
+                // Decoded concurrently by another thread
+                sizeBytes -= previous.length;
+            }
+            evict();
+        }
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<Long, byte[]>> iterator = chunks.entrySet().iterator();
+        while (sizeBytes > budgetBytes && iterator.hasNext()) {
+            sizeBytes -= iterator.next().getValue().length;
+            iterator.remove();
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ChunkCache [budgetBytes=" + budgetBytes + ", sizeBytes=" + sizeBytes + ", chunks=" + chunks.size()
+                + ", hits=" + hits + ", misses=" + misses + "]";
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked;
+
+import io.jhdf.exceptions.HdfException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Pipeline for reading chunks, which overlaps the file I/O with decoding. It has two stages:
+ * <ol>
+ * <li>Fetch - reads the chunks from the file in order, ahead of the decoding. Only one thread fetches at a time, so
+ * the file is read sequentially.</li>
+ * <li>Process - decodes the fetched chunks and assembles them into the output, in parallel.</li>
+ * </ol>
+ * The number of chunks fetched but not yet processed is limited, so the memory used by a read is bounded however
+ * many chunks it has and however slow the decoding.
+ * <p>
+ * There are no dedicated threads, each thread takes whatever work is available, processing fetched chunks first and
+ * fetching when the limit allows. The calling thread takes part, so like {@link ChunkTasks} reads can't deadlock and
+ * an executor running tasks on the calling thread makes the read sequential.
+ *
+ * @param <F> the type of a fetched chunk
+ * @author James Mudd
+ */
+final class ChunkPipeline<F> {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkPipeline.class);
+
+    /** Chunks fetched ahead per thread, so threads don't wait for the fetching */
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+
+    /** Marker for the fetch work */
+    private static final Fetched<Object> FETCH = new Fetched<>(null, null);
+
+    private final List<Chunk> chunks;
+    private final Function<Chunk, F> fetcher;
+    private final BiConsumer<Chunk, F> processor;
+    private final int maxChunksInFlight;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Signalled when there may be new work, or the pipeline is finished */
+    private final Condition progress = lock.newCondition();
+
+    // All guarded by the lock
+    private final ArrayDeque<Fetched<F>> fetched = new ArrayDeque<>();
+    private int nextToFetch;
+    private boolean fetching;
+    private int chunksInFlight;
+    private int chunksProcessed;
+    /** Threads fetching or processing, which may still be reading the file or writing the output */
+    private int activeWorkers;
+    private Throwable failure;
+
+    private ChunkPipeline(List<Chunk> chunks, Function<Chunk, F> fetcher, BiConsumer<Chunk, F> processor,
+                          int maxChunksInFlight) {
+        this.chunks = chunks;
+        this.fetcher = fetcher;
+        this.processor = processor;
+        this.maxChunksInFlight = maxChunksInFlight;
+    }
+
+    /**
+     * Fetches and processes all the chunks, returns once all the chunks are processed. If fetching or processing a
+     * chunk fails the first failure is thrown, once no other thread is still fetching or processing.
+     *
+     * @param chunks    the chunks to read
+     * @param fetcher   reads a chunk from the file, called by one thread at a time in the order of the chunks
+     * @param processor decodes and assembles a fetched chunk, called in parallel
+     * @param executor  the executor to use for additional threads
+     * @param <F>       the type of a fetched chunk
+     */
+    static <F> void run(List<Chunk> chunks, Function<Chunk, F> fetcher, BiConsumer<Chunk, F> processor,
+                        Executor executor) {
+        final int parallelism = Math.min(ChunkTasks.getParallelism(executor), chunks.size());
+        final int maxChunksInFlight = Math.max(1, parallelism * CHUNKS_IN_FLIGHT_PER_THREAD);
+        logger.debug("Reading {} chunks using up to {} threads, with up to {} chunks in flight", chunks.size(),
+                parallelism, maxChunksInFlight);
+
+        final ChunkPipeline<F> pipeline = new ChunkPipeline<>(chunks, fetcher, processor, maxChunksInFlight);
+        for (int i = 1; i < parallelism; i++) {
+            try {
+                executor.execute(pipeline::work);
+            } catch (RejectedExecutionException e) {
+                logger.debug("Executor rejected chunk task, continuing with {} threads", i);
+                break;
+            }
+        }
+        // The calling thread works too and returns once everything is processed, threads which are yet to start
+        // will find nothing to do
+        pipeline.work();
+        // After a failure other threads may still be processing, wait so nothing writes to the output after returning
+        pipeline.awaitIdle();
+
+        final Throwable throwable = pipeline.getFailure();
+        if (throwable instanceof RuntimeException) {
+            throw (RuntimeException) throwable;
+        } else if (throwable != null) {
+            throw (Error) throwable;
+        }
+    }
+
+    private void work() {
+        try {
+            Fetched<F> next;
+            while ((next = takeWork()) != null) {
+                try {
+                    if (next == FETCH) {
+                        fetch();
+                    } else {
+                        processor.accept(next.chunk, next.data);
+                        lock.lock();
+                        try {
+                            chunksInFlight--;
+                            chunksProcessed++;
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                } finally {
+                    workFinished();
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            fail(e);
+        }
+    }
+
+    private void workFinished() {
+        lock.lock();
+        try {
+            activeWorkers--;
+            progress.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until no threads are fetching or processing.
+     */
+    private void awaitIdle() {
+        lock.lock();
+        try {
+            while (activeWorkers > 0) {
+                progress.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for work, processing is preferred to fetching so memory is freed first.
+     *
+     * @return a fetched chunk to process, {@link #FETCH} to fetch more chunks or <code>null</code> when finished
+     */
+    @SuppressWarnings("unchecked")
+    private Fetched<F> takeWork() {
+        lock.lock();
+        try {
+            while (true) {
+                if (failure != null || chunksProcessed == chunks.size()) {
+                    return null;
+                }
+                if (!fetched.isEmpty()) {
+                    activeWorkers++;
+                    return fetched.poll();
+                }
+                if (!fetching && nextToFetch < chunks.size() && chunksInFlight < maxChunksInFlight) {
+                    fetching = true;
+                    activeWorkers++;
+                    return (Fetched<F>) FETCH;
+                }
+                progress.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HdfException("Interrupted while waiting for chunks to be read", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fetches chunks until the limit of chunks in flight is reached, then stops so this thread can process.
+     */
+    private void fetch() {
+        while (true) {
+            final Chunk chunk;
+            lock.lock();
+            try {
+                if (failure != null || nextToFetch == chunks.size() || chunksInFlight >= maxChunksInFlight) {
+                    fetching = false;
+                    progress.signalAll();
+                    return;
+                }
+                chunk = chunks.get(nextToFetch++);
+                chunksInFlight++;
+            } finally {
+                lock.unlock();
+            }
+
+            // The I/O happens outside the lock, so processing can continue
+            final F data;
+            try {
+                data = fetcher.apply(chunk);
+            } catch (RuntimeException | Error e) {
+                lock.lock();
+                try {
+                    fetching = false;
+                } finally {
+                    lock.unlock();
+                }
+                throw e;
+            }
+
+            lock.lock();
+            try {
+                fetched.add(new Fetched<>(chunk, data));
+                progress.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void fail(Throwable throwable) {
+        lock.lock();
+        try {
+            if (failure == null) {
+                failure = throwable;
+            }
+            progress.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Throwable getFailure() {
+        lock.lock();
+        try {
+            return failure;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Fetched<F> {
+        private final Chunk chunk;
+        private final F data;
+
+        private Fetched(Chunk chunk, F data) {
+            this.chunk = chunk;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked;
+
+import io.jhdf.HdfFileChannel;
+import io.jhdf.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Plans the file reads for a set of chunks. The chunks are sorted by address and chunks which are adjacent, or
+ * separated by no more than the maximum gap, are merged into a single read. Chunk indexes are often not in file
+ * order, so this turns many small random reads into a few large sequential ones, which matters most on spinning disks
+ * and network file systems. The bytes in the gaps are read and discarded, which is cheaper than another read.
+ * <p>
+ * The plan is used with a {@link Reader} which reads each merged region once and hands out the chunks inside it.
+ *
+ * @author James Mudd
+ */
+final class ChunkReadPlan {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkReadPlan.class);
+
+    /** Largest merged read, so the memory held by a read is bounded */
+    static final int MAX_READ_SIZE = 8 * 1024 * 1024;
+
+    private final List<Chunk> chunks;
+    private final long[] readStarts;
+    private final long[] readEnds;
+    private final int numberOfReads;
+
+    /**
+     * Creates a plan for reading the chunks.
+     *
+     * @param chunks the chunks to read
+     * @param maxGap the maximum number of bytes between chunks merged into one read
+     */
+    ChunkReadPlan(Collection<Chunk> chunks, int maxGap) {
+        this.chunks = new ArrayList<>(chunks);
+        this.chunks.sort(Comparator.comparingLong(Chunk::getAddress));
+
+        final long[] starts = new long[this.chunks.size()];
+        final long[] ends = new long[this.chunks.size()];
+        int reads = 0;
+        for (Chunk chunk : this.chunks) {
+            final long start = chunk.getAddress();
+            final long end = start + chunk.getSize();
+            if (reads > 0 && start - ends[reads - 1] <= maxGap
+                    && Math.max(end, ends[reads - 1]) - starts[reads - 1] <= MAX_READ_SIZE) {
+                // Extend the current read, chunks shouldn't overlap but if they do don't shrink it
+                ends[reads - 1] = Math.max(end, ends[reads - 1]);
+            } else {
+                starts[reads] = start;
+                ends[reads] = end;
+                reads++;
+            }
+        }
+        this.readStarts = starts;
+        this.readEnds = ends;
+        this.numberOfReads = reads;
+        logger.debug("Planned {} reads for {} chunks with maximum gap {} bytes", reads, this.chunks.size(), maxGap);
+    }
+
+    /**
+     * @return the chunks in the order they should be read, i.e. address order
+     */
+    List<Chunk> getChunks() {
+        return chunks;
+    }
+
+    /**
+     * @return the number of reads needed to read all the chunks
+     */
+    int getNumberOfReads() {
+        return numberOfReads;
+    }
+
+    /**
+     * Creates a reader for the chunks of this plan. The reader keeps the current merged read so must only be used by
+     * one thread at a time, reading the chunks in the order of {@link #getChunks()}. Chunks can be skipped.
+     *
+     * @param hdfFc the file to read from
+     * @return a reader for the chunks
+     */
+    Reader reader(HdfFileChannel hdfFc) {
+        return new Reader(hdfFc);
+    }
+
+    final class Reader {
+        private final HdfFileChannel hdfFc;
+        private int currentRead = -1;
+        private ByteBuffer currentBuffer;
+
+        private Reader(HdfFileChannel hdfFc) {
+            this.hdfFc = hdfFc;
+        }
+
+        /**
+         * Reads the encoded data of a chunk of the plan. Chunks read together share the data of the read, so no copying
+         * is needed.
+         *
+         * @param chunk the chunk to read
+         * @return the encoded data of the chunk
+         */
+        ByteBuffer read(Chunk chunk) {
+            final int read = findRead(chunk.getAddress());
+            final long readStart = readStarts[read];
+            final int readLength = (int) (readEnds[read] - readStart);
+
+            if (readLength == chunk.getSize()) {
+                // Only this chunk in the read so no need to keep the buffer
+                return hdfFc.readBufferFromAddress(chunk.getAddress(), chunk.getSize());
+            }
+
+            if (read != currentRead) {
+                logger.debug("Reading {} bytes at address {}", readLength, readStart);
+                // Chunks of the previous read still waiting to be decoded keep it alive, the pipeline limits these
+                currentBuffer = hdfFc.readBufferFromAddress(readStart, readLength);
+                currentRead = read;
+            }
+            final ByteBuffer readBuffer = currentBuffer.duplicate();
+            readBuffer.position((int) (chunk.getAddress() - readStart));
+            return Utils.createSubBuffer(readBuffer, chunk.getSize());
+        }
+
+        /**
+         * @return the read containing the address, the last read starting at or before it
+         */
+        private int findRead(long address) {
+            final int index = Arrays.binarySearch(readStarts, 0, numberOfReads, address);
+            return index >= 0 ? index : -index - 2;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked;
+
+import io.jhdf.exceptions.HdfException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runs work on each chunk of a read using an {@link Executor}, so the threads used for decoding can be controlled.
+ * <p>
+ * The chunks are split into batches of roughly equal cost, a few per thread so uneven chunks still balance. The
+ * calling thread also processes batches, and only waits for batches which have been started. This means a read can't
+ * deadlock even if it is made from a thread of the executor itself, or the executor runs tasks on the calling thread
+ * e.g. <code>Runnable::run</code> which makes reads sequential.
+ *
+ * @author James Mudd
+ */
+final class ChunkTasks {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkTasks.class);
+
+    /** Batches per thread, so batches which take longer than expected still balance */
+    private static final int BATCHES_PER_THREAD = 4;
+
+    private ChunkTasks() {
+        throw new AssertionError("No instances of ChunkTasks");
+    }
+
+    /**
+     * Runs the action on every item, in parallel using the executor. Returns once all the items are processed.
+     *
+     * @param items    the items to process e.g. the chunks of a read
+     * @param cost     the relative cost of processing each item e.g. the chunk size
+     * @param action   the action to run on each item
+     * @param executor the executor to use for additional threads
+     * @param <T>      the type of the items
+     */
+    static <T> void forEach(List<T> items, ToLongFunction<T> cost, Consumer<T> action, Executor executor) {
+        final int parallelism = Math.min(getParallelism(executor), items.size());
+        if (parallelism <= 1) {
+            // Not worth using the executor
+            items.forEach(action);
+            return;
+        }
+
+        final int[] batchStarts = splitIntoBatches(items, cost, Math.min(items.size(),
+                parallelism * BATCHES_PER_THREAD));
+        final int numberOfBatches = batchStarts.length - 1;
+        logger.debug("Processing {} chunks in {} batches using up to {} threads", items.size(), numberOfBatches,
+                parallelism);
+
+        final AtomicInteger nextBatch = new AtomicInteger();
+        final CountDownLatch batchesDone = new CountDownLatch(numberOfBatches);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        final Runnable worker = () -> {
+            int batch;
+            while ((batch = nextBatch.getAndIncrement()) < numberOfBatches) {
+                try {
+                    // Once anything has failed the read has failed so skip the rest
+                    if (failure.get() == null) {
+                        for (int i = batchStarts[batch]; i < batchStarts[batch + 1]; i++) {
+                            action.accept(items.get(i));
+                        }
+                    }
+                } catch (RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    batchesDone.countDown();
+                }
+            }
+        };
+
+        for (int i = 1; i < parallelism; i++) {
+            try {
+                executor.execute(worker);
+            } catch (RejectedExecutionException e) {
+                logger.debug("Executor rejected chunk task, continuing with {} threads", i);
+                break;
+            }
+        }
+        // The calling thread works too, if no other threads start it will do everything
+        worker.run();
+
+        try {
+            batchesDone.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HdfException("Interrupted while waiting for chunks to be processed", e);
+        }
+
+        final Throwable throwable = failure.get();
+        if (throwable instanceof RuntimeException) {
+            throw (RuntimeException) throwable;
+        } else if (throwable != null) {
+            throw (Error) throwable;
+        }
+    }
+
+    /**
+     * Gets the number of threads to use with the executor, including the calling thread. Pools are sized to include
+     * the calling thread so the number of threads doing work doesn't exceed the pool size, except the common pool
+     * which, like parallel streams, expects the calling thread to join in.
+     */
+    static int getParallelism(Executor executor) {
+        if (executor == ForkJoinPool.commonPool()) {
+            return ForkJoinPool.getCommonPoolParallelism() + 1;
+        } else if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        } else if (executor instanceof ThreadPoolExecutor) {
+            // Cached pools have no real maximum
+            return Math.min(((ThreadPoolExecutor) executor).getMaximumPoolSize(),
+                    Runtime.getRuntime().availableProcessors());
+        } else {
+            return Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    /**
+     * Splits the items into contiguous batches of roughly equal total cost.
+     *
+     * @return the start index of each batch followed by the number of items
+     */
+    private static <T> int[] splitIntoBatches(List<T> items, ToLongFunction<T> cost, int targetBatches) {
+        final long[] costs = new long[items.size()];
+        long totalCost = 0;
+        for (int i = 0; i < costs.length; i++) {
+            // Every item has some cost, even if it's small
+            costs[i] = Math.max(1, cost.applyAsLong(items.get(i)));
+            totalCost += costs[i];
+        }
+
+        final int[] batchStarts = new int[targetBatches + 1];
+        int batches = 0;
+        boolean batchEnded = true;
+        long costSoFar = 0;
+        for (int i = 0; i < costs.length; i++) {
+            if (batchEnded) {
+                batchStarts[batches++] = i;
+            }
+            costSoFar += costs[i];
+            // End the batch once it reaches its share of the total, the last batch takes whatever is left
+            batchEnded = batches < targetBatches && costSoFar * targetBatches >= totalCost * batches;
+        }
+        batchStarts[batches] = items.size();
+        return Arrays.copyOf(batchStarts, batches + 1);
+    }
+}
@@ -13,10 +13,19 @@ import io.jhdf.HdfFileChannel;
 import io.jhdf.ObjectHeader;
 import io.jhdf.Utils;
 import io.jhdf.api.Group;
+import io.jhdf.dataset.CompoundDatasetReader;
 import io.jhdf.dataset.DatasetBase;
+import io.jhdf.dataset.DatasetReader;
+import io.jhdf.dataset.ElementSink;
+import io.jhdf.dataset.Hyperslab;
+import io.jhdf.dataset.chunked.indexing.ChunkGrid;
+import io.jhdf.dataset.chunked.indexing.ChunkIndex;
 import io.jhdf.exceptions.HdfException;
 import io.jhdf.filter.FilterManager;
 import io.jhdf.filter.FilterPipeline;
+import io.jhdf.filter.ShuffledData;
+import io.jhdf.object.datatype.CompoundDataType;
+import io.jhdf.object.datatype.DataType;
 import io.jhdf.object.message.FilterPipelineMessage;
 import org.apache.commons.lang3.concurrent.ConcurrentException;
 import org.apache.commons.lang3.concurrent.LazyInitializer;
@@ -24,229 +33,629 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static java.lang.Math.toIntExact;
+import static java.util.stream.Collectors.toList;
 
 public abstract class ChunkedDatasetBase extends DatasetBase {
     private static final Logger logger = LoggerFactory.getLogger(ChunkedDatasetBase.class);
 
+    /** Bytes of a shuffled chunk unshuffled at a time, small enough to stay in the CPU cache */
+    private static final int UNSHUFFLE_BLOCK_SIZE = 16 * 1024;
+
+    /** Bytes of zeros put into a sink at a time when filling the elements of unallocated chunks */
+    private static final int ZERO_FILL_BLOCK_SIZE = 16 * 1024;
+
     protected final FilterPipelineLazyInitializer lazyPipeline;
+    protected final ChunkIndexLazyInitializer lazyChunkIndex;
+
+    /** The executor for this dataset, if <code>null</code> the file executor is used */
+    private volatile Executor executor;
 
     public ChunkedDatasetBase(HdfFileChannel hdfFc, long address, String name, Group parent, ObjectHeader oh) {
         super(hdfFc, address, name, parent, oh);
         lazyPipeline = new FilterPipelineLazyInitializer();
+        lazyChunkIndex = new ChunkIndexLazyInitializer();
     }
 
+    /**
+     * Copies the selected elements of a chunk into the sink.
+     *
+     * @param chunk           the chunk to copy data from
+     * @param hyperslab       the selection being read
+     * @param sink            the destination of the selected data
+     * @param chunkDimensions the dimensions of each chunk
+     * @param elementSize     number of bytes in a dataset element
+     */
     protected void fillDataFromChunk(final Chunk chunk,
-                                     final byte[] dataArray,
-                                     final int[] chunkDimensions,
-                                     final int[] chunkInternalOffsets,
-                                     final int[] dataOffsets,
-                                     final int fastestChunkDim,
+                                     final Hyperslab hyperslab,
+                                     final ElementSink sink,
+                                     final long[] chunkDimensions,
                                      final int elementSize) {
 
         logger.debug("Filling data from chunk '{}'", chunk);
 
         // Get the un-filtered (decompressed) data in this chunk
-        final byte[] chunkData = decompressChunk(chunk);
-
-        // Now need to figure out how to put this chunks data into the output array
-        final int[] chunkOffset = chunk.getChunkOffset();
-        final int initialChunkOffset = Utils.dimensionIndexToLinearIndex(chunkOffset, getDimensions());
-
-        if (!isPartialChunk(chunk)) {
-            // Not a partial chunk so can always copy the max amount
-            final int length = fastestChunkDim * elementSize;
-            for (int i = 0; i < chunkInternalOffsets.length; i++) {
-                System.arraycopy(
-                        chunkData, chunkInternalOffsets[i], // src
-                        dataArray, (dataOffsets[i] + initialChunkOffset) * elementSize, // dest
-                        length); // length
-            }
-        } else {
-            logger.debug("Handling partial chunk '{}'", chunk);
-            // Partial chunk
-            final int highestDimIndex = getDimensions().length - 1;
-
-            for (int i = 0; i < chunkInternalOffsets.length; i++) {
-                // Quick check first if the data starts outside then we know this part of the chunk can be skipped
-                // Does not consider dimensions
-                if (dataOffsets[i] > dataArray.length) {
-                    continue;
-                }
-                // Is this part of the chunk outside the dataset including dimensions?
-                if(partOfChunkIsOutsideDataset(chunkInternalOffsets[i]/ elementSize, chunkDimensions, chunkOffset)) {
-                    continue;
-                }
+        final ByteBuffer chunkBuffer = decodeChunkBuffer(chunk);
+        copyFromChunk(chunkBuffer, chunk, hyperslab, sink, chunkDimensions, elementSize);
+    }
+
+    private static void copyFromChunk(final ByteBuffer chunkBuffer,
+                                      final Chunk chunk,
+                                      final Hyperslab hyperslab,
+                                      final ElementSink sink,
+                                      final long[] chunkDimensions,
+                                      final int elementSize) {
+        // Copy only the runs of the chunk inside the selection, for strided selections these can be single elements.
+        // This also handles partial chunks as the selection is always inside the dataset.
+        hyperslab.forEachRunInBox(chunk.getChunkOffset(), chunkDimensions,
+                (chunkIndex, sliceIndex, length) -> {
+                    chunkBuffer.position(toIntExact(chunkIndex * elementSize));
+                    sink.put(chunkBuffer, sliceIndex, length);
+                });
+    }
 
-                // Its inside so we need to copy at least something. Now work out how much?
-                final int length = elementSize * Math.min(fastestChunkDim,
-                        fastestChunkDim - (chunkOffset[highestDimIndex] + chunkDimensions[highestDimIndex] - getDimensions()[highestDimIndex]));
+    @Override
+    public ByteBuffer getDataBuffer() {
+        logger.trace("Getting data buffer for {}", getPath());
+
+        // Reading the whole dataset is a selection of everything
+        return getSliceDataBuffer(new long[getDimensions().length], getDimensions());
+    }
+
+    @Override
+    protected boolean readSliceInto(Hyperslab hyperslab, ElementSink sink) {
+        final int elementSize = getDataType().getSize();
 
-                System.arraycopy(
-                        chunkData, chunkInternalOffsets[i], // src
-                        dataArray, (dataOffsets[i] + initialChunkOffset) * elementSize, // dest
-                        length); // length
+        // Only the chunks containing selected elements need to be read and decoded, with a stride this may skip chunks
+        // between the blocks
+        final long[] chunkDimensions = toLongArray(getChunkDimensions());
+        final int[][] gridPositions = getIntersectingGridPositions(hyperslab);
+        final List<Chunk> chunks = getIntersectingChunks(hyperslab, gridPositions);
+        logger.debug("Reading {} chunks for {} of '{}'", chunks.size(), hyperslab, getPath());
+
+        if (chunks.size() < getNumberOfPositions(gridPositions)) {
+            // Some selected chunks are not allocated so nothing is copied for them. The destination may be reused,
+            // so fill it with zeros first the same as reading into a new array.
+            logger.debug("Filling {} of '{}' with zeros as it includes unallocated chunks", hyperslab, getPath());
+            fillWithZeros(sink, hyperslab.getSize(), elementSize);
+        }
+
+        // Pipelined reading, in file order merging nearby chunks, parallel decoding and filling, this is where all
+        // the work is done. The decoded chunks are copied straight into the destination.
+        final ChunkReadPlan readPlan = new ChunkReadPlan(chunks, hdfFc.getChunkReadGap());
+        final ChunkReadPlan.Reader reader = readPlan.reader(hdfFc);
+        final FilterPipeline deflateShufflePipeline = getDeflateShufflePipeline(elementSize);
+        ChunkPipeline.run(readPlan.getChunks(), chunk -> fetchChunk(chunk, reader), (chunk, fetchedChunk) -> {
+            if (deflateShufflePipeline != null && fetchedChunk.encodedBuffer != null && chunk.getFilterMaskBits() == 0) {
+                final ShuffledData shuffledData = deflateShufflePipeline.decodeShuffled(fetchedChunk.encodedBuffer,
+                        getChunkSizeInBytes());
+                copyFromShuffledChunk(shuffledData, chunk, hyperslab, sink, chunkDimensions, elementSize);
+            } else {
+                final ByteBuffer chunkBuffer = ByteBuffer.wrap(decodeFetchedChunk(chunk, fetchedChunk));
+                convertToCorrectEndiness(chunkBuffer);
+                copyFromChunk(chunkBuffer, chunk, hyperslab, sink, chunkDimensions, elementSize);
             }
+        }, getExecutor());
+        return true;
+    }
 
+    /**
+     * Gets the filter pipeline if it is deflate and shuffle, the most common, and can be decoded without creating the
+     * decoded chunks. This needs the chunk cache to be disabled as there is no decoded chunk to cache.
+     *
+     * @return the pipeline or <code>null</code> if chunks must be decoded normally
+     */
+    private FilterPipeline getDeflateShufflePipeline(int elementSize) {
+        final FilterPipeline pipeline = getFilterPipeline();
+        if (pipeline != null && pipeline.isDeflateShuffle(elementSize) && hdfFc.getChunkCache().getBudget() == 0) {
+            logger.debug("Decoding deflate and shuffle chunks of '{}' straight into the destination", getPath());
+            return pipeline;
         }
+        return null;
     }
 
-    private boolean partOfChunkIsOutsideDataset(final int chunkInternalOffsetIndex,
-                                                final int[] chunkDimensions,
-                                                final int[] chunkOffset) {
+    /**
+     * Copies the selected elements of an inflated but still shuffled chunk into the sink. The runs are unshuffled in
+     * small blocks which stay in the CPU cache on their way to the sink, rather than unshuffling the whole chunk into a
+     * new array then copying it again.
+     */
+    private void copyFromShuffledChunk(final ShuffledData shuffledData,
+                                       final Chunk chunk,
+                                       final Hyperslab hyperslab,
+                                       final ElementSink sink,
+                                       final long[] chunkDimensions,
+                                       final int elementSize) {
+        final int blockElements = Math.max(1, Math.min(shuffledData.getNumberOfElements(),
+                UNSHUFFLE_BLOCK_SIZE / elementSize));
+        final byte[] block = new byte[blockElements * elementSize];
+        final ByteBuffer blockBuffer = ByteBuffer.wrap(block);
+        convertToCorrectEndiness(blockBuffer);
+
+        hyperslab.forEachRunInBox(chunk.getChunkOffset(), chunkDimensions,
+                (chunkIndex, sliceIndex, length) -> {
+                    for (int done = 0; done < length; done += blockElements) {
+                        final int elements = Math.min(blockElements, length - done);
+                        shuffledData.unshuffle(toIntExact(chunkIndex + done), elements, block, 0);
+                        blockBuffer.limit(elements * elementSize);
+                        blockBuffer.position(0);
+                        sink.put(blockBuffer, sliceIndex + done, elements);
+                    }
+                });
+    }
 
-        int[] locationInChunk = Utils.linearIndexToDimensionIndex(chunkInternalOffsetIndex, chunkDimensions);
-        for (int j = 0; j < locationInChunk.length - 1; j++) {
-            // Check if this dimension would be outside the dataset
-            if (chunkOffset[j] + locationInChunk[j] >= getDimensions()[j]) {
-                return true;
-            }
+    private static void fillWithZeros(ElementSink sink, long elements, int elementSize) {
+        final int blockElements = Math.max(1, ZERO_FILL_BLOCK_SIZE / elementSize);
+        final ByteBuffer zeros = ByteBuffer.allocate(blockElements * elementSize);
+        for (long done = 0; done < elements; done += blockElements) {
+            zeros.clear();
+            sink.put(zeros, done, (int) Math.min(blockElements, elements - done));
         }
-        // Nothing is outside
-        return false;
+    }
+
+    @Override
+    public Iterator<Object> rowBlocks(int rowsPerBlock) {
+        return rowBlocks(rowsPerBlock, new RowBandReader());
     }
 
     /**
-     * Calculates the linear offsets into the dataset for each of the chunks internal offsets. It can be thought of as
-     * only doing this do the first chunk as to calculate the offsets required for any other chunk you need to add
-     * the initial linear offset of that chunk to each of these values.
-     *
-     * @param chunkInternalOffsets a chunk offset
-     * @return offset in the dataset
+     * Reads blocks of rows keeping the decoded chunks of the current row band, so chunks spanning several blocks are
+     * only decoded once. Chunks are dropped as soon as a block no longer needs them, as blocks are read in order they
+     * will not be needed again.
      */
-    protected int[] getDataOffsets(int[] chunkInternalOffsets) {
+    private final class RowBandReader implements SliceReader {
+        private final long[] chunkDimensions = toLongArray(getChunkDimensions());
+        private final Map<Chunk, ByteBuffer> decodedChunks = new ConcurrentHashMap<>();
+
+        @Override
+        public boolean readSliceInto(Hyperslab hyperslab, ElementSink sink) {
+            final int elementSize = getDataType().getSize();
+
+            decodedChunks.keySet().removeIf(chunk -> !hyperslab.intersects(chunk.getChunkOffset(), chunkDimensions));
+
+            final List<Chunk> blockChunks = getIntersectingChunks(hyperslab,
+                    getIntersectingGridPositions(hyperslab));
+            logger.debug("Reading {} chunks for {} of '{}', {} already decoded", blockChunks.size(), hyperslab,
+                    getPath(), decodedChunks.size());
+
+            ChunkTasks.forEach(blockChunks, Chunk::getSize, chunk -> {
+                final ByteBuffer chunkBuffer = decodedChunks.computeIfAbsent(chunk,
+                        ChunkedDatasetBase.this::decodeChunkBuffer);
+                // Duplicate as the position is changed while copying
+                copyFromChunk(chunkBuffer.duplicate().order(chunkBuffer.order()), chunk, hyperslab, sink,
+                        chunkDimensions, elementSize);
+            }, getExecutor());
+            return true;
+        }
+    }
 
-        final int[] dimensionLinearOffsets = getDimensionLinearOffsets();
+    @Override
+    protected ByteBuffer getPointsDataBuffer(long[][] points) {
         final int[] chunkDimensions = getChunkDimensions();
+        final int rank = chunkDimensions.length;
         final int elementSize = getDataType().getSize();
+        final ChunkGrid chunkGrid = new ChunkGrid(chunkDimensions, getLongDimensions());
+        final ChunkIndex chunkIndex = getChunkIndex();
+
+        // Bucket the points by the chunk containing them so each chunk is only decoded once
+        final Map<Long, ChunkPoints> chunkToPoints = new HashMap<>();
+        for (int i = 0; i < points.length; i++) {
+            final int[] chunkGridPosition = chunkGrid.getChunkGridPosition(points[i]);
+            chunkToPoints.computeIfAbsent(chunkGrid.getChunkIndex(chunkGridPosition),
+                    key -> new ChunkPoints(chunkGridPosition)).add(i);
+        }
+        logger.debug("Reading {} points from {} chunks of '{}'", points.length, chunkToPoints.size(), getPath());
 
-        final int[] dataOffsets = new int[chunkInternalOffsets.length];
-        for (int i = 0; i < chunkInternalOffsets.length; i++) {
-            final int[] chunkDimIndex = Utils.linearIndexToDimensionIndex((chunkInternalOffsets[i] / elementSize), chunkDimensions);
+        final byte[] dataArray = new byte[Math.multiplyExact(points.length, elementSize)];
 
-            int dataOffset = 0;
-            for (int j = 0; j < chunkDimIndex.length; j++) {
-                dataOffset += chunkDimIndex[j] * dimensionLinearOffsets[j];
+        // Points in chunks which are not allocated are left as zero in the same way as when reading the whole dataset
+        final List<ChunkPoints> allocatedChunkPoints = new ArrayList<>(chunkToPoints.size());
+        for (ChunkPoints chunkPoints : chunkToPoints.values()) {
+            chunkPoints.chunk = chunkIndex.getChunk(chunkPoints.chunkGridPosition);
+            if (chunkPoints.chunk != null) {
+                allocatedChunkPoints.add(chunkPoints);
             }
-            dataOffsets[i] = dataOffset;
         }
-        return dataOffsets;
+
+        // Parallel decoding of the chunks and scattering of the points back into request order
+        ChunkTasks.forEach(allocatedChunkPoints, chunkPoints -> chunkPoints.chunk.getSize(), chunkPoints -> {
+            final byte[] chunkData = decompressChunk(chunkPoints.chunk);
+            final long[] chunkOffset = chunkPoints.chunk.getChunkOffset();
+            for (int i = 0; i < chunkPoints.size; i++) {
+                final int pointIndex = chunkPoints.pointIndices[i];
+                int indexInChunk = 0;
+                for (int j = 0; j < rank; j++) {
+                    indexInChunk = indexInChunk * chunkDimensions[j]
+                            + (int) (points[pointIndex][j] - chunkOffset[j]);
+                }
+                System.arraycopy(chunkData, indexInChunk * elementSize,
+                        dataArray, pointIndex * elementSize, elementSize);
+            }
+        }, getExecutor());
+
+        final ByteBuffer dataBuffer = ByteBuffer.wrap(dataArray);
+        convertToCorrectEndiness(dataBuffer);
+        return dataBuffer;
     }
 
-    @Override
-    public ByteBuffer getDataBuffer() {
-        logger.trace("Getting data buffer for {}", getPath());
+    /**
+     * Gets a stream of the decoded chunks of this dataset. Chunks are only read and decoded as the stream is
+     * consumed, so datasets much larger than the heap can be processed in bounded memory. The stream splits by chunk
+     * so it can be made {@link Stream#parallel() parallel} to decode chunks concurrently.
+     * <p>
+     * Only allocated chunks are included, elements in unallocated chunks have the fill value. The order of the
+     * chunks is the order they are indexed in the file.
+     *
+     * @return a stream of the decoded chunks of this dataset
+     */
+    public Stream<DecodedChunk> chunks() {
+        final long[] datasetDimensions = getLongDimensions();
+        final int[] chunkDimensions = getChunkDimensions();
+        logger.debug("Streaming chunks of '{}'", getPath());
+
+        // The list spliterator splits by chunk and decoding only happens in the map
+        return new ArrayList<>(getAllChunks()).stream()
+                .map(chunk -> decodeChunk(chunk, datasetDimensions, chunkDimensions));
+    }
+
+    /**
+     * Reads and decodes all the chunks of this dataset passing each to the consumer. Unlike {@link #chunks()} the
+     * chunks are read ahead and decoded in parallel using the {@link #getExecutor() executor}, while the number of
+     * decoded chunks waiting for the consumer is bounded, so the memory used stays small.
+     * <p>
+     * The consumer is only called by one thread at a time, but not always the same thread. The order of the chunks
+     * is not defined.
+     *
+     * @param consumer the consumer of the decoded chunks
+     */
+    public void forEachChunk(Consumer<DecodedChunk> consumer) {
+        final long[] datasetDimensions = getLongDimensions();
+        final int[] chunkDimensions = getChunkDimensions();
+        final ChunkReadPlan readPlan = new ChunkReadPlan(getAllChunks(), hdfFc.getChunkReadGap());
+        final ChunkReadPlan.Reader reader = readPlan.reader(hdfFc);
+        logger.debug("Passing {} chunks of '{}' to consumer", readPlan.getChunks().size(), getPath());
+
+        final Object consumerLock = new Object();
+        ChunkPipeline.run(readPlan.getChunks(), chunk -> fetchChunk(chunk, reader), (chunk, fetchedChunk) -> {
+            final ByteBuffer chunkBuffer = ByteBuffer.wrap(decodeFetchedChunk(chunk, fetchedChunk));
+            convertToCorrectEndiness(chunkBuffer);
+            final DecodedChunk decodedChunk = createDecodedChunk(chunk, chunkBuffer, datasetDimensions,
+                    chunkDimensions);
+            synchronized (consumerLock) {
+                consumer.accept(decodedChunk);
+            }
+        }, getExecutor());
+    }
+
+    private DecodedChunk decodeChunk(Chunk chunk, long[] datasetDimensions, int[] chunkDimensions) {
+        return createDecodedChunk(chunk, decodeChunkBuffer(chunk), datasetDimensions, chunkDimensions);
+    }
+
+    private DecodedChunk createDecodedChunk(Chunk chunk, ByteBuffer chunkBuffer, long[] datasetDimensions,
+                                           int[] chunkDimensions) {
+        final long[] chunkOffset = chunk.getChunkOffset();
+
+        // Chunks at the edge of the dataset are only partly inside it
+        final int[] validDimensions = new int[chunkDimensions.length];
+        for (int i = 0; i < chunkDimensions.length; i++) {
+            validDimensions[i] = (int) Math.min(chunkDimensions[i], datasetDimensions[i] - chunkOffset[i]);
+        }
 
-        // Need to load the full buffer into memory so create the array
-        final byte[] dataArray = new byte[toIntExact(getDiskSize())];
-        logger.trace("Created data buffer for '{}' of size {} bytes", getPath(), dataArray.length);
+        // Read only as the decoded data may be shared with the chunk cache
+        return new DecodedChunk(this, chunkOffset, chunkDimensions, validDimensions,
+                chunkBuffer.asReadOnlyBuffer().order(chunkBuffer.order()));
+    }
 
+    /**
+     * Converts the valid region of a decoded chunk to a Java object.
+     *
+     * @param decodedChunk the chunk to convert
+     * @return the data of the valid region of the chunk
+     */
+    Object getChunkData(DecodedChunk decodedChunk) {
+        final int[] dimensions = decodedChunk.getDimensions();
+        final Hyperslab validRegion = new Hyperslab(toLongArray(decodedChunk.getChunkDimensions()),
+                new long[dimensions.length], dimensions);
         final int elementSize = getDataType().getSize();
 
-        // Get all chunks because were reading the whole dataset
-        final Collection<Chunk> chunks = getAllChunks();
+        // Copy out the valid region, for chunks inside the dataset this is a single run
+        final byte[] dataArray = new byte[toIntExact(validRegion.getSize() * elementSize)];
+        final ElementSink sink = ElementSink.of(dataArray, 0, elementSize);
+        final ByteBuffer chunkBuffer = decodedChunk.getBuffer();
+        validRegion.forEachRun((chunkIndex, dataIndex, length) -> {
+            chunkBuffer.position(toIntExact(chunkIndex * elementSize));
+            sink.put(chunkBuffer, dataIndex, length);
+        });
+
+        final ByteBuffer dataBuffer = ByteBuffer.wrap(dataArray);
+        convertToCorrectEndiness(dataBuffer);
+
+        final DataType type = getDataType();
+        if (type instanceof CompoundDataType) {
+            return CompoundDatasetReader.readDataset((CompoundDataType) type, dataBuffer, validRegion.getSize(),
+                    dimensions, hdfFc);
+        } else {
+            return DatasetReader.readDataset(type, dataBuffer, dimensions, hdfFc);
+        }
+    }
 
-        // These are all the same for every chunk
-        final int[] chunkDimensions = getChunkDimensions();
-        final int[] chunkInternalOffsets = getChunkInternalOffsets(chunkDimensions, elementSize);
-        final int[] dataOffsets = getDataOffsets(chunkInternalOffsets);
-        final int fastestChunkDim = chunkDimensions[chunkDimensions.length - 1];
+    /**
+     * The indices of the requested points inside one chunk.
+     */
+    private static final class ChunkPoints {
+        private final int[] chunkGridPosition;
+        private Chunk chunk;
+        private int[] pointIndices = new int[4];
+        private int size;
+
+        private ChunkPoints(int[] chunkGridPosition) {
+            this.chunkGridPosition = chunkGridPosition;
+        }
 
-        // Parallel decoding and filling, this is where all the work is done
-        chunks.parallelStream().forEach(chunk -> fillDataFromChunk(chunk, dataArray, chunkDimensions,
-                chunkInternalOffsets, dataOffsets, fastestChunkDim, elementSize));
+        private void add(int pointIndex) {
+            if (size == pointIndices.length) {
+                pointIndices = Arrays.copyOf(pointIndices, size * 2);
+            }
+            pointIndices[size++] = pointIndex;
+        }
+    }
 
-        return ByteBuffer.wrap(dataArray);
+    /**
+     * Gets the chunk grid positions containing selected elements in each dimension, skipping the gaps of strided
+     * selections. The chunks containing selected elements are at every combination of these positions.
+     *
+     * @param hyperslab the selection being read
+     * @return the grid positions containing selected elements in each dimension
+     */
+    private int[][] getIntersectingGridPositions(Hyperslab hyperslab) {
+        final int[] chunkDimensions = getChunkDimensions();
+        final int[][] gridPositions = new int[chunkDimensions.length][];
+        for (int i = 0; i < chunkDimensions.length; i++) {
+            gridPositions[i] = hyperslab.getIntersectingBoxes(i, chunkDimensions[i]);
+        }
+        return gridPositions;
     }
 
-    protected abstract Collection<Chunk> getAllChunks();
+    private static long getNumberOfPositions(int[][] gridPositions) {
+        long positions = 1;
+        for (int[] dimensionPositions : gridPositions) {
+            positions *= dimensionPositions.length;
+        }
+        return positions;
+    }
 
-    protected abstract int[] getChunkDimensions();
+    /**
+     * Gets the allocated chunks containing selected elements. The chunk grid positions covered by the selection are
+     * looked up in the chunk index, so reading a small selection doesn't depend on the number of chunks. Only if the
+     * selection covers more grid positions than there are allocated chunks, e.g. large sparse datasets, are the
+     * allocated chunks scanned instead.
+     *
+     * @param hyperslab     the selection being read
+     * @param gridPositions the grid positions containing selected elements in each dimension
+     * @return the allocated chunks containing selected elements
+     */
+    private List<Chunk> getIntersectingChunks(Hyperslab hyperslab, int[][] gridPositions) {
+        final int[] chunkDimensions = getChunkDimensions();
+        final int rank = chunkDimensions.length;
+        final long positions = getNumberOfPositions(gridPositions);
+        if (positions == 0) {
+            return new ArrayList<>();
+        }
+
+        final ChunkIndex chunkIndex = getChunkIndex();
+        final Collection<Chunk> allChunks = getAllChunks();
+        if (positions > allChunks.size()) {
+            final long[] longChunkDimensions = toLongArray(chunkDimensions);
+            return allChunks.stream()
+                    .filter(chunk -> hyperslab.intersects(chunk.getChunkOffset(), longChunkDimensions))
+                    .collect(toList());
+        }
+
+        final List<Chunk> chunks = new ArrayList<>((int) positions);
+        final int[] position = new int[rank];
+        final int[] chunkGridPosition = new int[rank];
+        while (true) {
+            for (int i = 0; i < rank; i++) {
+                chunkGridPosition[i] = gridPositions[i][position[i]];
+            }
+            final Chunk chunk = chunkIndex.getChunk(chunkGridPosition);
+            if (chunk != null) {
+                chunks.add(chunk);
+            }
+
+            // Move to the next position, the last dimension fastest
+            int dim = rank - 1;
+            while (dim >= 0 && ++position[dim] == gridPositions[dim].length) {
+                position[dim] = 0;
+                dim--;
+            }
+            if (dim < 0) {
+                return chunks;
+            }
+        }
+    }
+
+    /**
+     * Gets all the allocated chunks of this dataset. The chunk index is only read from the file the first time, then
+     * reused by all later reads.
+     *
+     * @return the allocated chunks of this dataset
+     */
+    protected Collection<Chunk> getAllChunks() {
+        return getChunkIndex().getAllChunks();
+    }
 
     /**
-     * Gets the number of linear steps to move for one step in the corresponding dimension
+     * Gets the allocated chunk containing an element of this dataset, without scanning all the chunks.
      *
-     * @return array of the number of linear step to move for one step in each dimension
+     * @param position the position of the element in the dataset
+     * @return the chunk containing the element or <code>null</code> if it is not allocated
+     * @throws HdfException if the position is outside the dataset
      */
-    private int[] getDimensionLinearOffsets() {
-        int dimLength = getDimensions().length;
-        int[] dimensionLinearOffsets = new int[dimLength];
-        Arrays.fill(dimensionLinearOffsets, 1);
-        // dimensionLinearOffsets.length - 1 because a step in the fastest dim is always 1
-        for (int i = 0; i < dimensionLinearOffsets.length - 1; i++) {
-            for (int j = i + 1; j < dimensionLinearOffsets.length; j++) {
-                dimensionLinearOffsets[i] *= getDimensions()[j];
+    public Chunk getChunk(long... position) {
+        final long[] dimensions = getLongDimensions();
+        if (position.length != dimensions.length) {
+            throw new HdfException("Position " + Arrays.toString(position) + " does not match dataset dimensions "
+                    + Arrays.toString(dimensions));
+        }
+        for (int i = 0; i < dimensions.length; i++) {
+            if (position[i] < 0 || position[i] >= dimensions[i]) {
+                throw new HdfException("Position " + Arrays.toString(position) + " is outside dataset dimensions "
+                        + Arrays.toString(dimensions));
             }
         }
-        return dimensionLinearOffsets;
+        final int[] chunkGridPosition = new ChunkGrid(getChunkDimensions(), dimensions).getChunkGridPosition(position);
+        return getChunkIndex().getChunk(chunkGridPosition);
     }
 
     /**
-     * Gets the offsets inside a chunk where a contiguous run of data starts.
+     * Sets the executor used to decode the chunks of this dataset in parallel, overriding the executor of the file.
      *
-     * @param chunkDimensions the dimensions of each chunk
-     * @param elementSize number of bytes in a an dataset element
-     * @return an array of locations inside the chunk where contiguous data starts
+     * @param executor the executor to use or <code>null</code> to use the executor of the file
+     * @see io.jhdf.HdfFile#setExecutor(Executor)
      */
-    protected int[] getChunkInternalOffsets(int[] chunkDimensions, int elementSize) {
-        final int fastestChunkDim = chunkDimensions[chunkDimensions.length - 1];
-        final int numOfOffsets = Arrays.stream(chunkDimensions)
-                .limit(chunkDimensions.length - 1L)
-                .reduce(1, (a, b) -> a * b);
-
-        final int[] chunkOffsets = new int[numOfOffsets];
-        for (int i = 0; i < numOfOffsets; i++) {
-            chunkOffsets[i] = i * fastestChunkDim * elementSize;
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return the executor used to decode the chunks of this dataset
+     */
+    public Executor getExecutor() {
+        final Executor datasetExecutor = executor;
+        return datasetExecutor == null ? hdfFc.getExecutor() : datasetExecutor;
+    }
+
+    private ChunkIndex getChunkIndex() {
+        try {
+            return lazyChunkIndex.get();
+        } catch (ConcurrentException e) {
+            throw new HdfException("Failed to read chunk index for dataset '" + getPath() + "'", e);
         }
-        return chunkOffsets;
     }
 
     /**
-     * A partial chunk is one that is not completely inside the dataset. i.e. some of its contents are not part of the
-     * dataset
+     * Reads the index of the chunks of this dataset from the file. This is only called once per dataset.
      *
-     * @param chunk The chunk to test
-     * @return true if this is a partial chunk
+     * @return the chunk index of this dataset
      */
-    private boolean isPartialChunk(Chunk chunk) {
-        final int[] datasetDims = getDimensions();
-        final int[] chunkOffset = chunk.getChunkOffset();
-        final int[] chunkDims = getChunkDimensions();
-
-        for (int i = 0; i < chunkOffset.length; i++) {
-            if (chunkOffset[i] + chunkDims[i] > datasetDims[i]) {
-                return true;
-            }
+    protected abstract ChunkIndex createChunkIndex();
+
+    protected abstract int[] getChunkDimensions();
+
+    protected int getChunkSizeInBytes() {
+        try {
+            return Math.multiplyExact(Arrays.stream(getChunkDimensions()).reduce(1, Math::multiplyExact),
+                    getDataType().getSize());
+        } catch (ArithmeticException e) {
+            throw new HdfException("Chunk size of dataset '" + getPath() + "' with chunk dimensions "
+                    + Arrays.toString(getChunkDimensions()) + " and element size " + getDataType().getSize()
+                    + " bytes is too large", e);
         }
+    }
+
+    private static long[] toLongArray(int[] array) {
+        return Arrays.stream(array).asLongStream().toArray();
+    }
 
-        return false;
+    /**
+     * @return the decoded data of the chunk in a buffer of the correct order (endiness)
+     */
+    private ByteBuffer decodeChunkBuffer(Chunk chunk) {
+        final ByteBuffer chunkBuffer = ByteBuffer.wrap(decompressChunk(chunk));
+        convertToCorrectEndiness(chunkBuffer);
+        return chunkBuffer;
     }
 
+    /**
+     * Gets the decoded data of the chunk, from the file chunk cache if it is there. The returned array may be shared
+     * so must not be modified.
+     */
     private byte[] decompressChunk(Chunk chunk) {
-        // Get the encoded (i.e. compressed buffer)
-        final ByteBuffer encodedBuffer = getDataBuffer(chunk);
+        return decodeFetchedChunk(chunk, fetchChunk(chunk));
+    }
 
-        // Get the encoded data from buffer
-        final byte[] encodedBytes = new byte[encodedBuffer.remaining()];
-        encodedBuffer.get(encodedBytes);
+    /**
+     * Reads the encoded (i.e. compressed) data of the chunk, unless the decoded data is in the file chunk cache. This
+     * is the I/O part of reading a chunk.
+     */
+    private FetchedChunk fetchChunk(Chunk chunk) {
+        final byte[] cachedBytes = hdfFc.getChunkCache().get(chunk.getAddress());
+        if (cachedBytes != null) {
+            logger.debug("Using cached decoded chunk '{}'", chunk);
+            return new FetchedChunk(null, cachedBytes);
+        }
+        return new FetchedChunk(getDataBuffer(chunk), null);
+    }
 
+    /**
+     * Fetches a chunk using a reader of a read plan, so nearby chunks are read from the file together.
+     */
+    private FetchedChunk fetchChunk(Chunk chunk, ChunkReadPlan.Reader reader) {
+        final byte[] cachedBytes = hdfFc.getChunkCache().get(chunk.getAddress());
+        if (cachedBytes != null) {
+            logger.debug("Using cached decoded chunk '{}'", chunk);
+            return new FetchedChunk(null, cachedBytes);
+        }
         try {
-            final FilterPipeline pipeline = this.lazyPipeline.get();
+            return new FetchedChunk(reader.read(chunk), null);
+        } catch (Exception e) {
+            throw new HdfException(
+                    "Failed to read chunk for dataset '" + getPath() + "' at address " + chunk.getAddress(), e);
+        }
+    }
 
-            if (pipeline == null) {
-                // No filters
-                logger.debug("No filters returning decoded chunk '{}'", chunk);
-                return encodedBytes;
-            }
+    /**
+     * Decodes a fetched chunk, adding it to the file chunk cache. This is the CPU part of reading a chunk. The
+     * returned array may be shared so must not be modified.
+     */
+    private byte[] decodeFetchedChunk(Chunk chunk, FetchedChunk fetchedChunk) {
+        if (fetchedChunk.decodedBytes != null) {
+            return fetchedChunk.decodedBytes;
+        }
+        final byte[] decodedBytes = decodeChunkBytes(chunk, fetchedChunk.encodedBuffer);
+        hdfFc.getChunkCache().put(chunk.getAddress(), decodedBytes);
+        return decodedBytes;
+    }
+
+    private byte[] decodeChunkBytes(Chunk chunk, ByteBuffer encodedBuffer) {
+        final FilterPipeline pipeline = getFilterPipeline();
 
-            // Decode using the pipeline applying the filters
-            final byte[] decodedBytes = pipeline.decode(encodedBytes);
-            logger.debug("Decoded {}", chunk);
+        if (pipeline == null) {
+            // No filters
+            logger.debug("No filters returning decoded chunk '{}'", chunk);
+            return Utils.toByteArray(encodedBuffer);
+        }
+
+        // Decode using the pipeline applying the filters not skipped for this chunk, the decoded size is the chunk size
+        final byte[] decodedBytes = pipeline.decode(encodedBuffer, getChunkSizeInBytes(), chunk.getFilterMaskBits());
+        logger.debug("Decoded {}", chunk);
 
-            return decodedBytes;
+        return decodedBytes;
+    }
+
+    /**
+     * @return the filter pipeline of this dataset or <code>null</code> if it has no filters. If checksum verification
+     * is disabled for the file the pipeline only strips checksums.
+     */
+    private FilterPipeline getFilterPipeline() {
+        try {
+            final FilterPipeline pipeline = lazyPipeline.get();
+            if (pipeline != null && !hdfFc.isChecksumVerificationEnabled()) {
+                return pipeline.withoutChecksumVerification();
+            }
+            return pipeline;
         } catch (ConcurrentException e) {
             throw new HdfException("Failed to get filter pipeline", e);
         }
@@ -254,10 +663,33 @@ public abstract class ChunkedDatasetBase extends DatasetBase {
 
     private ByteBuffer getDataBuffer(Chunk chunk) {
         try {
-            return hdfFc.map(chunk.getAddress(), chunk.getSize());
+            // Chunks are copied out immediately, so read rather than map them. Mapping each chunk holds a file
+            // mapping until the buffer is garbage collected, reading many chunks can exhaust the mapping limit.
+            return hdfFc.readBufferFromAddress(chunk.getAddress(), chunk.getSize());
         } catch (Exception e) {
             throw new HdfException(
-                    "Failed to read chunk for dataset '" + getPath() + "' at address " + chunk.getAddress());
+                    "Failed to read chunk for dataset '" + getPath() + "' at address " + chunk.getAddress(), e);
+        }
+    }
+
+    /**
+     * The encoded data of a chunk read from the file, or the decoded data if it was in the chunk cache.
+     */
+    private static final class FetchedChunk {
+        private final ByteBuffer encodedBuffer;
+        private final byte[] decodedBytes;
+
+        private FetchedChunk(ByteBuffer encodedBuffer, byte[] decodedBytes) {
+            this.encodedBuffer = encodedBuffer;
+            this.decodedBytes = decodedBytes;
+        }
+    }
+
+    protected final class ChunkIndexLazyInitializer extends LazyInitializer<ChunkIndex> {
+        @Override
+        protected ChunkIndex initialize() {
+            logger.debug("Lazy initializing chunk index for '{}'", getPath());
+            return createChunkIndex();
         }
     }
 
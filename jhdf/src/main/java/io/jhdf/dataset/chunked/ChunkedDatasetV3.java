@@ -12,12 +12,10 @@ package io.jhdf.dataset.chunked;
 import io.jhdf.HdfFileChannel;
 import io.jhdf.ObjectHeader;
 import io.jhdf.api.Group;
-import io.jhdf.btree.BTreeV1;
-import io.jhdf.btree.BTreeV1Data;
+import io.jhdf.dataset.chunked.indexing.BTreeV1Index;
+import io.jhdf.dataset.chunked.indexing.ChunkIndex;
 import io.jhdf.object.message.DataLayoutMessage.ChunkedDataLayoutMessageV3;
 
-import java.util.Collection;
-
 /**
  * This represents chunked datasets using a b-tree for indexing raw data chunks.
  * It supports filters for use when reading the dataset for example to
@@ -37,9 +35,9 @@ public class ChunkedDatasetV3 extends ChunkedDatasetBase {
     }
 
     @Override
-    protected Collection<Chunk> getAllChunks() {
-        final BTreeV1Data bTree = BTreeV1.createDataBTree(hdfFc, layoutMessage.getBTreeAddress(), getDimensions().length);
-        return bTree.getChunks();
+    protected ChunkIndex createChunkIndex() {
+        final DatasetInfo datasetInfo = new DatasetInfo(getChunkSizeInBytes(), getLongDimensions(), getChunkDimensions());
+        return new BTreeV1Index(hdfFc, layoutMessage.getBTreeAddress(), datasetInfo);
     }
 
     @Override
@@ -24,9 +24,6 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Arrays;
-import java.util.Collection;
-
 public class ChunkedDatasetV4 extends ChunkedDatasetBase {
     private static final Logger logger = LoggerFactory.getLogger(ChunkedDatasetV4.class);
 
@@ -48,8 +45,8 @@ public class ChunkedDatasetV4 extends ChunkedDatasetBase {
     }
 
     @Override
-    protected Collection<Chunk> getAllChunks() {
-        final DatasetInfo datasetInfo = new DatasetInfo(getChunkSizeInBytes(), getDimensions(), getChunkDimensions());
+    protected ChunkIndex createChunkIndex() {
+        final DatasetInfo datasetInfo = new DatasetInfo(getChunkSizeInBytes(), getLongDimensions(), getChunkDimensions());
         final ChunkIndex chunkIndex;
         switch (layoutMessage.getIndexingType()) {
             case 1: // Single chunk
@@ -73,11 +70,7 @@ public class ChunkedDatasetV4 extends ChunkedDatasetBase {
             default:
                 throw new HdfException("Unrecognized chunk indexing type = " + layoutMessage.getIndexingType());
         }
-        return chunkIndex.getAllChunks();
-    }
-
-    private int getChunkSizeInBytes() {
-        return Arrays.stream(getChunkDimensions()).reduce(1, Math::multiplyExact) * getDataType().getSize();
+        return chunkIndex;
     }
 
 }
@@ -17,10 +17,10 @@ package io.jhdf.dataset.chunked;
 public class DatasetInfo {
 
     private final int chunkSizeInBytes;
-    private final int[] datasetDimensions;
+    private final long[] datasetDimensions;
     private final int[] chunkDimensions;
 
-    public DatasetInfo(int chunkSizeInBytes, int[] datasetDimensions, int[] chunkDimensions) {
+    public DatasetInfo(int chunkSizeInBytes, long[] datasetDimensions, int[] chunkDimensions) {
         this.chunkSizeInBytes = chunkSizeInBytes;
         this.datasetDimensions = datasetDimensions;
         this.chunkDimensions = chunkDimensions;
@@ -30,7 +30,7 @@ public class DatasetInfo {
         return chunkSizeInBytes;
     }
 
-    public int[] getDatasetDimensions() {
+    public long[] getDatasetDimensions() {
         return datasetDimensions;
     }
 
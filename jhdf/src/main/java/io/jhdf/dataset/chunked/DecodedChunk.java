@@ -0,0 +1,94 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A chunk of a chunked dataset after it has been read and decoded (i.e. all filters have been applied). Instances are
+ * obtained from {@link ChunkedDatasetBase#chunks()}.
+ * <p>
+ * Chunks at the edge of a dataset may extend past the end of the dataset. Only the elements inside
+ * {@link #getDimensions()} are valid.
+ *
+ * @author James Mudd
+ */
+public final class DecodedChunk {
+
+    private final ChunkedDatasetBase dataset;
+    private final long[] chunkOffset;
+    private final int[] chunkDimensions;
+    private final int[] dimensions;
+    private final ByteBuffer buffer;
+
+    DecodedChunk(ChunkedDatasetBase dataset, long[] chunkOffset, int[] chunkDimensions, int[] dimensions,
+                 ByteBuffer buffer) {
+        this.dataset = dataset;
+        this.chunkOffset = chunkOffset;
+        this.chunkDimensions = chunkDimensions;
+        this.dimensions = dimensions;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Gets the position of the first element of this chunk in the dataset.
+     *
+     * @return the offset of this chunk in each dimension
+     */
+    public long[] getChunkOffset() {
+        return chunkOffset.clone();
+    }
+
+    /**
+     * Gets the dimensions of the chunk as stored, this is the same for every chunk in the dataset.
+     *
+     * @return the dimensions of the stored chunk
+     */
+    public int[] getChunkDimensions() {
+        return chunkDimensions.clone();
+    }
+
+    /**
+     * Gets the dimensions of the valid region of this chunk i.e. the part inside the dataset. For chunks not at the
+     * edge of the dataset this is the same as {@link #getChunkDimensions()}.
+     *
+     * @return the dimensions of the valid region of this chunk
+     */
+    public int[] getDimensions() {
+        return dimensions.clone();
+    }
+
+    /**
+     * Gets the decoded bytes of the whole stored chunk, laid out with {@link #getChunkDimensions()}. The returned
+     * buffer will be of the correct order (endiness).
+     *
+     * @return the buffer holding the decoded chunk
+     */
+    public ByteBuffer getBuffer() {
+        return buffer.duplicate().order(buffer.order());
+    }
+
+    /**
+     * Gets the valid region of this chunk as a Java object, in the same way as {@link io.jhdf.api.Dataset#getData()}
+     * with the dimensions given by {@link #getDimensions()}.
+     *
+     * @return the data in the valid region of this chunk
+     */
+    public Object getData() {
+        return dataset.getChunkData(this);
+    }
+
+    @Override
+    public String toString() {
+        return "DecodedChunk [chunkOffset=" + Arrays.toString(chunkOffset)
+                + ", dimensions=" + Arrays.toString(dimensions) + "]";
+    }
+}
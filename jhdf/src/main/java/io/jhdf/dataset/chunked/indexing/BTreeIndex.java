@@ -16,8 +16,8 @@ import io.jhdf.dataset.chunked.Chunk;
 import io.jhdf.dataset.chunked.DatasetInfo;
 
 import java.util.Collection;
-
-import static java.util.stream.Collectors.toList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Implements B Tree V2 chunk indexing
@@ -26,14 +26,29 @@ import static java.util.stream.Collectors.toList;
  */
 public class BTreeIndex implements ChunkIndex {
 
-    private final BTreeV2<BTreeDatasetChunkRecord> bTreeV2;
+    private final List<Chunk> chunks;
+    private final ChunkLookup chunkLookup;
 
     public BTreeIndex(HdfFileChannel hdfFc, long address, DatasetInfo datasetInfo) {
-        bTreeV2 = new BTreeV2<>(hdfFc, address, datasetInfo);
+        final BTreeV2<BTreeDatasetChunkRecord> bTreeV2 = new BTreeV2<>(hdfFc, address, datasetInfo);
+        // Only the chunks are needed so the records are not kept
+        final List<BTreeDatasetChunkRecord> records = bTreeV2.getRecords();
+        final ChunkTable chunkTable = new ChunkTable(datasetInfo.getDatasetDimensions().length, records.size());
+        for (BTreeDatasetChunkRecord record : records) {
+            chunkTable.add(record.getChunk());
+        }
+        chunks = Collections.unmodifiableList(chunkTable);
+        chunkLookup = new ChunkLookup(
+                new ChunkGrid(datasetInfo.getChunkDimensions(), datasetInfo.getDatasetDimensions()), chunkTable);
     }
 
     @Override
     public Collection<Chunk> getAllChunks() {
-        return bTreeV2.getRecords().stream().map(BTreeDatasetChunkRecord::getChunk).collect(toList());
+        return chunks;
+    }
+
+    @Override
+    public Chunk getChunk(int[] chunkGridPosition) {
+        return chunkLookup.getChunk(chunkGridPosition);
     }
 }
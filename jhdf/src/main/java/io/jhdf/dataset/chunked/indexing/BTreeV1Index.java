@@ -0,0 +1,53 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked.indexing;
+
+import io.jhdf.HdfFileChannel;
+import io.jhdf.btree.BTreeV1;
+import io.jhdf.btree.BTreeV1Data;
+import io.jhdf.dataset.chunked.Chunk;
+import io.jhdf.dataset.chunked.DatasetInfo;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Implements B Tree V1 chunk indexing, used by chunked datasets with data layout message V3
+ *
+ * @author James Mudd
+ */
+public class BTreeV1Index implements ChunkIndex {
+
+    private final List<Chunk> chunks;
+    private final ChunkLookup chunkLookup;
+
+    public BTreeV1Index(HdfFileChannel hdfFc, long address, DatasetInfo datasetInfo) {
+        final BTreeV1Data bTree = BTreeV1.createDataBTree(hdfFc, address,
+                datasetInfo.getDatasetDimensions().length);
+        // Collect the chunks of all the nodes once, so the tree does not need to be walked again
+        final ChunkTable chunkTable = new ChunkTable(datasetInfo.getDatasetDimensions().length);
+        chunkTable.addAll(bTree.getChunks());
+        chunkTable.trimToSize();
+        chunks = Collections.unmodifiableList(chunkTable);
+        chunkLookup = new ChunkLookup(
+                new ChunkGrid(datasetInfo.getChunkDimensions(), datasetInfo.getDatasetDimensions()), chunkTable);
+    }
+
+    @Override
+    public Collection<Chunk> getAllChunks() {
+        return chunks;
+    }
+
+    @Override
+    public Chunk getChunk(int[] chunkGridPosition) {
+        return chunkLookup.getChunk(chunkGridPosition);
+    }
+}
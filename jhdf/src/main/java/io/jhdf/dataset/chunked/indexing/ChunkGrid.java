@@ -0,0 +1,154 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked.indexing;
+
+import io.jhdf.exceptions.HdfException;
+
+import java.util.Arrays;
+
+/**
+ * The grid of chunks covering a dataset. The chunk at grid position <code>p</code> has its first element at
+ * <code>p * chunkDimensions</code> in each dimension. Chunks are numbered in row-major (C) order over the grid, which
+ * is the order the fixed and extensible array indexes store them.
+ *
+ * @author James Mudd
+ */
+public final class ChunkGrid {
+
+    private final int[] chunkDimensions;
+    private final long[] gridDimensions;
+    private final long numberOfChunks;
+
+    public ChunkGrid(int[] chunkDimensions, long[] datasetDimensions) {
+        this.chunkDimensions = chunkDimensions;
+        this.gridDimensions = new long[chunkDimensions.length];
+        long chunks = 1;
+        for (int i = 0; i < chunkDimensions.length; i++) {
+            // The number of chunks needed to cover this dim
+            gridDimensions[i] = (datasetDimensions[i] + chunkDimensions[i] - 1) / chunkDimensions[i];
+            chunks = Math.multiplyExact(chunks, gridDimensions[i]);
+        }
+        this.numberOfChunks = chunks;
+    }
+
+    /**
+     * @return the number of chunks in each dimension of the grid
+     */
+    public long[] getGridDimensions() {
+        return gridDimensions.clone();
+    }
+
+    /**
+     * @return the total number of chunks in the grid, allocated or not
+     */
+    public long getNumberOfChunks() {
+        return numberOfChunks;
+    }
+
+    /**
+     * Gets the grid position of the chunk containing an element of the dataset.
+     *
+     * @param position the position of the element in the dataset
+     * @return the position in the grid of the chunk containing the element
+     */
+    public int[] getChunkGridPosition(long[] position) {
+        final int[] chunkGridPosition = new int[position.length];
+        for (int i = 0; i < position.length; i++) {
+            chunkGridPosition[i] = Math.toIntExact(position[i] / chunkDimensions[i]);
+        }
+        return chunkGridPosition;
+    }
+
+    /**
+     * Gets the row-major index of the chunk at a position in the grid.
+     *
+     * @param chunkGridPosition the position of the chunk in the grid
+     * @return the index of the chunk in the grid
+     * @throws HdfException if the position is not inside the grid
+     */
+    public long getChunkIndex(int[] chunkGridPosition) {
+        if (chunkGridPosition.length != gridDimensions.length) {
+            throw new HdfException("Chunk grid position " + Arrays.toString(chunkGridPosition)
+                    + " does not match chunk grid dimensions " + Arrays.toString(gridDimensions));
+        }
+        long chunkIndex = 0;
+        for (int i = 0; i < gridDimensions.length; i++) {
+            if (chunkGridPosition[i] < 0 || chunkGridPosition[i] >= gridDimensions[i]) {
+                throw new HdfException("Chunk grid position " + Arrays.toString(chunkGridPosition)
+                        + " is outside chunk grid dimensions " + Arrays.toString(gridDimensions));
+            }
+            chunkIndex = chunkIndex * gridDimensions[i] + chunkGridPosition[i];
+        }
+        return chunkIndex;
+    }
+
+    /**
+     * Gets the row-major index in the grid of the chunk with the given offset.
+     *
+     * @param chunkOffset the offset of the first element of the chunk
+     * @return the index of the chunk in the grid or -1 if the chunk is outside the grid
+     */
+    public long getChunkIndex(long[] chunkOffset) {
+        long chunkIndex = 0;
+        for (int i = 0; i < gridDimensions.length; i++) {
+            final long gridPosition = chunkOffset[i] / chunkDimensions[i];
+            if (gridPosition >= gridDimensions[i]) {
+                return -1;
+            }
+            chunkIndex = chunkIndex * gridDimensions[i] + gridPosition;
+        }
+        return chunkIndex;
+    }
+
+    /**
+     * Calculates the offset of the chunk with the given index in the grid, filling an existing array so it can be
+     * reused while reading many chunks.
+     *
+     * @param chunkIndex  the row-major index of the chunk in the grid
+     * @param chunkOffset the array to fill with the offset of the first element of the chunk
+     */
+    void getChunkOffset(long chunkIndex, long[] chunkOffset) {
+        // Start from the fastest dim, the slowest dim takes whatever is left
+        for (int i = chunkOffset.length - 1; i > 0; i--) {
+            chunkOffset[i] = (chunkIndex % gridDimensions[i]) * chunkDimensions[i];
+            chunkIndex /= gridDimensions[i];
+        }
+        if (chunkOffset.length > 0) {
+            chunkOffset[0] = chunkIndex * chunkDimensions[0];
+        }
+    }
+
+    /**
+     * Gets the row-major index in the grid of a chunk in a table, without creating the chunk.
+     *
+     * @param chunkTable the table holding the chunk
+     * @param row        the row of the chunk in the table
+     * @return the index of the chunk in the grid or -1 if the chunk is outside the grid
+     */
+    long getChunkIndex(ChunkTable chunkTable, int row) {
+        long chunkIndex = 0;
+        for (int i = 0; i < gridDimensions.length; i++) {
+            final long gridPosition = chunkTable.getChunkOffset(row, i) / chunkDimensions[i];
+            if (gridPosition >= gridDimensions[i]) {
+                return -1;
+            }
+            chunkIndex = chunkIndex * gridDimensions[i] + gridPosition;
+        }
+        return chunkIndex;
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkGrid{" +
+                "chunkDimensions=" + Arrays.toString(chunkDimensions) +
+                ", gridDimensions=" + Arrays.toString(gridDimensions) +
+                '}';
+    }
+}
@@ -21,18 +21,20 @@ public class ChunkImpl implements Chunk {
 
     private final long address;
     private final int size;
-    private final int[] chunkOffset;
+    private final long[] chunkOffset;
     private final BitSet filterMask;
+    private final int filterMaskBits;
 
-    public ChunkImpl(long address, int size, int[] chunkOffset) {
+    public ChunkImpl(long address, int size, long[] chunkOffset) {
         this(address, size, chunkOffset, NOT_FILTERED_MASK);
     }
 
-    public ChunkImpl(long address, int size, int[] chunkOffset, BitSet filterMask) {
+    public ChunkImpl(long address, int size, long[] chunkOffset, BitSet filterMask) {
         this.address = address;
         this.size = size;
         this.chunkOffset = chunkOffset;
         this.filterMask = filterMask;
+        this.filterMaskBits = filterMask == null ? 0 : ChunkTable.toFilterMask(filterMask);
     }
 
     @Override
@@ -46,7 +48,12 @@ public class ChunkImpl implements Chunk {
     }
 
     @Override
-    public int[] getChunkOffset() {
+    public int getFilterMaskBits() {
+        return filterMaskBits;
+    }
+
+    @Override
+    public long[] getChunkOffset() {
         return chunkOffset;
     }
 
@@ -17,4 +17,15 @@ public interface ChunkIndex {
 
     Collection<Chunk> getAllChunks();
 
+    /**
+     * Gets the chunk at a position in the chunk grid, the chunk containing element <code>e</code> is at grid position
+     * <code>e / chunkDimensions</code> in each dimension. This does not scan the chunks so is suitable for probing
+     * single elements of datasets with many chunks.
+     *
+     * @param chunkGridPosition the position of the chunk in the grid
+     * @return the chunk or <code>null</code> if the chunk is not allocated
+     * @throws io.jhdf.exceptions.HdfException if the position is outside the chunk grid
+     */
+    Chunk getChunk(int[] chunkGridPosition);
+
 }
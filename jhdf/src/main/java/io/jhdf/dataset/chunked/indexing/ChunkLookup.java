@@ -0,0 +1,98 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked.indexing;
+
+import io.jhdf.dataset.chunked.Chunk;
+
+import java.util.Arrays;
+
+/**
+ * Lookup of chunks by grid position for indexes which do not store the chunks in grid order, i.e. the B trees and
+ * fixed arrays with chunks not written. This maps grid index to row in the chunk table. If most of the grid is
+ * allocated a dense table over the whole grid is used, otherwise an open addressing hash table of only the allocated
+ * chunks. Both only use primitive arrays so stay small for datasets with millions of chunks.
+ *
+ * @author James Mudd
+ */
+final class ChunkLookup {
+
+    /** Grids up to this size always use a dense table, as it is small anyway */
+    private static final int MIN_DENSE_TABLE_SIZE = 1024;
+    private static final int NO_ROW = -1;
+
+    private final ChunkGrid chunkGrid;
+    private final ChunkTable chunkTable;
+
+    /** Row for every grid index, used if the grid is dense */
+    private final int[] denseRows;
+
+    /** Grid index and row of the allocated chunks, used if the grid is sparse */
+    private final long[] sparseKeys;
+    private final int[] sparseRows;
+
+    ChunkLookup(ChunkGrid chunkGrid, ChunkTable chunkTable) {
+        this.chunkGrid = chunkGrid;
+        this.chunkTable = chunkTable;
+
+        final long maxDenseTableSize = Math.min(Integer.MAX_VALUE - 8,
+                Math.max(MIN_DENSE_TABLE_SIZE, 2L * chunkTable.size()));
+        if (chunkGrid.getNumberOfChunks() <= maxDenseTableSize) {
+            denseRows = new int[(int) chunkGrid.getNumberOfChunks()];
+            Arrays.fill(denseRows, NO_ROW);
+            sparseKeys = null;
+            sparseRows = null;
+            for (int row = 0; row < chunkTable.size(); row++) {
+                final long chunkIndex = chunkGrid.getChunkIndex(chunkTable, row);
+                if (chunkIndex >= 0) {
+                    denseRows[(int) chunkIndex] = row;
+                }
+            }
+        } else {
+            denseRows = null;
+            // Power of 2 at least twice the number of chunks, so probe sequences stay short
+            final int capacity = Integer.highestOneBit(Math.max(1, chunkTable.size()) * 2 - 1) << 1;
+            sparseKeys = new long[capacity];
+            sparseRows = new int[capacity];
+            Arrays.fill(sparseRows, NO_ROW);
+            for (int row = 0; row < chunkTable.size(); row++) {
+                final long chunkIndex = chunkGrid.getChunkIndex(chunkTable, row);
+                if (chunkIndex >= 0) {
+                    int slot = slot(chunkIndex);
+                    while (sparseRows[slot] != NO_ROW && sparseKeys[slot] != chunkIndex) {
+                        slot = (slot + 1) & (capacity - 1);
+                    }
+                    sparseKeys[slot] = chunkIndex;
+                    sparseRows[slot] = row;
+                }
+            }
+        }
+    }
+
+    Chunk getChunk(int[] chunkGridPosition) {
+        final long chunkIndex = chunkGrid.getChunkIndex(chunkGridPosition);
+        final int row;
+        if (denseRows != null) {
+            row = denseRows[(int) chunkIndex];
+        } else {
+            int slot = slot(chunkIndex);
+            while (sparseRows[slot] != NO_ROW && sparseKeys[slot] != chunkIndex) {
+                slot = (slot + 1) & (sparseKeys.length - 1);
+            }
+            row = sparseRows[slot];
+        }
+        return row == NO_ROW ? null : chunkTable.get(row);
+    }
+
+    private int slot(long chunkIndex) {
+        // Mix the bits as grid indexes are often sequential
+        final long hash = chunkIndex * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (sparseKeys.length - 1);
+    }
+}
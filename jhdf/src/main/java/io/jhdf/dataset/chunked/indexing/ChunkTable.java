@@ -0,0 +1,218 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked.indexing;
+
+import io.jhdf.dataset.chunked.Chunk;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Compact table of chunks, storing the fields of all the chunks in primitive arrays rather than one object per chunk.
+ * For datasets with millions of chunks this is many times smaller than a list of {@link ChunkImpl}.
+ * <p>
+ * The table is a list of {@link Chunk}, where each chunk is a small view of its row created when it is accessed.
+ * These views are equal if they refer to the same chunk address, in the same way as {@link ChunkImpl}.
+ * <p>
+ * Tables are filled while reading the index and must not be modified after they are shared.
+ *
+ * @author James Mudd
+ */
+public final class ChunkTable extends AbstractList<Chunk> implements RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final int rank;
+
+    private long[] addresses;
+    private int[] sizes;
+    private int[] filterMasks;
+    /** The offsets of all the chunks one after another, so the offset of chunk i starts at i * rank */
+    private long[] chunkOffsets;
+    private int size;
+
+    public ChunkTable(int rank) {
+        this(rank, DEFAULT_CAPACITY);
+    }
+
+    public ChunkTable(int rank, int initialCapacity) {
+        this.rank = rank;
+        addresses = new long[initialCapacity];
+        sizes = new int[initialCapacity];
+        filterMasks = new int[initialCapacity];
+        chunkOffsets = new long[Math.multiplyExact(initialCapacity, rank)];
+    }
+
+    /**
+     * Adds a chunk to the end of the table. The offset is copied so the array can be reused by the caller.
+     *
+     * @param address     the address of the chunk in the file
+     * @param chunkSize   the size of the chunk in the file in bytes
+     * @param filterMask  the mask of the filters which were not applied to this chunk, bit i is filter i
+     * @param chunkOffset the offset of the first element of the chunk in the dataset
+     */
+    public void add(long address, int chunkSize, int filterMask, long[] chunkOffset) {
+        ensureCapacity(size + 1);
+        addresses[size] = address;
+        sizes[size] = chunkSize;
+        filterMasks[size] = filterMask;
+        System.arraycopy(chunkOffset, 0, chunkOffsets, size * rank, rank);
+        size++;
+    }
+
+    @Override
+    public boolean add(Chunk chunk) {
+        add(chunk.getAddress(), chunk.getSize(), chunk.getFilterMaskBits(), chunk.getChunkOffset());
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Chunk> chunks) {
+        if (!(chunks instanceof ChunkTable)) {
+            return super.addAll(chunks);
+        }
+
+        // Copy the rows directly rather than creating a view of each chunk
+        final ChunkTable other = (ChunkTable) chunks;
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.addresses, 0, addresses, size, other.size);
+        System.arraycopy(other.sizes, 0, sizes, size, other.size);
+        System.arraycopy(other.filterMasks, 0, filterMasks, size, other.size);
+        System.arraycopy(other.chunkOffsets, 0, chunkOffsets, size * rank, other.size * rank);
+        size += other.size;
+        return other.size > 0;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > addresses.length) {
+            final int capacity = Math.max(minCapacity, addresses.length + (addresses.length >> 1) + 1);
+            resize(capacity);
+        }
+    }
+
+    private void resize(int capacity) {
+        addresses = Arrays.copyOf(addresses, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        filterMasks = Arrays.copyOf(filterMasks, capacity);
+        chunkOffsets = Arrays.copyOf(chunkOffsets, Math.multiplyExact(capacity, rank));
+    }
+
+    /**
+     * Reduces the storage of the table to the number of chunks it holds. Call once the table is filled.
+     */
+    public void trimToSize() {
+        if (size < addresses.length) {
+            resize(size);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Chunk get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for chunk table of size " + size);
+        }
+        return new TableChunk(index);
+    }
+
+    public long getAddress(int index) {
+        return addresses[index];
+    }
+
+    public int getChunkSize(int index) {
+        return sizes[index];
+    }
+
+    public int getFilterMask(int index) {
+        return filterMasks[index];
+    }
+
+    public long getChunkOffset(int index, int dimension) {
+        return chunkOffsets[index * rank + dimension];
+    }
+
+    /**
+     * Converts a filter mask to an int, the mask only has one bit per filter and there are at most 32 filters.
+     *
+     * @param filterMask the filter mask
+     * @return the filter mask as an int
+     */
+    public static int toFilterMask(BitSet filterMask) {
+        final long[] words = filterMask.toLongArray();
+        return words.length == 0 ? 0 : (int) words[0];
+    }
+
+    /**
+     * View of one row of the table
+     */
+    private final class TableChunk implements Chunk {
+        private final int index;
+
+        private TableChunk(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int getSize() {
+            return sizes[index];
+        }
+
+        @Override
+        public BitSet getFilterMask() {
+            return BitSet.valueOf(new long[]{Integer.toUnsignedLong(filterMasks[index])});
+        }
+
+        @Override
+        public int getFilterMaskBits() {
+            return filterMasks[index];
+        }
+
+        @Override
+        public long[] getChunkOffset() {
+            return Arrays.copyOfRange(chunkOffsets, index * rank, index * rank + rank);
+        }
+
+        @Override
+        public long getAddress() {
+            return addresses[index];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            TableChunk chunk = (TableChunk) o;
+            return getAddress() == chunk.getAddress();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(getAddress());
+        }
+
+        @Override
+        public String toString() {
+            return "TableChunk{" +
+                    "address=" + getAddress() +
+                    ", size=" + getSize() +
+                    ", chunkOffset=" + Arrays.toString(getChunkOffset()) +
+                    ", filterMask=" + getFilterMask() +
+                    '}';
+        }
+    }
+}
@@ -18,11 +18,9 @@ import io.jhdf.exceptions.UnsupportedHdfException;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.BitSet;
 import java.util.Collection;
-import java.util.List;
+import java.util.Collections;
 
 import static io.jhdf.Constants.UNDEFINED_ADDRESS;
 import static io.jhdf.Utils.readBytesAsUnsignedLong;
@@ -55,9 +53,12 @@ public class ExtensibleArrayIndex implements ChunkIndex {
     private final int dataBlockSize;
     private final int secondaryBlockSize;
 
-    private final List<Chunk> chunks;
+    private final ChunkGrid chunkGrid;
+    private final ChunkTable chunks;
+    /** Reused for every element as the table copies it */
+    private final long[] chunkOffset;
     private final int unfilteredChunkSize;
-    private final int[] datasetDimensions;
+    private final long[] datasetDimensions;
     private final int[] chunkDimensions;
 
     private final int minNumberOfElementsInDataBlock;
@@ -67,13 +68,14 @@ public class ExtensibleArrayIndex implements ChunkIndex {
     private final int maxNumberOfElementsInDataBlockPageBits;
     private final int extensibleArrayElementSize;
 
-    private int elementCounter = 0;
+    private long elementCounter = 0;
 
     public ExtensibleArrayIndex(HdfFileChannel hdfFc, long address, DatasetInfo datasetInfo) {
         this.headerAddress = address;
         this.unfilteredChunkSize = datasetInfo.getChunkSizeInBytes();
         this.datasetDimensions = datasetInfo.getDatasetDimensions();
         this.chunkDimensions = datasetInfo.getChunkDimensions();
+        this.chunkGrid = new ChunkGrid(chunkDimensions, datasetDimensions);
 
         final int headerSize = 16 + hdfFc.getSizeOfOffsets() + 6 * hdfFc.getSizeOfLengths();
         final ByteBuffer bb = hdfFc.readBufferFromAddress(address, headerSize);
@@ -112,7 +114,8 @@ public class ExtensibleArrayIndex implements ChunkIndex {
         dataBlockSize = Utils.readBytesAsUnsignedInt(bb, hdfFc.getSizeOfLengths());
 
         final int maxIndexSet = Utils.readBytesAsUnsignedInt(bb, hdfFc.getSizeOfLengths());
-        chunks = new ArrayList<>(maxIndexSet);
+        chunks = new ChunkTable(datasetDimensions.length, maxIndexSet);
+        chunkOffset = new long[datasetDimensions.length];
 
         numberOfElements = Utils.readBytesAsUnsignedInt(bb, hdfFc.getSizeOfLengths());
 
@@ -288,13 +291,13 @@ public class ExtensibleArrayIndex implements ChunkIndex {
         private boolean readElement(ByteBuffer bb, HdfFileChannel hdfFc) {
             final long chunkAddress = readBytesAsUnsignedLong(bb, hdfFc.getSizeOfOffsets());
             if (chunkAddress != UNDEFINED_ADDRESS) {
-                final int[] chunkOffset = Utils.chunkIndexToChunkOffset(elementCounter, chunkDimensions, datasetDimensions);
+                chunkGrid.getChunkOffset(elementCounter, chunkOffset);
                 if (filtered) { // Filtered
                     final int chunkSizeInBytes = Utils.readBytesAsUnsignedInt(bb, extensibleArrayElementSize - hdfFc.getSizeOfOffsets() - 4);
-                    final BitSet filterMask = BitSet.valueOf(new byte[] { bb.get(), bb.get(), bb.get(), bb.get() });
-                    chunks.add(new ChunkImpl(chunkAddress, chunkSizeInBytes, chunkOffset, filterMask));
+                    final int filterMask = bb.getInt(); // Little endian so bit i is filter i
+                    chunks.add(chunkAddress, chunkSizeInBytes, filterMask, chunkOffset);
                 } else { // Not filtered
-                    chunks.add(new ChunkImpl(chunkAddress, unfilteredChunkSize, chunkOffset));
+                    chunks.add(chunkAddress, unfilteredChunkSize, 0, chunkOffset);
                 }
                 elementCounter++;
                 return true;
@@ -385,6 +388,14 @@ public class ExtensibleArrayIndex implements ChunkIndex {
 
     @Override
     public Collection<Chunk> getAllChunks() {
-        return chunks;
+        return Collections.unmodifiableList(chunks);
+    }
+
+    @Override
+    public Chunk getChunk(int[] chunkGridPosition) {
+        // Elements are stored in grid order and reading stops at the first unallocated one, so the position gives
+        // the element directly
+        final long chunkIndex = chunkGrid.getChunkIndex(chunkGridPosition);
+        return chunkIndex < chunks.size() ? chunks.get((int) chunkIndex) : null;
     }
 }
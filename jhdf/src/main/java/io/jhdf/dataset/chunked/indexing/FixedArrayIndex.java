@@ -17,11 +17,11 @@ import io.jhdf.exceptions.HdfException;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.BitSet;
 import java.util.Collection;
-import java.util.List;
+import java.util.Collections;
+
+import static io.jhdf.Constants.UNDEFINED_ADDRESS;
 
 public class FixedArrayIndex implements ChunkIndex {
 
@@ -31,7 +31,7 @@ public class FixedArrayIndex implements ChunkIndex {
     private final long address;
     private final int unfilteredChunkSize;
 
-    private final int[] datasetDimensions;
+    private final long[] datasetDimensions;
     private final int[] chunkDimensions;
 
     private final int clientId;
@@ -40,13 +40,18 @@ public class FixedArrayIndex implements ChunkIndex {
     private final int maxNumberOfEntries;
     private final long dataBlockAddress;
 
-    private final List<Chunk> chunks;
+    private final ChunkGrid chunkGrid;
+    /** The allocated chunks, entries of chunks never written are not included */
+    private final ChunkTable chunks;
+    /** Lookup by grid position if some chunks are not written, otherwise <code>null</code> as rows are grid order */
+    private final ChunkLookup chunkLookup;
 
     public FixedArrayIndex(HdfFileChannel hdfFc, long address, DatasetInfo datasetInfo) {
         this.address = address;
         this.unfilteredChunkSize = datasetInfo.getChunkSizeInBytes();
         this.datasetDimensions = datasetInfo.getDatasetDimensions();
         this.chunkDimensions = datasetInfo.getChunkDimensions();
+        this.chunkGrid = new ChunkGrid(chunkDimensions, datasetDimensions);
 
         final int headerSize = 12 + hdfFc.getSizeOfOffsets() + hdfFc.getSizeOfLengths();
         final ByteBuffer bb = hdfFc.readBufferFromAddress(address, headerSize);
@@ -72,12 +77,14 @@ public class FixedArrayIndex implements ChunkIndex {
         maxNumberOfEntries = Utils.readBytesAsUnsignedInt(bb, hdfFc.getSizeOfLengths());
         dataBlockAddress = Utils.readBytesAsUnsignedLong(bb, hdfFc.getSizeOfOffsets());
 
-        chunks = new ArrayList<>(maxNumberOfEntries);
+        chunks = new ChunkTable(datasetDimensions.length, maxNumberOfEntries);
 
         // Checksum
 
         // Building the object fills the chunks. Probably shoudld be changed
         new FixedArrayDataBlock(hdfFc, dataBlockAddress);
+        chunks.trimToSize();
+        chunkLookup = chunks.size() < maxNumberOfEntries ? new ChunkLookup(chunkGrid, chunks) : null;
     }
 
     private class FixedArrayDataBlock {
@@ -114,20 +121,25 @@ public class FixedArrayIndex implements ChunkIndex {
 
             // TODO ignoring paging here might need to revisit
 
+            // Reused for every entry as the table copies it
+            final long[] chunkOffset = new long[datasetDimensions.length];
             if (clientId == 0) { // Not filtered
                 for (int i = 0; i < maxNumberOfEntries; i++) {
                     final long chunkAddress = Utils.readBytesAsUnsignedLong(bb, hdfFc.getSizeOfOffsets());
-                    final int[] chunkOffset = Utils.chunkIndexToChunkOffset(i, chunkDimensions, datasetDimensions);
-                    chunks.add(new ChunkImpl(chunkAddress, unfilteredChunkSize, chunkOffset));
+                    if (chunkAddress != UNDEFINED_ADDRESS) { // Not written
+                        chunkGrid.getChunkOffset(i, chunkOffset);
+                        chunks.add(chunkAddress, unfilteredChunkSize, 0, chunkOffset);
+                    }
                 }
             } else  if (clientId == 1) { // Filtered
                 for (int i = 0; i < maxNumberOfEntries; i++) {
                     final long chunkAddress = Utils.readBytesAsUnsignedLong(bb, hdfFc.getSizeOfOffsets());
                     final int chunkSizeInBytes = Utils.readBytesAsUnsignedInt(bb, entrySize - hdfFc.getSizeOfOffsets() - 4);
-                    final BitSet filterMask = BitSet.valueOf(new byte[] { bb.get(), bb.get(), bb.get(), bb.get() });
-                    final int[] chunkOffset = Utils.chunkIndexToChunkOffset(i,  chunkDimensions, datasetDimensions);
-
-                    chunks.add(new ChunkImpl(chunkAddress, chunkSizeInBytes, chunkOffset, filterMask));
+                    final int filterMask = bb.getInt(); // Little endian so bit i is filter i
+                    if (chunkAddress != UNDEFINED_ADDRESS) { // Not written
+                        chunkGrid.getChunkOffset(i, chunkOffset);
+                        chunks.add(chunkAddress, chunkSizeInBytes, filterMask, chunkOffset);
+                    }
                 }
             } else {
                 throw new HdfException("Unrecognized client ID  = " + clientId);
@@ -138,6 +150,15 @@ public class FixedArrayIndex implements ChunkIndex {
 
     @Override
     public Collection<Chunk> getAllChunks() {
-        return chunks;
+        return Collections.unmodifiableList(chunks);
+    }
+
+    @Override
+    public Chunk getChunk(int[] chunkGridPosition) {
+        if (chunkLookup != null) {
+            return chunkLookup.getChunk(chunkGridPosition);
+        }
+        // Every chunk is allocated and in grid order, so the position gives the row directly
+        return chunks.get(Math.toIntExact(chunkGrid.getChunkIndex(chunkGridPosition)));
     }
 }
@@ -19,9 +19,11 @@ import java.util.Collections;
 public class SingleChunkIndex implements ChunkIndex {
 
     private final Chunk singleChunk;
+    private final ChunkGrid chunkGrid;
 
     public SingleChunkIndex(ChunkedDataLayoutMessageV4 layoutMessageV4, DatasetInfo datasetInfo) {
-        final int[] chunkOffset = new int[datasetInfo.getDatasetDimensions().length]; // Single chunk so zero offset
+        this.chunkGrid = new ChunkGrid(datasetInfo.getChunkDimensions(), datasetInfo.getDatasetDimensions());
+        final long[] chunkOffset = new long[datasetInfo.getDatasetDimensions().length]; // Single chunk so zero offset
         if (layoutMessageV4.isFilteredSingleChunk()) {
             this.singleChunk = new ChunkImpl(layoutMessageV4.getAddress(), layoutMessageV4.getSizeOfFilteredSingleChunk(), chunkOffset, layoutMessageV4.getFilterMaskFilteredSingleChunk());
         } else {
@@ -34,4 +36,11 @@ public class SingleChunkIndex implements ChunkIndex {
         return Collections.singletonList(singleChunk);
     }
 
+    @Override
+    public Chunk getChunk(int[] chunkGridPosition) {
+        // Validates the position, the grid only has one chunk
+        chunkGrid.getChunkIndex(chunkGridPosition);
+        return singleChunk;
+    }
+
 }
@@ -0,0 +1,89 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.filter;
+
+import io.jhdf.exceptions.HdfFilterException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Interface to be implemented to be a HDF5 filter which decodes between {@link ByteBuffer}s. This is the second
+ * generation filter interface. The encoded data can be in any buffer, including direct or mapped buffers, and is
+ * decoded into a destination provided by the caller. This allows the {@link FilterPipeline} to avoid allocating and
+ * copying arrays for each chunk.
+ * <p>
+ * Buffer filters are registered in the same way as {@link Filter}s, i.e. using the {@link java.util.ServiceLoader}
+ * with {@link Filter} as the service, or {@link FilterManager#addFilter(Filter)}. Filters only implementing
+ * {@link Filter} still work, they are adapted to this interface.
+ *
+ * @author James Mudd
+ */
+public interface BufferFilter extends Filter {
+
+	/**
+	 * Gets the length of the data once decoded, which is the size of the destination passed to
+	 * {@link #decode(ByteBuffer, ByteBuffer, int[])}. Filters which can't know the decoded length without decoding,
+	 * e.g. compression filters not storing it, should return the expected length.
+	 *
+	 * @param encodedData    the data to be decoded, from its position to its limit. The position may be changed.
+	 * @param filterData     the settings from the file this filter was used with. e.g. compression level.
+	 * @param expectedLength the length the data is expected to decode to e.g. the chunk size, or -1 if not known
+	 * @return the decoded length or -1 if it is not known
+	 * @throws HdfFilterException if the encoded data is not valid
+	 */
+	int getDecodedLength(ByteBuffer encodedData, int[] filterData, int expectedLength);
+
+	/**
+	 * Applies this filter to decode data into the destination provided. If the decode fails, or the decoded data does
+	 * not exactly fill the destination, a {@link HdfFilterException} will be thrown. This method must be thread safe,
+	 * multiple thread may use the filter simultaneously.
+	 *
+	 * @param encodedData the data to be decoded, from its position to its limit. The position may be changed.
+	 * @param decodedData the destination for the decoded data, from its position to its limit. The position may be
+	 *                    changed.
+	 * @param filterData  the settings from the file this filter was used with. e.g. compression level.
+	 * @throws HdfFilterException if the decode operation fails
+	 */
+	void decode(ByteBuffer encodedData, ByteBuffer decodedData, int[] filterData);
+
+	/**
+	 * Applies this filter to decode data, this is only possible if the decoded length can be determined from the
+	 * encoded data.
+	 *
+	 * @param encodedData the data to be decoded
+	 * @param filterData  the settings from the file this filter was used with. e.g. compression level.
+	 * @return the decoded data
+	 * @throws HdfFilterException if the decode operation fails
+	 */
+	@Override
+	default byte[] decode(byte[] encodedData, int[] filterData) {
+		final int decodedLength = getDecodedLength(ByteBuffer.wrap(encodedData), filterData, -1);
+		if (decodedLength < 0) {
+			throw new HdfFilterException("Decoded length is not known for filter '" + getName() + "'");
+		}
+		final byte[] decodedData = new byte[decodedLength];
+		decode(ByteBuffer.wrap(encodedData), ByteBuffer.wrap(decodedData), filterData);
+		return decodedData;
+	}
+
+	/**
+	 * Adapts a {@link Filter} to this interface. The adapted filter copies the data into and out of arrays, and doesn't
+	 * know the decoded length in advance.
+	 *
+	 * @param filter the filter to adapt
+	 * @return the filter as a buffer filter
+	 */
+	static BufferFilter adapt(Filter filter) {
+		if (filter instanceof BufferFilter) {
+			return (BufferFilter) filter;
+		}
+		return new FilterAdapter(filter);
+	}
+}
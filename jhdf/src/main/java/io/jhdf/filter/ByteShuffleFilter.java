@@ -9,7 +9,15 @@
  */
 package io.jhdf.filter;
 
-public class ByteShuffleFilter implements Filter {
+import io.jhdf.Utils;
+import io.jhdf.exceptions.HdfFilterException;
+
+import java.nio.ByteBuffer;
+
+public class ByteShuffleFilter implements BufferFilter {
+
+	/** Bytes of output unshuffled at a time by the general unshuffle, small enough to stay in the CPU cache */
+	private static final int UNSHUFFLE_BLOCK_SIZE = 8 * 1024;
 
 	@Override
 	public int getId() {
@@ -32,19 +40,148 @@ public class ByteShuffleFilter implements Filter {
 			return data;
 		}
 
-		final int elements = data.length / dataSize;
-
 		// shuffle doesn't change the size of the data it rearranges it
 		final byte[] out = new byte[data.length];
+		unshuffle(data, 0, out, 0, data.length, dataSize);
+		return out;
+	}
 
-		int pos = 0;
-		for (int i = 0; i < dataSize; i++) {
-			for (int j = 0; j < elements; j++) {
-				out[j * dataSize + i] = data[pos];
-				pos++; // step through the input array
-			}
+	@Override
+	public int getDecodedLength(ByteBuffer encodedData, int[] filterData, int expectedLength) {
+		// shuffle doesn't change the size of the data
+		return encodedData.remaining();
+	}
+
+	@Override
+	public void decode(ByteBuffer encodedData, ByteBuffer decodedData, int[] filterData) {
+		final int length = encodedData.remaining();
+		if (decodedData.remaining() != length) {
+			throw new HdfFilterException("Shuffled data is " + length + " bytes but expected "
+					+ decodedData.remaining() + " bytes");
+		}
+		final byte[] in;
+		final int inOffset;
+		if (encodedData.hasArray()) {
+			in = encodedData.array();
+			inOffset = encodedData.arrayOffset() + encodedData.position();
+		} else {
+			in = Utils.toByteArray(encodedData);
+			inOffset = 0;
 		}
 
-		return out;
+		if (decodedData.hasArray()) {
+			// Unshuffle straight into the destination
+			unshuffle(in, inOffset, decodedData.array(), decodedData.arrayOffset() + decodedData.position(), length,
+					filterData[0]);
+		} else {
+			final byte[] out = new byte[length];
+			unshuffle(in, inOffset, out, 0, length, filterData[0]);
+			decodedData.duplicate().put(out);
+		}
+		decodedData.position(decodedData.position() + length);
+	}
+
+	/**
+	 * Reverses the shuffle, the input has all the first bytes of each element, then all the second bytes etc.
+	 * Any bytes after the last whole element are not shuffled.
+	 */
+	private static void unshuffle(byte[] in, int inOffset, byte[] out, int outOffset, int length, int dataSize) {
+		final int elements = length / dataSize;
+		unshuffle(in, inOffset, elements, 0, elements, dataSize, out, outOffset);
+
+		// Copy any leftover bytes
+		final int shuffled = elements * dataSize;
+		System.arraycopy(in, inOffset + shuffled, out, outOffset + shuffled, length - shuffled);
+	}
+
+	/**
+	 * Reverses the shuffle of a range of elements. The common element sizes have specialised loops reading each byte
+	 * plane sequentially and writing the output sequentially, other sizes are unshuffled in blocks which fit in the CPU
+	 * cache. Unshuffling column by column over the whole output instead evicts the output from the cache for each byte
+	 * of the element, which is slow for large chunks.
+	 *
+	 * @param in            the shuffled data
+	 * @param inOffset      the index in the input of the shuffled data
+	 * @param totalElements the number of elements shuffled together
+	 * @param firstElement  the first element to unshuffle
+	 * @param elements      the number of elements to unshuffle
+	 * @param dataSize      the number of bytes in each element
+	 * @param out           the destination of the unshuffled elements
+	 * @param outOffset     the index in the destination of the first element
+	 */
+	static void unshuffle(byte[] in, int inOffset, int totalElements, int firstElement, int elements, int dataSize,
+			byte[] out, int outOffset) {
+		final int start = inOffset + firstElement;
+		switch (dataSize) {
+			case 1:
+				System.arraycopy(in, start, out, outOffset, elements);
+				break;
+			case 2:
+				unshuffle2(in, start, totalElements, elements, out, outOffset);
+				break;
+			case 4:
+				unshuffle4(in, start, totalElements, elements, out, outOffset);
+				break;
+			case 8:
+				unshuffle8(in, start, totalElements, elements, out, outOffset);
+				break;
+			default:
+				unshuffleBlocked(in, start, totalElements, elements, dataSize, out, outOffset);
+		}
+	}
+
+	private static void unshuffle2(byte[] in, int start, int totalElements, int elements, byte[] out, int outOffset) {
+		final int plane1 = start + totalElements;
+		for (int j = 0, pos = outOffset; j < elements; j++, pos += 2) {
+			out[pos] = in[start + j];
+			out[pos + 1] = in[plane1 + j];
+		}
+	}
+
+	private static void unshuffle4(byte[] in, int start, int totalElements, int elements, byte[] out, int outOffset) {
+		final int plane1 = start + totalElements;
+		final int plane2 = plane1 + totalElements;
+		final int plane3 = plane2 + totalElements;
+		for (int j = 0, pos = outOffset; j < elements; j++, pos += 4) {
+			out[pos] = in[start + j];
+			out[pos + 1] = in[plane1 + j];
+			out[pos + 2] = in[plane2 + j];
+			out[pos + 3] = in[plane3 + j];
+		}
+	}
+
+	private static void unshuffle8(byte[] in, int start, int totalElements, int elements, byte[] out, int outOffset) {
+		final int plane1 = start + totalElements;
+		final int plane2 = plane1 + totalElements;
+		final int plane3 = plane2 + totalElements;
+		final int plane4 = plane3 + totalElements;
+		final int plane5 = plane4 + totalElements;
+		final int plane6 = plane5 + totalElements;
+		final int plane7 = plane6 + totalElements;
+		for (int j = 0, pos = outOffset; j < elements; j++, pos += 8) {
+			out[pos] = in[start + j];
+			out[pos + 1] = in[plane1 + j];
+			out[pos + 2] = in[plane2 + j];
+			out[pos + 3] = in[plane3 + j];
+			out[pos + 4] = in[plane4 + j];
+			out[pos + 5] = in[plane5 + j];
+			out[pos + 6] = in[plane6 + j];
+			out[pos + 7] = in[plane7 + j];
+		}
+	}
+
+	private static void unshuffleBlocked(byte[] in, int start, int totalElements, int elements, int dataSize,
+			byte[] out, int outOffset) {
+		final int blockElements = Math.max(1, UNSHUFFLE_BLOCK_SIZE / dataSize);
+		for (int blockStart = 0; blockStart < elements; blockStart += blockElements) {
+			final int blockEnd = Math.min(elements, blockStart + blockElements);
+			// Each byte of the elements in the block, the block of output stays in the cache
+			for (int i = 0; i < dataSize; i++) {
+				final int plane = start + i * totalElements;
+				for (int j = blockStart, pos = outOffset + blockStart * dataSize + i; j < blockEnd; j++, pos += dataSize) {
+					out[pos] = in[plane + j];
+				}
+			}
+		}
 	}
 }
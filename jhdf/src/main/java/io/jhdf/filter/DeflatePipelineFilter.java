@@ -9,18 +9,25 @@
  */
 package io.jhdf.filter;
 
+import io.jhdf.Utils;
 import io.jhdf.exceptions.HdfFilterException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 
-public class DeflatePipelineFilter implements Filter {
+public class DeflatePipelineFilter implements BufferFilter {
 
 	private static final Logger logger = LoggerFactory.getLogger(DeflatePipelineFilter.class);
 
+	private static final int MIN_DECODED_LENGTH = 64;
+	private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+	private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
 	@Override
 	public int getId() {
 		return 1;
@@ -33,37 +40,153 @@ public class DeflatePipelineFilter implements Filter {
 
 	@Override
 	public byte[] decode(byte[] compressedData, int[] filterData) {
+		// Make a guess that the decompressed data is 3 times larger than compressed
+		return decode(compressedData, filterData, (int) Math.min(MAX_ARRAY_LENGTH, compressedData.length * 3L));
+	}
+
+	/**
+	 * Decodes the data inflating directly into an array of the expected decoded length. If the decoded length is
+	 * right, which it is when decoding chunks, there is no copying of the decoded data. If it's wrong the data is still
+	 * decoded correctly, only with extra copying.
+	 *
+	 * @param compressedData the data to be decoded
+	 * @param filterData     the settings from the file this filter was used with
+	 * @param decodedLength  the expected length of the decoded data
+	 * @return the decoded data
+	 * @throws HdfFilterException if the decode operation fails
+	 */
+	public byte[] decode(byte[] compressedData, int[] filterData, int decodedLength) {
+		final Inflater inflater = getInflater(compressedData, 0, compressedData.length);
 		try {
-			// Setup the inflater
-			final Inflater inflater = new Inflater();
-			inflater.setInput(compressedData);
+			byte[] decoded = new byte[Math.max(MIN_DECODED_LENGTH, decodedLength)];
+			int length = inflate(inflater, decoded, 0, decoded.length);
 
-			// Make a guess that the decompressed data is 3 times larger than compressed.
-			// This is a performance optimisation to avoid resizing of the stream byte
-			// array.
-			final ByteArrayOutputStream baos = new ByteArrayOutputStream(compressedData.length * 3);
+			final byte[] overflow = new byte[1];
+			while (hasMoreData(inflater, overflow)) {
+				// The decoded length was wrong so grow
+				decoded = Arrays.copyOf(decoded, decoded.length * 2);
+				decoded[length++] = overflow[0];
+				length += inflate(inflater, decoded, length, decoded.length - length);
+			}
 
-			final byte[] buffer = new byte[4096];
+			logDecompressed(inflater);
+			return length == decoded.length ? decoded : Arrays.copyOf(decoded, length);
 
-			// Do the decompression
-			while (!inflater.finished()) {
-				int read = inflater.inflate(buffer);
-				baos.write(buffer, 0, read);
-			}
+		} catch (DataFormatException e) {
+			throw new HdfFilterException("Inflating failed", e);
+		} finally {
+			// Don't hold on to the input
+			inflater.reset();
+		}
+	}
+
+	@Override
+	public int getDecodedLength(ByteBuffer encodedData, int[] filterData, int expectedLength) {
+		// The decoded length isn't stored, so the best guess is the expected length
+		return expectedLength;
+	}
 
-			if (logger.isDebugEnabled()) {
-				logger.debug("Decompressed chunk. Compressed size = {} bytes, Decompressed size = {}",
-						inflater.getBytesRead(),
-						inflater.getBytesWritten());
+	@Override
+	public void decode(ByteBuffer encodedData, ByteBuffer decodedData, int[] filterData) {
+		final Inflater inflater;
+		if (encodedData.hasArray()) {
+			inflater = getInflater(encodedData.array(), encodedData.arrayOffset() + encodedData.position(),
+					encodedData.remaining());
+		} else {
+			final byte[] compressedData = Utils.toByteArray(encodedData);
+			inflater = getInflater(compressedData, 0, compressedData.length);
+		}
+
+		try {
+			final int expectedLength = decodedData.remaining();
+			final int length;
+			if (decodedData.hasArray()) {
+				// Inflate straight into the destination
+				length = inflate(inflater, decodedData.array(), decodedData.arrayOffset() + decodedData.position(),
+						expectedLength);
+			} else {
+				final byte[] decoded = new byte[expectedLength];
+				length = inflate(inflater, decoded, 0, expectedLength);
+				decodedData.duplicate().put(decoded, 0, length);
 			}
 
-			// Close the inflater
-			inflater.end();
+			if (hasMoreData(inflater, new byte[1])) {
+				throw new HdfFilterException("Inflating failed, decoded data is larger than expected "
+						+ expectedLength + " bytes");
+			} else if (length < expectedLength) {
+				throw new HdfFilterException("Inflating failed, decoded data is " + length
+						+ " bytes but expected " + expectedLength + " bytes");
+			}
+			decodedData.position(decodedData.position() + length);
 
-			return baos.toByteArray();
+			logDecompressed(inflater);
 
 		} catch (DataFormatException e) {
 			throw new HdfFilterException("Inflating failed", e);
+		} finally {
+			// Don't hold on to the input
+			inflater.reset();
+		}
+	}
+
+	/**
+	 * Gets the inflater for this thread ready to inflate the data. Inflaters hold native memory which is slow to
+	 * allocate and free, so each thread reuses one.
+	 */
+	private static Inflater getInflater(byte[] compressedData, int offset, int length) {
+		final Inflater inflater = INFLATER.get();
+		inflater.reset();
+		inflater.setInput(compressedData, offset, length);
+		return inflater;
+	}
+
+	/**
+	 * Inflates until the stream is finished or the output is full.
+	 *
+	 * @return the number of bytes inflated
+	 */
+	private static int inflate(Inflater inflater, byte[] output, int offset, int length) throws DataFormatException {
+		int inflated = 0;
+		while (!inflater.finished() && inflated < length) {
+			final int read = inflater.inflate(output, offset + inflated, length - inflated);
+			if (read == 0) {
+				checkProgress(inflater);
+			}
+			inflated += read;
+		}
+		return inflated;
+	}
+
+	/**
+	 * Checks if there is more data once the output is full. If the output was the right size this just finishes
+	 * the stream, otherwise the first byte of the extra data is put in the overflow.
+	 */
+	private static boolean hasMoreData(Inflater inflater, byte[] overflow) throws DataFormatException {
+		while (!inflater.finished()) {
+			if (inflater.inflate(overflow) > 0) {
+				return true;
+			}
+			checkProgress(inflater);
+		}
+		return false;
+	}
+
+	/**
+	 * Checks the inflater can make progress after returning no data, otherwise the data is invalid.
+	 */
+	private static void checkProgress(Inflater inflater) {
+		if (inflater.needsInput() && !inflater.finished()) {
+			throw new HdfFilterException("Inflating failed, compressed data is truncated");
+		} else if (inflater.needsDictionary()) {
+			throw new HdfFilterException("Inflating failed, compressed data needs a preset dictionary");
+		}
+	}
+
+	private static void logDecompressed(Inflater inflater) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Decompressed chunk. Compressed size = {} bytes, Decompressed size = {}",
+					inflater.getBytesRead(),
+					inflater.getBytesWritten());
 		}
 	}
 }
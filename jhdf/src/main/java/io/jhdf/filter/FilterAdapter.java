@@ -0,0 +1,61 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.filter;
+
+import io.jhdf.Utils;
+import io.jhdf.exceptions.HdfFilterException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Adapts a {@link Filter} which decodes arrays to the {@link BufferFilter} interface, so filters written for the first
+ * generation interface still work in the pipeline.
+ *
+ * @author James Mudd
+ */
+final class FilterAdapter implements BufferFilter {
+
+	private final Filter filter;
+
+	FilterAdapter(Filter filter) {
+		this.filter = filter;
+	}
+
+	@Override
+	public int getId() {
+		return filter.getId();
+	}
+
+	@Override
+	public String getName() {
+		return filter.getName();
+	}
+
+	@Override
+	public int getDecodedLength(ByteBuffer encodedData, int[] filterData, int expectedLength) {
+		// Can't know without decoding
+		return -1;
+	}
+
+	@Override
+	public void decode(ByteBuffer encodedData, ByteBuffer decodedData, int[] filterData) {
+		final byte[] decodedBytes = filter.decode(Utils.toByteArray(encodedData), filterData);
+		if (decodedBytes.length != decodedData.remaining()) {
+			throw new HdfFilterException("Filter '" + getName() + "' decoded " + decodedBytes.length
+					+ " bytes but " + decodedData.remaining() + " bytes were expected");
+		}
+		decodedData.put(decodedBytes);
+	}
+
+	@Override
+	public byte[] decode(byte[] encodedData, int[] filterData) {
+		return filter.decode(encodedData, filterData);
+	}
+}
@@ -9,40 +9,65 @@
  */
 package io.jhdf.filter;
 
+import io.jhdf.Utils;
 import io.jhdf.exceptions.HdfFilterException;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * A collection of filters making up a ordered pipeline to decode chunks.
+ * <p>
+ * Filters implementing {@link BufferFilter} decode directly into arrays of the decoded length. The output of all but
+ * the last filter is only needed by the next filter, so it goes into scratch arrays reused by each thread, meaning
+ * only the final decoded array is allocated per chunk. The decoded length of a chunk is known, so is the expected
+ * length of each filter followed only by filters which don't change the length e.g. deflate followed by shuffle.
  *
  * @author James Mudd
  */
 public class FilterPipeline {
 
+	/** Larger scratch arrays are not kept, so threads don't hold on to lots of memory after reading huge chunks */
+	private static final int MAX_SCRATCH_LENGTH = 16 * 1024 * 1024;
+
+	/** Two scratch arrays per thread, so a filter never decodes into its own input */
+	private static final ThreadLocal<byte[][]> SCRATCH = ThreadLocal.withInitial(() -> new byte[2][0]);
+
 	private static class PipelineFilterWithData {
 
-		private final Filter filter;
+		private final BufferFilter filter;
 		private final int[] filterData;
 
-		private PipelineFilterWithData(Filter filter, int[] filterData) {
+		private PipelineFilterWithData(BufferFilter filter, int[] filterData) {
 			this.filter = filter;
 			this.filterData = filterData;
 		}
 
-		private byte[] decode(byte[] data) {
-			return filter.decode(data, filterData);
+		private ByteBuffer decode(ByteBuffer data, int expectedLength, boolean last) {
+			final int decodedLength = filter.getDecodedLength(data.duplicate(), filterData, expectedLength);
+			if (decodedLength < 0) {
+				// Not known in advance so let the filter allocate
+				return ByteBuffer.wrap(filter.decode(Utils.toByteArray(data), filterData));
+			}
+
+			final byte[] decodedData = last ? new byte[decodedLength] : getScratch(data, decodedLength);
+			final ByteBuffer decodedBuffer = ByteBuffer.wrap(decodedData, 0, decodedLength);
+			filter.decode(data.duplicate(), decodedBuffer.duplicate(), filterData);
+			return decodedBuffer;
 		}
 	}
 
 	private final List<PipelineFilterWithData> filters = new ArrayList<>();
 
+	/** This pipeline with checksums stripped but not verified, created when first needed */
+	private volatile FilterPipeline withoutChecksumVerification;
+
 	/* package */ FilterPipeline() {
 	}
 
 	/* package */ void addFilter(Filter filter, int[] data) {
-		filters.add(new PipelineFilterWithData(filter, data));
+		filters.add(new PipelineFilterWithData(BufferFilter.adapt(filter), data));
 	}
 
 	/**
@@ -53,13 +78,193 @@ public class FilterPipeline {
 	 * @throws HdfFilterException if the decode operation fails
 	 */
 	public byte[] decode(byte[] encodedData) {
+		return decode(ByteBuffer.wrap(encodedData), -1);
+	}
+
+	/**
+	 * Applies all the filters in this pipeline to decode the data, when the length of the decoded data is known e.g.
+	 * the size of a chunk. Filters which support it decode directly into arrays of this length, rather than guessing
+	 * and copying.
+	 *
+	 * @param encodedData   the data to be decoded
+	 * @param decodedLength the expected length of the decoded data, or -1 if unknown
+	 * @return the decoded data
+	 * @throws HdfFilterException if the decode operation fails
+	 */
+	public byte[] decode(byte[] encodedData, int decodedLength) {
+		return decode(ByteBuffer.wrap(encodedData), decodedLength);
+	}
+
+	/**
+	 * Applies all the filters in this pipeline to decode the data in a buffer, which may be a direct or mapped
+	 * buffer.
+	 *
+	 * @param encodedData   the data to be decoded, from its position to its limit. The position is not changed.
+	 * @param decodedLength the expected length of the decoded data, or -1 if unknown
+	 * @return the decoded data
+	 * @throws HdfFilterException if the decode operation fails
+	 */
+	public byte[] decode(ByteBuffer encodedData, int decodedLength) {
+		return decode(encodedData, decodedLength, 0);
+	}
+
+	/**
+	 * Applies the filters in this pipeline, except those skipped by the filter mask, to decode the data in a buffer.
+	 * HDF5 stores a filter mask with each chunk, e.g. chunks which didn't compress are stored with the compression
+	 * filter skipped.
+	 *
+	 * @param encodedData   the data to be decoded, from its position to its limit. The position is not changed.
+	 * @param decodedLength the expected length of the decoded data, or -1 if unknown
+	 * @param filterMask    the filters to skip, bit i set skips filter i in the order the filters were applied when
+	 *                      encoding, the order of the filter pipeline message
+	 * @return the decoded data
+	 * @throws HdfFilterException if the decode operation fails
+	 */
+	public byte[] decode(ByteBuffer encodedData, int decodedLength, int filterMask) {
+		ByteBuffer data = encodedData.duplicate();
 
 		// Apply the filters
-		for (PipelineFilterWithData b : filters) {
-			encodedData = b.decode(encodedData);
+		int lastFilter = filters.size() - 1;
+		while (lastFilter >= 0 && isSkipped(lastFilter, filterMask)) {
+			lastFilter--;
+		}
+		for (int i = 0; i <= lastFilter; i++) {
+			if (!isSkipped(i, filterMask)) {
+				data = filters.get(i).decode(data, getExpectedLength(i, decodedLength, filterMask), i == lastFilter);
+			}
+		}
+
+		// Filters not knowing the decoded length may return their input, which could be a scratch array
+		if (isScratch(data)) {
+			final byte[] decodedData = new byte[data.remaining()];
+			data.get(decodedData);
+			return decodedData;
+		}
+		return Utils.toByteArray(data);
+	}
+
+	/**
+	 * Checks if this pipeline is deflate followed by shuffle, the most common pipeline, of elements of the given size.
+	 * The deflate may be preceded by a Fletcher32 checksum. These pipelines can be decoded with
+	 * {@link #decodeShuffled(ByteBuffer, int)}.
+	 *
+	 * @param elementSize the number of bytes in each element of the data
+	 * @return <code>true</code> if this pipeline is deflate and shuffle of elements of the size
+	 */
+	public boolean isDeflateShuffle(int elementSize) {
+		final int deflateIndex = getDeflateShuffleIndex();
+		if (deflateIndex < 0) {
+			return false;
 		}
+		final int[] shuffleData = filters.get(deflateIndex + 1).filterData;
+		return shuffleData.length > 0 && shuffleData[0] == elementSize;
+	}
+
+	/**
+	 * Decodes the data of a deflate and shuffle pipeline, see {@link #isDeflateShuffle(int)}, except for the
+	 * unshuffling. The data is inflated into a scratch array reused by this thread, so nothing is allocated, and the
+	 * elements can then be unshuffled straight into their destination. This saves allocating and copying the whole
+	 * decoded data, compared to {@link #decode(ByteBuffer, int)}. No filters are skipped, chunks with a filter mask
+	 * must be decoded with {@link #decode(ByteBuffer, int, int)}.
+	 *
+	 * @param encodedData   the data to be decoded, from its position to its limit. The position is not changed.
+	 * @param decodedLength the length of the decoded data
+	 * @return the decoded data which is still shuffled, only valid until this thread decodes anything else
+	 * @throws HdfFilterException if the decode operation fails or this is not a deflate and shuffle pipeline
+	 */
+	public ShuffledData decodeShuffled(ByteBuffer encodedData, int decodedLength) {
+		final int deflateIndex = getDeflateShuffleIndex();
+		if (deflateIndex < 0) {
+			throw new HdfFilterException("Pipeline is not deflate and shuffle");
+		}
+		ByteBuffer data = encodedData.duplicate();
+		if (deflateIndex == 1) {
+			// Verify the checksum in place, rather than copying the data without it
+			data = ((FletcherChecksumFilter) filters.get(0).filter).stripChecksum(data);
+		}
+		final PipelineFilterWithData deflate = filters.get(deflateIndex);
+		final byte[] scratch = getScratch(data, decodedLength);
+		deflate.filter.decode(data, ByteBuffer.wrap(scratch, 0, decodedLength), deflate.filterData);
+		return new ShuffledData(scratch, decodedLength, filters.get(deflateIndex + 1).filterData[0]);
+	}
+
+	/**
+	 * Gets this pipeline with any Fletcher32 checksums stripped but not verified. This is faster but corrupted data
+	 * will not be detected.
+	 *
+	 * @return this pipeline without checksum verification, or this pipeline if it has no checksums
+	 */
+	public FilterPipeline withoutChecksumVerification() {
+		FilterPipeline pipeline = withoutChecksumVerification;
+		if (pipeline == null) {
+			// Creating it more than once is harmless
+			pipeline = this;
+			if (filters.stream().anyMatch(filter -> filter.filter instanceof FletcherChecksumFilter)) {
+				pipeline = new FilterPipeline();
+				for (PipelineFilterWithData filter : filters) {
+					pipeline.addFilter(filter.filter instanceof FletcherChecksumFilter
+							? new FletcherChecksumFilter(false) : filter.filter, filter.filterData);
+				}
+			}
+			withoutChecksumVerification = pipeline;
+		}
+		return pipeline;
+	}
+
+	/**
+	 * @return the index of the deflate filter if this pipeline is deflate then shuffle, optionally preceded by a
+	 * Fletcher32 checksum, otherwise -1
+	 */
+	private int getDeflateShuffleIndex() {
+		final int deflateIndex = filters.size() - 2;
+		if (deflateIndex < 0 || deflateIndex > 1
+				|| (deflateIndex == 1 && !(filters.get(0).filter instanceof FletcherChecksumFilter))
+				|| !(filters.get(deflateIndex).filter instanceof DeflatePipelineFilter)
+				|| !(filters.get(deflateIndex + 1).filter instanceof ByteShuffleFilter)) {
+			return -1;
+		}
+		return deflateIndex;
+	}
+
+	/**
+	 * Gets the expected length of the output of a filter. This is only known if the filters applied after it don't
+	 * change the length, e.g. shuffle.
+	 */
+	private int getExpectedLength(int filterIndex, int decodedLength, int filterMask) {
+		for (int i = filterIndex + 1; i < filters.size(); i++) {
+			if (!(filters.get(i).filter instanceof ByteShuffleFilter) && !isSkipped(i, filterMask)) {
+				return -1;
+			}
+		}
+		return decodedLength;
+	}
+
+	/**
+	 * Checks if a filter is skipped by a filter mask. The mask is in encoding order, the reverse of this pipeline.
+	 */
+	private boolean isSkipped(int filterIndex, int filterMask) {
+		final int encodingIndex = filters.size() - 1 - filterIndex;
+		return encodingIndex < Integer.SIZE && (filterMask >>> encodingIndex & 1) != 0;
+	}
+
+	/**
+	 * Gets a scratch array of at least the length which is not the array backing the input.
+	 */
+	private static byte[] getScratch(ByteBuffer input, int length) {
+		if (length > MAX_SCRATCH_LENGTH) {
+			return new byte[length];
+		}
+		final byte[][] scratch = SCRATCH.get();
+		final int index = input.hasArray() && input.array() == scratch[0] ? 1 : 0;
+		if (scratch[index].length < length) {
+			scratch[index] = new byte[length];
+		}
+		return scratch[index];
+	}
 
-		return encodedData;
+	private static boolean isScratch(ByteBuffer data) {
+		final byte[][] scratch = SCRATCH.get();
+		return data.hasArray() && (data.array() == scratch[0] || data.array() == scratch[1]);
 	}
 
 }
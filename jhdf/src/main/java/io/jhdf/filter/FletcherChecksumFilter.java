@@ -9,19 +9,42 @@
  */
 package io.jhdf.filter;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.jhdf.Utils;
+import io.jhdf.exceptions.HdfFilterException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
- * This is a placeholder for the checksum filter. Currently a no-op allows datasets with a checksum to be read but the
- * checksum is not validated.
+ * The Fletcher32 checksum filter. The encoded data is the data followed by a 4 byte checksum, decoding verifies the
+ * checksum and strips it.
+ * <p>
+ * The checksum is computed the same way as the HDF5 library, summing the data as big endian 16-bit words. The sums are
+ * kept in longs so they only need reducing every million words rather than every 360, and four words are added per
+ * iteration, which makes verifying cheap compared to reading and decompressing the data. Verification can still be
+ * skipped for a file, see {@link io.jhdf.HdfFile#setChecksumVerificationEnabled(boolean)}.
  *
  * @author James Mudd
  */
-public class FletcherChecksumFilter implements Filter {
-    private static final Logger logger = LoggerFactory.getLogger(FletcherChecksumFilter.class);
+public class FletcherChecksumFilter implements BufferFilter {
+
+    private static final int CHECKSUM_LENGTH = 4;
+
+    /** Words summed between reductions, small enough that the sums can't overflow */
+    private static final int WORDS_PER_BLOCK = 1 << 20;
 
-    private boolean warningIssued = false;
+    private final boolean verify;
+
+    public FletcherChecksumFilter() {
+        this(true);
+    }
+
+    /**
+     * @param verify <code>true</code> to verify the checksum, <code>false</code> to only strip it
+     */
+    /* package */ FletcherChecksumFilter(boolean verify) {
+        this.verify = verify;
+    }
 
     @Override
     public int getId() {
@@ -33,13 +56,137 @@ public class FletcherChecksumFilter implements Filter {
         return "fletcher32";
     }
 
+    /**
+     * @return <code>true</code> if this filter verifies the checksum, <code>false</code> if it only strips it
+     */
+    public boolean isVerifying() {
+        return verify;
+    }
+
     @Override
-    public byte[] decode(byte[] encodedData, int[] filterData) {
-        if(!warningIssued) {
-            logger.warn("Fletcher 32 checksum will not be verified");
-            warningIssued = true;
+    public int getDecodedLength(ByteBuffer encodedData, int[] filterData, int expectedLength) {
+        checkLength(encodedData);
+        return encodedData.remaining() - CHECKSUM_LENGTH;
+    }
+
+    @Override
+    public void decode(ByteBuffer encodedData, ByteBuffer decodedData, int[] filterData) {
+        final ByteBuffer data = stripChecksum(encodedData);
+        if (decodedData.remaining() != data.remaining()) {
+            throw new HdfFilterException("Checksummed data is " + data.remaining() + " bytes but expected "
+                    + decodedData.remaining() + " bytes");
+        }
+        decodedData.put(data);
+    }
+
+    /**
+     * Verifies the checksum of the encoded data, unless this filter is not verifying, and returns the data without
+     * the checksum. No data is copied.
+     *
+     * @param encodedData the data followed by the checksum, from its position to its limit. The position is not
+     *                    changed.
+     * @return a buffer of the data without the checksum
+     * @throws HdfFilterException if the checksum does not match the data
+     */
+    /* package */ ByteBuffer stripChecksum(ByteBuffer encodedData) {
+        checkLength(encodedData);
+        final ByteBuffer data = encodedData.duplicate();
+        data.limit(data.limit() - CHECKSUM_LENGTH);
+
+        if (verify) {
+            final int storedChecksum = encodedData.duplicate().order(ByteOrder.LITTLE_ENDIAN).getInt(data.limit());
+            final int checksum = fletcher32(data);
+            // Versions of the HDF5 library before 1.6.3 stored the checksum with the bytes of each half swapped
+            final int swappedChecksum = ((checksum & 0xff00ff00) >>> 8) | ((checksum & 0x00ff00ff) << 8);
+            if (storedChecksum != checksum && storedChecksum != swappedChecksum) {
+                throw new HdfFilterException("Fletcher32 checksum mismatch, stored checksum is "
+                        + Integer.toHexString(storedChecksum) + " but data has checksum " + Integer.toHexString(checksum));
+            }
+        }
+        return data;
+    }
+
+    private static void checkLength(ByteBuffer encodedData) {
+        if (encodedData.remaining() < CHECKSUM_LENGTH) {
+            throw new HdfFilterException("Checksummed data is only " + encodedData.remaining()
+                    + " bytes, too short to contain the checksum");
+        }
+    }
+
+    /**
+     * Computes the Fletcher32 checksum of the data in the buffer, from its position to its limit. The position is not
+     * changed.
+     *
+     * @param data the data to checksum
+     * @return the checksum
+     */
+    /* package */ static int fletcher32(ByteBuffer data) {
+        if (data.hasArray()) {
+            return fletcher32(data.array(), data.arrayOffset() + data.position(), data.remaining());
         }
+        return fletcher32(Utils.toByteArray(data.duplicate()), 0, data.remaining());
+    }
+
+    /**
+     * Computes the Fletcher32 checksum of the data, giving the same result as the HDF5 library.
+     *
+     * @param data   the array containing the data
+     * @param offset the offset of the data in the array
+     * @param length the number of bytes of data
+     * @return the checksum
+     */
+    /* package */ static int fletcher32(byte[] data, int offset, int length) {
+        long sum1 = 0;
+        long sum2 = 0;
+        int pos = offset;
+        int remainingWords = length / 2;
+
+        while (remainingWords > 0) {
+            final int blockWords = Math.min(remainingWords, WORDS_PER_BLOCK);
+            remainingWords -= blockWords;
+            final int blockEnd = pos + blockWords * 2;
+
+            // Four words at a time, sum2 gains sum1 four times plus each word once for each time it is added
+            final int unrolledEnd = pos + (blockWords & ~3) * 2;
+            while (pos < unrolledEnd) {
+                final int word0 = word(data, pos);
+                final int word1 = word(data, pos + 2);
+                final int word2 = word(data, pos + 4);
+                final int word3 = word(data, pos + 6);
+                sum2 += 4 * sum1 + 4 * word0 + 3 * word1 + 2 * word2 + word3;
+                sum1 += word0 + word1 + word2 + word3;
+                pos += 8;
+            }
+            while (pos < blockEnd) {
+                sum1 += word(data, pos);
+                sum2 += sum1;
+                pos += 2;
+            }
+
+            sum1 = reduce(sum1);
+            sum2 = reduce(sum2);
+        }
+
+        // An odd byte at the end is the high byte of a word
+        if (length % 2 != 0) {
+            sum1 += (data[pos] & 0xff) << 8;
+            sum2 += sum1;
+            sum1 = reduce(sum1);
+            sum2 = reduce(sum2);
+        }
+
+        return (int) (sum2 << 16 | sum1);
+    }
+
+    private static int word(byte[] data, int pos) {
+        return (data[pos] & 0xff) << 8 | (data[pos + 1] & 0xff);
+    }
 
-        return encodedData;
+    /**
+     * Reduces a sum modulo 65535 in the same way as the HDF5 library, which repeatedly adds the high 16 bits to the
+     * low 16 bits. This keeps sums which are not zero as not zero, so multiples of 65535 reduce to 65535 not 0.
+     */
+    private static long reduce(long sum) {
+        return sum == 0 ? 0 : (sum - 1) % 65535 + 1;
     }
 }
@@ -0,0 +1,210 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.filter;
+
+import io.jhdf.Utils;
+import io.jhdf.exceptions.HdfFilterException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The LZ4 filter of the HDF5 filter plugins, a pure Java decoder. LZ4 decodes very quickly as it is only literal runs
+ * and matches copied from the data already decoded, these are copied with {@link System#arraycopy} so decoding runs
+ * at memory copy speeds for compressible data.
+ * <p>
+ * The encoded data starts with a header of the big endian 8 byte decoded length and 4 byte block size. Then each
+ * block is the big endian 4 byte encoded length followed by the LZ4 block, or the raw data if it didn't compress.
+ * <p>
+ * <a href="https://github.com/HDFGroup/hdf5_plugins/tree/master/LZ4">HDF5 LZ4 filter plugin</a>
+ *
+ * @author James Mudd
+ */
+public class Lz4Filter implements BufferFilter {
+
+	private static final int HEADER_LENGTH = 12;
+
+	/** Matches are at least 4 bytes, the length stored is the extra */
+	private static final int MIN_MATCH = 4;
+
+	@Override
+	public int getId() {
+		return 32004;
+	}
+
+	@Override
+	public String getName() {
+		return "lz4";
+	}
+
+	@Override
+	public int getDecodedLength(ByteBuffer encodedData, int[] filterData, int expectedLength) {
+		if (encodedData.remaining() < HEADER_LENGTH) {
+			throw new HdfFilterException("LZ4 data is only " + encodedData.remaining()
+					+ " bytes, too short to contain the header");
+		}
+		final long decodedLength = encodedData.duplicate().order(ByteOrder.BIG_ENDIAN).getLong(encodedData.position());
+		if (decodedLength < 0 || decodedLength > Integer.MAX_VALUE) {
+			throw new HdfFilterException("LZ4 decoded length " + decodedLength + " is not valid");
+		}
+		return (int) decodedLength;
+	}
+
+	@Override
+	public void decode(ByteBuffer encodedData, ByteBuffer decodedData, int[] filterData) {
+		final int decodedLength = getDecodedLength(encodedData, filterData, -1);
+		if (decodedLength != decodedData.remaining()) {
+			throw new HdfFilterException("LZ4 decoded data is " + decodedLength + " bytes but expected "
+					+ decodedData.remaining() + " bytes");
+		}
+
+		final byte[] in;
+		final int inStart;
+		if (encodedData.hasArray()) {
+			in = encodedData.array();
+			inStart = encodedData.arrayOffset() + encodedData.position();
+		} else {
+			in = Utils.toByteArray(encodedData);
+			inStart = 0;
+		}
+		final int inEnd = inStart + encodedData.remaining();
+
+		if (decodedData.hasArray()) {
+			final int outStart = decodedData.arrayOffset() + decodedData.position();
+			decodeBlocks(in, inStart, inEnd, decodedData.array(), outStart, outStart + decodedLength);
+		} else {
+			final byte[] out = new byte[decodedLength];
+			decodeBlocks(in, inStart, inEnd, out, 0, decodedLength);
+			decodedData.put(out);
+		}
+	}
+
+	private static void decodeBlocks(byte[] in, int inStart, int inEnd, byte[] out, int outStart, int outEnd) {
+		final int blockSize = readInt(in, inStart + 8);
+		if (blockSize <= 0 && outEnd > outStart) {
+			throw new HdfFilterException("LZ4 block size " + blockSize + " is not valid");
+		}
+
+		int ip = inStart + HEADER_LENGTH;
+		int op = outStart;
+		while (op < outEnd) {
+			if (inEnd - ip < 4) {
+				throw new HdfFilterException("LZ4 data is truncated, expected " + (outEnd - op) + " more bytes");
+			}
+			final int encodedBlockSize = readInt(in, ip);
+			ip += 4;
+			if (encodedBlockSize < 0 || encodedBlockSize > inEnd - ip) {
+				throw new HdfFilterException("LZ4 block size " + encodedBlockSize + " at encoded byte "
+						+ (ip - inStart) + " is not valid");
+			}
+
+			// The last block may be shorter
+			final int decodedBlockSize = Math.min(blockSize, outEnd - op);
+			if (encodedBlockSize == decodedBlockSize) {
+				// Didn't compress so stored as is
+				System.arraycopy(in, ip, out, op, decodedBlockSize);
+			} else {
+				decodeBlock(in, ip, ip + encodedBlockSize, out, op, op + decodedBlockSize);
+			}
+			ip += encodedBlockSize;
+			op += decodedBlockSize;
+		}
+	}
+
+	/**
+	 * Decodes a LZ4 block, which must exactly fill the output. Each sequence is a token, holding the literal and match
+	 * lengths, the literals, then the match offset. The last sequence is only literals.
+	 */
+	private static void decodeBlock(byte[] in, int inStart, int inEnd, byte[] out, int outStart, int outEnd) {
+		int ip = inStart;
+		int op = outStart;
+		while (true) {
+			if (ip >= inEnd) {
+				throw corrupt(ip - inStart);
+			}
+			final int token = in[ip++] & 0xff;
+
+			// Literals
+			int literalLength = token >>> 4;
+			if (literalLength == 0xf) {
+				int extra;
+				do {
+					if (ip >= inEnd) {
+						throw corrupt(ip - inStart);
+					}
+					extra = in[ip++] & 0xff;
+					literalLength += extra;
+				} while (extra == 0xff && literalLength <= outEnd - op);
+			}
+			if (literalLength > inEnd - ip || literalLength > outEnd - op) {
+				throw corrupt(ip - inStart);
+			}
+			System.arraycopy(in, ip, out, op, literalLength);
+			ip += literalLength;
+			op += literalLength;
+
+			if (ip == inEnd) {
+				// The last sequence has no match
+				break;
+			}
+
+			// Match
+			if (inEnd - ip < 2) {
+				throw corrupt(ip - inStart);
+			}
+			final int offset = (in[ip] & 0xff) | (in[ip + 1] & 0xff) << 8;
+			ip += 2;
+			int matchLength = token & 0xf;
+			if (matchLength == 0xf) {
+				int extra;
+				do {
+					if (ip >= inEnd) {
+						throw corrupt(ip - inStart);
+					}
+					extra = in[ip++] & 0xff;
+					matchLength += extra;
+				} while (extra == 0xff && matchLength <= outEnd - op);
+			}
+			matchLength += MIN_MATCH;
+			final int ref = op - offset;
+			if (offset == 0 || ref < outStart || matchLength > outEnd - op) {
+				throw corrupt(ip - inStart);
+			}
+			copyMatch(out, ref, op, matchLength);
+			op += matchLength;
+		}
+
+		if (op != outEnd) {
+			throw new HdfFilterException("LZ4 block decoded to " + (op - outStart) + " bytes but expected "
+					+ (outEnd - outStart) + " bytes");
+		}
+	}
+
+	/**
+	 * Copies a match. When the match overlaps the bytes being written it repeats the bytes between the reference and
+	 * the output, the copies double in length as the repeated bytes are written.
+	 */
+	private static void copyMatch(byte[] out, int ref, int op, int length) {
+		int copied = 0;
+		while (copied < length) {
+			final int copyLength = Math.min(op + copied - ref, length - copied);
+			System.arraycopy(out, ref, out, op + copied, copyLength);
+			copied += copyLength;
+		}
+	}
+
+	private static int readInt(byte[] in, int pos) {
+		return (in[pos] & 0xff) << 24 | (in[pos + 1] & 0xff) << 16 | (in[pos + 2] & 0xff) << 8 | (in[pos + 3] & 0xff);
+	}
+
+	private static HdfFilterException corrupt(int position) {
+		return new HdfFilterException("LZ4 data is corrupt at block byte " + position);
+	}
+}
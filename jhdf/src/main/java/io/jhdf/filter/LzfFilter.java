@@ -0,0 +1,160 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.filter;
+
+import io.jhdf.Utils;
+import io.jhdf.exceptions.HdfFilterException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The LZF filter used by h5py, a pure Java decoder for the LZF format of liblzf. LZF trades compression ratio for
+ * speed, the data is a sequence of literal runs and back references into the data already decoded.
+ * <p>
+ * h5py stores the chunk size in the third filter data value. When it's not there the decoded length is found by
+ * walking the encoded data, which is much faster than decoding it.
+ * <p>
+ * <a href="https://github.com/h5py/h5py/tree/master/lzf">h5py LZF filter</a>
+ *
+ * @author James Mudd
+ */
+public class LzfFilter implements BufferFilter {
+
+	@Override
+	public int getId() {
+		return 32000;
+	}
+
+	@Override
+	public String getName() {
+		return "lzf";
+	}
+
+	@Override
+	public int getDecodedLength(ByteBuffer encodedData, int[] filterData, int expectedLength) {
+		if (expectedLength >= 0) {
+			return expectedLength;
+		}
+		if (filterData.length > 2 && filterData[2] > 0) {
+			return filterData[2];
+		}
+		return walkDecodedLength(Utils.toByteArray(encodedData));
+	}
+
+	@Override
+	public void decode(ByteBuffer encodedData, ByteBuffer decodedData, int[] filterData) {
+		final byte[] in;
+		final int inStart;
+		if (encodedData.hasArray()) {
+			in = encodedData.array();
+			inStart = encodedData.arrayOffset() + encodedData.position();
+		} else {
+			in = Utils.toByteArray(encodedData);
+			inStart = 0;
+		}
+		final int inEnd = inStart + encodedData.remaining();
+
+		if (decodedData.hasArray()) {
+			final int outStart = decodedData.arrayOffset() + decodedData.position();
+			decode(in, inStart, inEnd, decodedData.array(), outStart, outStart + decodedData.remaining());
+		} else {
+			final byte[] out = new byte[decodedData.remaining()];
+			decode(in, inStart, inEnd, out, 0, out.length);
+			decodedData.put(out);
+		}
+	}
+
+	/**
+	 * Decodes LZF data, which must exactly fill the output.
+	 */
+	private static void decode(byte[] in, int inStart, int inEnd, byte[] out, int outStart, int outEnd) {
+		int ip = inStart;
+		int op = outStart;
+		while (ip < inEnd) {
+			final int ctrl = in[ip++] & 0xff;
+			if (ctrl < 1 << 5) {
+				// Literal run of 1 to 32 bytes
+				final int length = ctrl + 1;
+				if (ip + length > inEnd || op + length > outEnd) {
+					throw new HdfFilterException(corruptMessage(ip - inStart, ip + length > inEnd));
+				}
+				System.arraycopy(in, ip, out, op, length);
+				ip += length;
+				op += length;
+			} else {
+				// Back reference, the length is 3 to 264 bytes
+				int length = ctrl >>> 5;
+				if (length == 7) {
+					if (ip >= inEnd) {
+						throw new HdfFilterException(corruptMessage(ip - inStart, true));
+					}
+					length += in[ip++] & 0xff;
+				}
+				if (ip >= inEnd) {
+					throw new HdfFilterException(corruptMessage(ip - inStart, true));
+				}
+				final int ref = op - ((ctrl & 0x1f) << 8 | in[ip++] & 0xff) - 1;
+				length += 2;
+				if (ref < outStart || op + length > outEnd) {
+					throw new HdfFilterException(corruptMessage(ip - inStart, false));
+				}
+				copyMatch(out, ref, op, length);
+				op += length;
+			}
+		}
+		if (op != outEnd) {
+			throw new HdfFilterException("LZF decoded data is " + (op - outStart) + " bytes but expected "
+					+ (outEnd - outStart) + " bytes");
+		}
+	}
+
+	/**
+	 * Copies a back reference, which may overlap the bytes being written when it repeats a short sequence.
+	 */
+	private static void copyMatch(byte[] out, int ref, int op, int length) {
+		if (op - ref >= length) {
+			System.arraycopy(out, ref, out, op, length);
+		} else {
+			for (int i = 0; i < length; i++) {
+				out[op + i] = out[ref + i];
+			}
+		}
+	}
+
+	/**
+	 * Gets the decoded length of LZF data by walking the literal runs and back references without decoding them.
+	 */
+	private static int walkDecodedLength(byte[] in) {
+		int ip = 0;
+		long length = 0;
+		while (ip < in.length) {
+			final int ctrl = in[ip++] & 0xff;
+			if (ctrl < 1 << 5) {
+				length += ctrl + 1;
+				ip += ctrl + 1;
+			} else {
+				int matchLength = ctrl >>> 5;
+				if (matchLength == 7 && ip < in.length) {
+					matchLength += in[ip++] & 0xff;
+				}
+				length += matchLength + 2;
+				ip++;
+			}
+		}
+		if (ip != in.length || length > Integer.MAX_VALUE) {
+			throw new HdfFilterException(corruptMessage(ip, true));
+		}
+		return (int) length;
+	}
+
+	private static String corruptMessage(int position, boolean truncated) {
+		return "LZF data is corrupt at encoded byte " + position + (truncated ? ", it is truncated" : "");
+	}
+}
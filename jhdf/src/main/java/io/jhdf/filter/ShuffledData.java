@@ -0,0 +1,66 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.filter;
+
+/**
+ * Decoded data which is still shuffled, see {@link FilterPipeline#decodeShuffled(java.nio.ByteBuffer, int)}. This
+ * allows elements to be unshuffled straight to where they are needed, without first unshuffling the whole chunk into a
+ * new array.
+ * <p>
+ * The data is held in a scratch array of the thread which decoded it, so it must be used by the same thread before it
+ * decodes anything else.
+ *
+ * @author James Mudd
+ */
+public final class ShuffledData {
+
+	private final byte[] data;
+	private final int elementSize;
+	private final int numberOfElements;
+
+	ShuffledData(byte[] data, int length, int elementSize) {
+		this.data = data;
+		this.elementSize = elementSize;
+		this.numberOfElements = length / elementSize;
+	}
+
+	/**
+	 * @return the number of bytes in each element
+	 */
+	public int getElementSize() {
+		return elementSize;
+	}
+
+	/**
+	 * @return the number of elements
+	 */
+	public int getNumberOfElements() {
+		return numberOfElements;
+	}
+
+	/**
+	 * Unshuffles a range of elements into the destination.
+	 *
+	 * @param firstElement      the index of the first element to unshuffle
+	 * @param elements          the number of elements to unshuffle
+	 * @param destination       the destination of the unshuffled elements
+	 * @param destinationOffset the index in the destination of the first element
+	 * @throws IndexOutOfBoundsException if the range is outside the data or doesn't fit in the destination
+	 */
+	public void unshuffle(int firstElement, int elements, byte[] destination, int destinationOffset) {
+		if (firstElement < 0 || elements < 0 || firstElement + elements > numberOfElements
+				|| destinationOffset < 0 || destinationOffset + elements * elementSize > destination.length) {
+			throw new IndexOutOfBoundsException("Can't unshuffle " + elements + " elements from element "
+					+ firstElement + " of " + numberOfElements + " into destination at " + destinationOffset);
+		}
+		ByteShuffleFilter.unshuffle(data, 0, numberOfElements, firstElement, elements, elementSize, destination,
+				destinationOffset);
+	}
+}
@@ -14,15 +14,24 @@ import io.jhdf.Utils;
 import io.jhdf.exceptions.HdfException;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 public class DataSpace {
 
+	/** The max size of unlimited dimensions */
+	public static final long UNLIMITED = -1L;
+
 	private final byte version;
 	private final boolean maxSizesPresent;
-	private final int[] dimensions;
-	private final int[] maxSizes;
+	private final long[] dimensions;
+	/** The dimensions as int or <code>null</code> if they are too large */
+	private final int[] intDimensions;
+	/** The max sizes, unlimited dimensions are -1 */
+	private final long[] maxSizes;
+	/** The max sizes as int or <code>null</code> if they are too large */
+	private final int[] intMaxSizes;
 	private final byte type;
 	private final long totalLength;
 
@@ -47,37 +56,61 @@ public class DataSpace {
 
 		// Dimensions sizes
 		if (numberOfDimensions != 0) {
-			dimensions = new int[numberOfDimensions];
+			dimensions = new long[numberOfDimensions];
 			for (int i = 0; i < numberOfDimensions; i++) {
-				dimensions[i] = Utils.readBytesAsUnsignedInt(bb, sb.getSizeOfLengths());
+				dimensions[i] = Utils.readBytesAsUnsignedLong(bb, sb.getSizeOfLengths());
 			}
 		} else {
-			dimensions = new int[0];
+			dimensions = new long[0];
 		}
 
+		intDimensions = toIntDimensions(dimensions);
+
 		// Max dimension sizes
 		if (maxSizesPresent) {
-			maxSizes = new int[numberOfDimensions];
+			maxSizes = new long[numberOfDimensions];
 			for (int i = 0; i < numberOfDimensions; i++) {
-				maxSizes[i] = Utils.readBytesAsUnsignedInt(bb, sb.getSizeOfLengths());
+				maxSizes[i] = readMaxSize(bb, sb.getSizeOfLengths());
 			}
 		} else {
-			maxSizes = new int[0];
+			maxSizes = new long[0];
 		}
 
+		intMaxSizes = toIntDimensions(maxSizes);
+
 		// If type == 2 then it's an empty dataset and totalLength should be 0
 		if (type == 2) {
 			totalLength = 0;
 		} else {
 			// Calculate the total length by multiplying all dimensions
-			totalLength = IntStream.of(dimensions)
-					.mapToLong(Long::valueOf) // Convert to long to avoid int overflow
-					.reduce(1, Math::multiplyExact);
+			totalLength = LongStream.of(dimensions).reduce(1, Math::multiplyExact);
 		}
 
 		// Permutation indices - Note never implemented in HDF library!
 	}
 
+	/**
+	 * Reads a max size, unlimited is stored as all bits set which is returned as -1 whatever the size of lengths.
+	 */
+	private static long readMaxSize(ByteBuffer bb, int sizeOfLengths) {
+		final long maxSize = Utils.readBytesAsUnsignedLong(bb, sizeOfLengths);
+		if (sizeOfLengths < 8 && maxSize == (1L << (sizeOfLengths * 8)) - 1) {
+			return UNLIMITED;
+		}
+		return maxSize;
+	}
+
+	private static int[] toIntDimensions(long[] dimensions) {
+		final int[] intDimensions = new int[dimensions.length];
+		for (int i = 0; i < dimensions.length; i++) {
+			if (dimensions[i] > Integer.MAX_VALUE) {
+				return null;
+			}
+			intDimensions[i] = (int) dimensions[i];
+		}
+		return intDimensions;
+	}
+
 	public static DataSpace readDataSpace(ByteBuffer bb, Superblock sb) {
 		return new DataSpace(bb, sb);
 	}
@@ -99,12 +132,53 @@ public class DataSpace {
 		return version;
 	}
 
+	/**
+	 * Gets the dimensions of this dataspace.
+	 *
+	 * @return the dimensions of this dataspace
+	 * @throws HdfException if any dimension is larger than {@link Integer#MAX_VALUE}, in which case
+	 *                      {@link #getLongDimensions()} must be used
+	 */
 	public int[] getDimensions() {
-		return dimensions;
+		if (intDimensions == null) {
+			throw new HdfException("Dimensions " + Arrays.toString(dimensions)
+					+ " are too large for int, use getLongDimensions()");
+		}
+		return intDimensions;
+	}
+
+	/**
+	 * Gets the dimensions of this dataspace, this supports dimensions larger than {@link Integer#MAX_VALUE}.
+	 *
+	 * @return the dimensions of this dataspace
+	 */
+	public long[] getLongDimensions() {
+		return dimensions.clone();
 	}
 
+	/**
+	 * Gets the max sizes of this dataspace, unlimited dimensions are -1.
+	 *
+	 * @return the max sizes of this dataspace
+	 * @throws HdfException if any max size is larger than {@link Integer#MAX_VALUE}, in which case
+	 *                      {@link #getLongMaxSizes()} must be used
+	 */
 	public int[] getMaxSizes() {
-		return maxSizes;
+		if (intMaxSizes == null) {
+			throw new HdfException("Max sizes " + Arrays.toString(maxSizes)
+					+ " are too large for int, use getLongMaxSizes()");
+		}
+		return intMaxSizes;
+	}
+
+	/**
+	 * Gets the max sizes of this dataspace, this supports max sizes larger than {@link Integer#MAX_VALUE}. Unlimited
+	 * dimensions are {@link #UNLIMITED}.
+	 *
+	 * @return the max sizes of this dataspace
+	 */
+	public long[] getLongMaxSizes() {
+		return maxSizes.clone();
 	}
 
 	public boolean isMaxSizesPresent() {
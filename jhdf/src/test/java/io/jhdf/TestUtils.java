@@ -9,10 +9,16 @@
  */
 package io.jhdf;
 
+import io.jhdf.dataset.chunked.ChunkedDatasetBase;
 import org.apache.commons.lang3.ArrayUtils;
 
 import java.lang.reflect.Array;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
@@ -31,6 +37,47 @@ public final class TestUtils {
         return new HdfFile(Paths.get(url.toURI()));
     }
 
+    /**
+     * Copies a test file to a temporary file, with one chunk of a dataset using an unfiltered fixed array index marked
+     * as never written. The address of the chunk in the fixed array data block is set to the undefined address, as
+     * the HDF5 library does for chunks not written. The data block checksum is not updated as it's not verified.
+     *
+     * @param fileName    the test file to copy
+     * @param datasetPath the path of the dataset in the file
+     * @param position    the position of an element in the chunk to unwrite
+     * @return the copied test file, which should be closed
+     */
+    public static HdfFile loadTestHdfFileWithUnwrittenChunk(String fileName, String datasetPath, long... position)
+            throws Exception {
+        final long chunkAddress;
+        try (HdfFile hdfFile = loadTestHdfFile(fileName)) {
+            chunkAddress = ((ChunkedDatasetBase) hdfFile.getDatasetByPath(datasetPath)).getChunk(position).getAddress();
+        }
+
+        final URL url = TestUtils.class.getResource("/hdf5/" + fileName);
+        final ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(Paths.get(url.toURI())))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        final byte[] signature = "FADB".getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < bytes.limit() - 14; i++) {
+            // Unfiltered data blocks are the signature, version, client ID 0, header address then chunk addresses
+            if (bytes.get(i) != signature[0] || bytes.get(i + 1) != signature[1] || bytes.get(i + 2) != signature[2]
+                    || bytes.get(i + 3) != signature[3] || bytes.get(i + 5) != 0) {
+                continue;
+            }
+            for (int entry = i + 14; entry <= bytes.limit() - 8 && entry < i + 14 + 8 * 1024; entry += 8) {
+                if (bytes.getLong(entry) == chunkAddress) {
+                    bytes.putLong(entry, Constants.UNDEFINED_ADDRESS);
+                    final Path file = Files.createTempFile("jhdf-unwritten-chunk-", ".hdf5");
+                    file.toFile().deleteOnExit();
+                    Files.write(file, bytes.array());
+                    return new HdfFile(file);
+                }
+            }
+        }
+        throw new RuntimeException("Could not find fixed array entry of chunk at address " + chunkAddress
+                + " of dataset " + datasetPath + " in test file " + fileName);
+    }
+
     public static Object[] flatten(Object data) {
         List<Object> flat = new ArrayList<>();
         flattenInternal(data, flat);
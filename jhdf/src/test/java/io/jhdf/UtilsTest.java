@@ -23,6 +23,7 @@ import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class UtilsTest {
@@ -298,6 +299,25 @@ class UtilsTest {
 		assertThat(bb.position(), is(equalTo(3)));
 	}
 
+	@Test
+	void testToByteArray() {
+		byte[] bytes = new byte[] { 1, 2, 3, 4, 5 };
+		// Wrapping the whole array so no copy
+		assertThat(Utils.toByteArray(ByteBuffer.wrap(bytes)), is(sameInstance(bytes)));
+
+		ByteBuffer bb = ByteBuffer.wrap(bytes);
+		bb.position(1);
+		bb.limit(4);
+		assertThat(Utils.toByteArray(bb), is(equalTo(new byte[] { 2, 3, 4 })));
+		// Position not changed
+		assertThat(bb.position(), is(equalTo(1)));
+
+		ByteBuffer direct = ByteBuffer.allocateDirect(5);
+		direct.put(bytes);
+		direct.flip();
+		assertThat(Utils.toByteArray(direct), is(equalTo(bytes)));
+	}
+
 	@Test
     void testBitsToInt() {
 		BitSet bits = new BitSet();
@@ -350,6 +370,14 @@ class UtilsTest {
 		assertThat(Utils.chunkIndexToChunkOffset(chunkIndex, chunkDimensions, datasetDimensions), is(equalTo(expectedChunkOffset)));
 	}
 
+	@Test
+	void testLinearIndexLargerThanInt() {
+		long[] dimensions = new long[]{3, 5_000_000_000L, 7};
+		long[] index = new long[]{2, 4_321_000_000L, 6};
+		long linearIndex = Utils.dimensionIndexToLinearIndex(index, dimensions);
+		assertThat(linearIndex, is(equalTo(2 * 5_000_000_000L * 7 + 4_321_000_000L * 7 + 6)));
+	}
+
 	private static Stream<Arguments> chunkIndexToChunkOffsetTestCases() {
 		return Stream.of(
 				//1D
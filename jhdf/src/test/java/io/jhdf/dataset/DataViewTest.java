@@ -0,0 +1,140 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset;
+
+import io.jhdf.HdfFile;
+import io.jhdf.exceptions.HdfException;
+import io.jhdf.exceptions.HdfTypeException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import static io.jhdf.TestUtils.loadTestHdfFile;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DataViewTest {
+
+	private static final String HDF5_TEST_FILE_NAME = "test_file.hdf5";
+	private static final String BIG_ENDIAN_HDF5_TEST_FILE_NAME = "test_file2.hdf5";
+	private static final String SCALAR_HDF5_TEST_FILE_NAME = "test_scalar_empty_datasets_latest.hdf5";
+
+	private static HdfFile hdfFile;
+	private static HdfFile hdfFile2;
+	private static HdfFile scalarHdfFile;
+
+	@BeforeAll
+	static void setup() throws Exception {
+		hdfFile = loadTestHdfFile(HDF5_TEST_FILE_NAME);
+		hdfFile2 = loadTestHdfFile(BIG_ENDIAN_HDF5_TEST_FILE_NAME);
+		scalarHdfFile = loadTestHdfFile(SCALAR_HDF5_TEST_FILE_NAME);
+	}
+
+	@AfterAll
+	static void tearDown() {
+		hdfFile.close();
+		hdfFile2.close();
+		scalarHdfFile.close();
+	}
+
+	@Test
+	void testFloatView() {
+		for (HdfFile file : new HdfFile[]{hdfFile, hdfFile2}) {
+			ContiguousDataset dataset = (ContiguousDataset) file.getDatasetByPath("/nD_Datasets/3D_float32");
+			DataView<FloatBuffer> view = dataset.getFloatView();
+			float[] expected = (float[]) dataset.getDataFlat();
+
+			assertThat(view.getDimensions(), is(equalTo(new long[]{2, 5, 100})));
+			assertThat(view.getFirstRow(), is(equalTo(0L)));
+			FloatBuffer buffer = view.getBuffer();
+			assertThat(buffer.isReadOnly(), is(true));
+			assertThat(buffer.remaining(), is(equalTo(expected.length)));
+			for (int i = 0; i < expected.length; i++) {
+				assertThat(buffer.get(i), is(equalTo(expected[i])));
+			}
+			assertThat(buffer.get(view.getIndex(1, 2, 3)), is(equalTo(703f)));
+			assertThrows(ReadOnlyBufferException.class, () -> buffer.put(0, 1f));
+		}
+	}
+
+	@Test
+	void testIntRowView() {
+		for (HdfFile file : new HdfFile[]{hdfFile, hdfFile2}) {
+			ContiguousDataset dataset = (ContiguousDataset) file.getDatasetByPath("/nD_Datasets/3D_int32");
+			DataView<IntBuffer> view = dataset.getIntView(1, 1);
+
+			assertThat(view.getDimensions(), is(equalTo(new long[]{1, 5, 100})));
+			assertThat(view.getFirstRow(), is(equalTo(1L)));
+			IntBuffer buffer = view.getBuffer();
+			assertThat(buffer.remaining(), is(equalTo(500)));
+			for (int i = 0; i < 500; i++) {
+				assertThat(buffer.get(i), is(equalTo(500 + i)));
+			}
+			assertThat(buffer.get(view.getIndex(0, 4, 99)), is(equalTo(999)));
+		}
+	}
+
+	@Test
+	void testDoubleView() {
+		ContiguousDataset dataset = (ContiguousDataset) hdfFile.getDatasetByPath("/datasets_group/float/float64");
+		DataView<DoubleBuffer> view = dataset.getDoubleView();
+		double[] expected = (double[]) dataset.getData();
+
+		DoubleBuffer buffer = view.getBuffer();
+		double[] actual = new double[buffer.remaining()];
+		buffer.get(actual);
+		assertThat(actual, is(equalTo(expected)));
+	}
+
+	@Test
+	void testScalarLongView() {
+		ContiguousDataset dataset = (ContiguousDataset) scalarHdfFile.getDatasetByPath("/scalar_int_64");
+		DataView<LongBuffer> view = dataset.getLongView();
+
+		assertThat(view.getDimensions(), is(equalTo(new long[0])));
+		assertThat(view.getBuffer().get(view.getIndex()), is(equalTo(dataset.getData())));
+		assertThrows(HdfException.class, () -> dataset.getLongView(0, 1));
+	}
+
+	@Test
+	void testEmptyDatasetViewIsNull() {
+		ContiguousDataset dataset = (ContiguousDataset) scalarHdfFile.getDatasetByPath("/empty_float_64");
+		assertThat(dataset.getDoubleView(), is(nullValue()));
+	}
+
+	@Test
+	void testWrongTypeThrows() {
+		ContiguousDataset dataset = (ContiguousDataset) hdfFile.getDatasetByPath("/nD_Datasets/3D_float32");
+		assertThrows(HdfTypeException.class, dataset::getDoubleView);
+		assertThrows(HdfTypeException.class, dataset::getIntView);
+		assertThrows(HdfTypeException.class, () -> dataset.getLongView(0, 1));
+	}
+
+	@Test
+	void testInvalidRowsThrows() {
+		ContiguousDataset dataset = (ContiguousDataset) hdfFile.getDatasetByPath("/nD_Datasets/3D_float32");
+		assertThrows(HdfException.class, () -> dataset.getFloatView(-1, 1));
+		assertThrows(HdfException.class, () -> dataset.getFloatView(1, 2));
+		assertThrows(HdfException.class, () -> dataset.getFloatView(0, -1));
+
+		DataView<FloatBuffer> view = dataset.getFloatView(0, 2);
+		assertThrows(HdfException.class, () -> view.getIndex(2, 0, 0));
+		assertThrows(HdfException.class, () -> view.getIndex(0, 0));
+	}
+}
@@ -0,0 +1,418 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset;
+
+import io.jhdf.HdfFile;
+import io.jhdf.api.Dataset;
+import io.jhdf.exceptions.HdfException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+import static io.jhdf.TestUtils.flatten;
+import static io.jhdf.TestUtils.getDimensions;
+import static io.jhdf.TestUtils.loadTestHdfFile;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.DynamicContainer.dynamicContainer;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class DatasetSliceTest {
+
+	private static final String HDF5_TEST_EARLIEST_FILE_NAME = "test_file.hdf5";
+	private static final String HDF5_TEST_LATEST_FILE_NAME = "test_file2.hdf5";
+	private static final String CHUNKED_HDF5_TEST_FILE_NAME = "test_chunked_datasets_earliest.hdf5";
+	private static final String COMPRESSED_HDF5_TEST_FILE_NAME = "test_compressed_chunked_datasets_latest.hdf5";
+	private static final String CHUNKED_V4_HDF5_TEST_FILE_NAME = "chunked_v4_datasets.hdf5";
+	private static final String ODD_HDF5_TEST_FILE_NAME = "test_odd_datasets_earliest.hdf5";
+
+	private static HdfFile earliestHdfFile;
+	private static HdfFile latestHdfFile;
+	private static HdfFile chunkedHdfFile;
+	private static HdfFile compressedHdfFile;
+	private static HdfFile chunkedV4HdfFile;
+	private static HdfFile oddHdfFile;
+
+	@BeforeAll
+	static void setup() throws Exception {
+		earliestHdfFile = loadTestHdfFile(HDF5_TEST_EARLIEST_FILE_NAME);
+		latestHdfFile = loadTestHdfFile(HDF5_TEST_LATEST_FILE_NAME);
+		chunkedHdfFile = loadTestHdfFile(CHUNKED_HDF5_TEST_FILE_NAME);
+		compressedHdfFile = loadTestHdfFile(COMPRESSED_HDF5_TEST_FILE_NAME);
+		chunkedV4HdfFile = loadTestHdfFile(CHUNKED_V4_HDF5_TEST_FILE_NAME);
+		oddHdfFile = loadTestHdfFile(ODD_HDF5_TEST_FILE_NAME);
+	}
+
+	@AfterAll
+	static void tearDown() {
+		earliestHdfFile.close();
+		latestHdfFile.close();
+		chunkedHdfFile.close();
+		compressedHdfFile.close();
+		chunkedV4HdfFile.close();
+		oddHdfFile.close();
+	}
+
+	@TestFactory
+	Collection<DynamicNode> contiguousSliceTests() {
+		return Arrays.asList(
+				dynamicContainer(HDF5_TEST_EARLIEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float32", createSliceTests(earliestHdfFile, "/nD_Datasets/3D_float32")),
+						dynamicTest("int32", createSliceTests(earliestHdfFile, "/nD_Datasets/3D_int32")))),
+
+				dynamicContainer(HDF5_TEST_LATEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float32", createSliceTests(latestHdfFile, "/nD_Datasets/3D_float32")),
+						dynamicTest("int32", createSliceTests(latestHdfFile, "/nD_Datasets/3D_int32"))))
+		);
+	}
+
+	@TestFactory
+	Collection<DynamicNode> chunkedSliceTests() {
+		return Arrays.asList(
+				dynamicContainer(CHUNKED_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float32", createChunkedSliceTests(chunkedHdfFile, "/float/float32")),
+						dynamicTest("float64", createChunkedSliceTests(chunkedHdfFile, "/float/float64")),
+						dynamicTest("int8", createChunkedSliceTests(chunkedHdfFile, "/int/int8")),
+						dynamicTest("int16", createChunkedSliceTests(chunkedHdfFile, "/int/int16")),
+						dynamicTest("int32", createChunkedSliceTests(chunkedHdfFile, "/int/int32")))),
+
+				dynamicContainer(COMPRESSED_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float32", createChunkedSliceTests(compressedHdfFile, "/float/float32")),
+						dynamicTest("float64", createChunkedSliceTests(compressedHdfFile, "/float/float64")),
+						dynamicTest("int8", createChunkedSliceTests(compressedHdfFile, "/int/int8")),
+						dynamicTest("int16", createChunkedSliceTests(compressedHdfFile, "/int/int16")),
+						dynamicTest("int32", createChunkedSliceTests(compressedHdfFile, "/int/int32")))),
+
+				dynamicContainer(CHUNKED_V4_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("single_chunk", createChunkedSliceTests(chunkedV4HdfFile, "/single_chunk/int32")),
+						dynamicTest("filtered_single_chunk", createChunkedSliceTests(chunkedV4HdfFile, "/filtered_single_chunk/float64")),
+						dynamicTest("fixed_array", createChunkedSliceTests(chunkedV4HdfFile, "/fixed_array/int16")),
+						dynamicTest("filtered_fixed_array", createChunkedSliceTests(chunkedV4HdfFile, "/filtered_fixed_array/float32")),
+						dynamicTest("extensible_array", createChunkedSliceTests(chunkedV4HdfFile, "/extensible_array/int8_alt_chunks")),
+						dynamicTest("extensible_array_large", createChunkedSliceTests(chunkedV4HdfFile, "/extensible_array/large_int16")),
+						dynamicTest("filtered_extensible_array", createChunkedSliceTests(chunkedV4HdfFile, "/filtered_extensible_array/large_int16")),
+						dynamicTest("btree_v2", createChunkedSliceTests(chunkedV4HdfFile, "/btree_v2/large_int16")),
+						dynamicTest("filtered_btree_v2", createChunkedSliceTests(chunkedV4HdfFile, "/filtered_btree_v2/int32")))),
+
+				dynamicContainer(ODD_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("8D_int16", createChunkedSliceTests(oddHdfFile, "/8D_int16")),
+						dynamicTest("1D_int16", createChunkedSliceTests(oddHdfFile, "/1D_int16"))))
+		);
+	}
+
+	private Executable createSliceTests(HdfFile hdfFile, String datasetPath) {
+		return () -> {
+			Dataset dataset = hdfFile.getDatasetByPath(datasetPath);
+			int[] datasetDimensions = dataset.getDimensions(); // [2, 5, 100]
+
+			// Whole dataset
+			verifySlice(dataset, new long[]{0, 0, 0}, datasetDimensions);
+			// Single row
+			verifySlice(dataset, new long[]{1, 2, 0}, new int[]{1, 1, 100});
+			// Part of a row
+			verifySlice(dataset, new long[]{0, 3, 17}, new int[]{1, 1, 20});
+			// Full fastest dimensions can be merged into one run
+			verifySlice(dataset, new long[]{1, 1, 0}, new int[]{1, 3, 100});
+			// Box in the middle
+			verifySlice(dataset, new long[]{0, 1, 40}, new int[]{2, 3, 25});
+			// Column
+			verifySlice(dataset, new long[]{0, 0, 99}, new int[]{2, 5, 1});
+		};
+	}
+
+	private Executable createChunkedSliceTests(HdfFile hdfFile, String datasetPath) {
+		return () -> {
+			Dataset dataset = hdfFile.getDatasetByPath(datasetPath);
+			int[] datasetDimensions = dataset.getDimensions();
+			int rank = datasetDimensions.length;
+
+			// Whole dataset
+			verifySlice(dataset, new long[rank], datasetDimensions);
+
+			// One index of the slowest dimension
+			long[] offset = new long[rank];
+			int[] dimensions = datasetDimensions.clone();
+			offset[0] = datasetDimensions[0] / 2;
+			dimensions[0] = 1;
+			verifySlice(dataset, offset, dimensions);
+
+			// Box not aligned to chunk boundaries
+			for (int i = 0; i < rank; i++) {
+				offset[i] = datasetDimensions[i] > 1 ? 1 : 0;
+				dimensions[i] = Math.max(1, datasetDimensions[i] / 2);
+			}
+			verifySlice(dataset, offset, dimensions);
+
+			// The last element
+			for (int i = 0; i < rank; i++) {
+				offset[i] = datasetDimensions[i] - 1L;
+				dimensions[i] = 1;
+			}
+			verifySlice(dataset, offset, dimensions);
+		};
+	}
+
+	@TestFactory
+	Collection<DynamicNode> stridedSelectionTests() {
+		return Arrays.asList(
+				dynamicContainer(HDF5_TEST_EARLIEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float32", createStridedTests(earliestHdfFile, "/nD_Datasets/3D_float32")),
+						dynamicTest("int32", createStridedTests(earliestHdfFile, "/nD_Datasets/3D_int32")))),
+
+				dynamicContainer(CHUNKED_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float64", createStridedTests(chunkedHdfFile, "/float/float64")),
+						dynamicTest("int16", createStridedTests(chunkedHdfFile, "/int/int16")))),
+
+				dynamicContainer(COMPRESSED_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float32", createStridedTests(compressedHdfFile, "/float/float32")),
+						dynamicTest("int32", createStridedTests(compressedHdfFile, "/int/int32")))),
+
+				dynamicContainer(CHUNKED_V4_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("fixed_array", createStridedTests(chunkedV4HdfFile, "/fixed_array/int16")),
+						dynamicTest("extensible_array_large", createStridedTests(chunkedV4HdfFile, "/extensible_array/large_int16")),
+						dynamicTest("btree_v2", createStridedTests(chunkedV4HdfFile, "/btree_v2/large_int16")))),
+
+				dynamicContainer(ODD_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("8D_int16", createStridedTests(oddHdfFile, "/8D_int16")),
+						dynamicTest("1D_int16", createStridedTests(oddHdfFile, "/1D_int16"))))
+		);
+	}
+
+	private Executable createStridedTests(HdfFile hdfFile, String datasetPath) {
+		return () -> {
+			Dataset dataset = hdfFile.getDatasetByPath(datasetPath);
+			int[] datasetDimensions = dataset.getDimensions();
+			int rank = datasetDimensions.length;
+
+			long[] start = new long[rank];
+			long[] stride = new long[rank];
+			int[] count = new int[rank];
+			int[] block = new int[rank];
+
+			// Every other element
+			for (int i = 0; i < rank; i++) {
+				stride[i] = 2;
+				count[i] = (datasetDimensions[i] + 1) / 2;
+				block[i] = 1;
+			}
+			verifySelection(dataset, start, stride, count, block);
+
+			// Every third element only in the fastest dimension starting at 1
+			Arrays.fill(stride, 1);
+			Arrays.fill(block, 1);
+			System.arraycopy(datasetDimensions, 0, count, 0, rank);
+			start[rank - 1] = datasetDimensions[rank - 1] > 1 ? 1 : 0;
+			stride[rank - 1] = 3;
+			count[rank - 1] = (int) ((datasetDimensions[rank - 1] - start[rank - 1] + 2) / 3);
+			verifySelection(dataset, start, stride, count, block);
+
+			// Blocks of 2 separated by gaps of 1 in every dimension possible
+			Arrays.fill(start, 0);
+			for (int i = 0; i < rank; i++) {
+				if (datasetDimensions[i] >= 2) {
+					stride[i] = 3;
+					block[i] = 2;
+					count[i] = (datasetDimensions[i] + 1) / 3;
+				} else {
+					stride[i] = 1;
+					block[i] = 1;
+					count[i] = datasetDimensions[i];
+				}
+			}
+			verifySelection(dataset, start, stride, count, block);
+
+			// Adjacent blocks are equivalent to a slice
+			for (int i = 0; i < rank; i++) {
+				stride[i] = 1;
+				block[i] = 1;
+				count[i] = datasetDimensions[i];
+			}
+			verifySelection(dataset, start, stride, count, block);
+		};
+	}
+
+	@TestFactory
+	Collection<DynamicNode> pointSelectionTests() {
+		return Arrays.asList(
+				dynamicContainer(HDF5_TEST_LATEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float32", createPointTests(latestHdfFile, "/nD_Datasets/3D_float32")),
+						dynamicTest("int32", createPointTests(latestHdfFile, "/nD_Datasets/3D_int32")))),
+
+				dynamicContainer(CHUNKED_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float32", createPointTests(chunkedHdfFile, "/float/float32")),
+						dynamicTest("int8", createPointTests(chunkedHdfFile, "/int/int8")))),
+
+				dynamicContainer(COMPRESSED_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float64", createPointTests(compressedHdfFile, "/float/float64")),
+						dynamicTest("int16", createPointTests(compressedHdfFile, "/int/int16")))),
+
+				dynamicContainer(CHUNKED_V4_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("single_chunk", createPointTests(chunkedV4HdfFile, "/single_chunk/int32")),
+						dynamicTest("filtered_fixed_array", createPointTests(chunkedV4HdfFile, "/filtered_fixed_array/float32")),
+						dynamicTest("extensible_array_large", createPointTests(chunkedV4HdfFile, "/extensible_array/large_int16")),
+						dynamicTest("filtered_btree_v2", createPointTests(chunkedV4HdfFile, "/filtered_btree_v2/int32")))),
+
+				dynamicContainer(ODD_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("8D_int16", createPointTests(oddHdfFile, "/8D_int16")),
+						dynamicTest("1D_int16", createPointTests(oddHdfFile, "/1D_int16"))))
+		);
+	}
+
+	private Executable createPointTests(HdfFile hdfFile, String datasetPath) {
+		return () -> {
+			Dataset dataset = hdfFile.getDatasetByPath(datasetPath);
+			int[] datasetDimensions = dataset.getDimensions();
+
+			// Random points in random order including repeated points
+			Random random = new Random(datasetPath.hashCode());
+			long[][] points = new long[200][datasetDimensions.length];
+			for (long[] point : points) {
+				for (int i = 0; i < datasetDimensions.length; i++) {
+					point[i] = random.nextInt(datasetDimensions[i]);
+				}
+			}
+
+			Object[] data = flatten(dataset.getPoints(points));
+			assertThat(data.length, is(equalTo(points.length)));
+			for (int i = 0; i < points.length; i++) {
+				// The test datasets contain their own linear index
+				long expected = 0;
+				for (int j = 0; j < datasetDimensions.length; j++) {
+					expected = expected * datasetDimensions[j] + points[i][j];
+				}
+				assertThat(Double.valueOf(data[i].toString()), is(equalTo((double) expected)));
+			}
+		};
+	}
+
+	private void verifySlice(Dataset dataset, long[] sliceOffset, int[] sliceDimensions) {
+		int[] datasetDimensions = dataset.getDimensions();
+		long[] stride = new long[datasetDimensions.length];
+		Arrays.fill(stride, 1);
+		int[] count = new int[datasetDimensions.length];
+		Arrays.fill(count, 1);
+		verifySelection(dataset, sliceOffset, stride, count, sliceDimensions);
+		verifyData(dataset.getData(sliceOffset, sliceDimensions), datasetDimensions, sliceOffset, stride, count,
+				sliceDimensions);
+	}
+
+	private void verifySelection(Dataset dataset, long[] start, long[] stride, int[] count, int[] block) {
+		verifyData(dataset.getData(start, stride, count, block), dataset.getDimensions(), start, stride, count, block);
+	}
+
+	private void verifyData(Object data, int[] datasetDimensions, long[] start, long[] stride, int[] count,
+							int[] block) {
+		int[] sliceDimensions = new int[count.length];
+		for (int i = 0; i < count.length; i++) {
+			sliceDimensions[i] = count[i] * block[i];
+		}
+		assertThat(getDimensions(data), is(equalTo(sliceDimensions)));
+
+		Object[] flatData = flatten(data);
+		int[] position = new int[sliceDimensions.length];
+		for (Object element : flatData) {
+			// The test datasets contain their own linear index
+			long expected = 0;
+			for (int i = 0; i < position.length; i++) {
+				long datasetPosition = start[i] + (position[i] / block[i]) * stride[i] + position[i] % block[i];
+				expected = expected * datasetDimensions[i] + datasetPosition;
+			}
+			assertThat(Double.valueOf(element.toString()), is(equalTo((double) expected)));
+
+			// Move to the next position in the slice
+			for (int i = position.length - 1; i >= 0; i--) {
+				if (++position[i] < sliceDimensions[i]) {
+					break;
+				}
+				position[i] = 0;
+			}
+		}
+	}
+
+	@Test
+	void testSliceOfOneDimensionalDataset() {
+		Dataset dataset = earliestHdfFile.getDatasetByPath("/datasets_group/int/int8");
+		byte[] data = (byte[]) dataset.getData(new long[]{5}, new int[]{4});
+		assertThat(data, is(equalTo(new byte[]{-5, -4, -3, -2})));
+	}
+
+	@Test
+	void testEmptySlice() {
+		Dataset dataset = earliestHdfFile.getDatasetByPath("/datasets_group/float/float64");
+		double[] data = (double[]) dataset.getData(new long[]{3}, new int[]{0});
+		assertThat(data.length, is(equalTo(0)));
+	}
+
+	@Test
+	void testSliceOutsideDatasetThrows() {
+		Dataset dataset = earliestHdfFile.getDatasetByPath("/nD_Datasets/3D_int32");
+		assertThrows(HdfException.class, () -> dataset.getData(new long[]{0, 0, 90}, new int[]{1, 1, 20}));
+		assertThrows(HdfException.class, () -> dataset.getData(new long[]{-1, 0, 0}, new int[]{1, 1, 1}));
+	}
+
+	@Test
+	void testStridedSelectionOfOneDimensionalDataset() {
+		Dataset dataset = earliestHdfFile.getDatasetByPath("/datasets_group/int/int8");
+		byte[] data = (byte[]) dataset.getData(new long[]{1}, new long[]{5}, new int[]{4}, new int[]{2});
+		assertThat(data, is(equalTo(new byte[]{-9, -8, -4, -3, 1, 2, 6, 7})));
+	}
+
+	@Test
+	void testInvalidStridedSelectionThrows() {
+		Dataset dataset = earliestHdfFile.getDatasetByPath("/nD_Datasets/3D_int32");
+		// Overlapping blocks
+		assertThrows(HdfException.class, () -> dataset.getData(new long[]{0, 0, 0}, new long[]{1, 1, 2},
+				new int[]{1, 1, 10}, new int[]{1, 1, 3}));
+		// Last block outside the dataset
+		assertThrows(HdfException.class, () -> dataset.getData(new long[]{0, 0, 0}, new long[]{1, 1, 10},
+				new int[]{1, 1, 11}, new int[]{1, 1, 2}));
+		// Wrong rank
+		assertThrows(HdfException.class, () -> dataset.getData(new long[]{0, 0}, new long[]{1, 1},
+				new int[]{1, 1}, new int[]{1, 1}));
+	}
+
+	@Test
+	void testPointsOfOneDimensionalDataset() {
+		Dataset dataset = earliestHdfFile.getDatasetByPath("/datasets_group/int/int8");
+		byte[] data = (byte[]) dataset.getPoints(new long[][]{{20}, {0}, {10}, {0}});
+		assertThat(data, is(equalTo(new byte[]{10, -10, 0, -10})));
+	}
+
+	@Test
+	void testNoPoints() {
+		Dataset dataset = chunkedHdfFile.getDatasetByPath("/int/int32");
+		int[] data = (int[]) dataset.getPoints(new long[0][]);
+		assertThat(data.length, is(equalTo(0)));
+	}
+
+	@Test
+	void testInvalidPointsThrow() {
+		Dataset dataset = chunkedHdfFile.getDatasetByPath("/int/int32");
+		int[] dimensions = dataset.getDimensions();
+		assertThrows(HdfException.class, () -> dataset.getPoints(new long[][]{{0, 0, dimensions[2]}}));
+		assertThrows(HdfException.class, () -> dataset.getPoints(new long[][]{{0, -1, 0}}));
+		assertThrows(HdfException.class, () -> dataset.getPoints(new long[][]{{0, 0}}));
+	}
+
+	@Test
+	void testSliceWithWrongRankThrows() {
+		Dataset dataset = earliestHdfFile.getDatasetByPath("/nD_Datasets/3D_int32");
+		assertThrows(HdfException.class, () -> dataset.getData(new long[]{0, 0}, new int[]{1, 1}));
+	}
+}
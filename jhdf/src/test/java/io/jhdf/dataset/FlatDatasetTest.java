@@ -0,0 +1,113 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset;
+
+import io.jhdf.HdfFile;
+import io.jhdf.api.Dataset;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.function.Executable;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static io.jhdf.TestUtils.flatten;
+import static io.jhdf.TestUtils.loadTestHdfFile;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.DynamicContainer.dynamicContainer;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class FlatDatasetTest {
+
+	private static final String HDF5_TEST_FILE_NAME = "test_file.hdf5";
+	private static final String COMPRESSED_HDF5_TEST_FILE_NAME = "test_compressed_chunked_datasets_earliest.hdf5";
+	private static final String ODD_HDF5_TEST_FILE_NAME = "test_odd_datasets_latest.hdf5";
+	private static final String SCALAR_HDF5_TEST_FILE_NAME = "test_scalar_empty_datasets_latest.hdf5";
+
+	private static HdfFile hdfFile;
+	private static HdfFile compressedHdfFile;
+	private static HdfFile oddHdfFile;
+	private static HdfFile scalarHdfFile;
+
+	@BeforeAll
+	static void setup() throws Exception {
+		hdfFile = loadTestHdfFile(HDF5_TEST_FILE_NAME);
+		compressedHdfFile = loadTestHdfFile(COMPRESSED_HDF5_TEST_FILE_NAME);
+		oddHdfFile = loadTestHdfFile(ODD_HDF5_TEST_FILE_NAME);
+		scalarHdfFile = loadTestHdfFile(SCALAR_HDF5_TEST_FILE_NAME);
+	}
+
+	@AfterAll
+	static void tearDown() {
+		hdfFile.close();
+		compressedHdfFile.close();
+		oddHdfFile.close();
+		scalarHdfFile.close();
+	}
+
+	@TestFactory
+	Collection<DynamicNode> flatDatasetTests() {
+		return Arrays.asList(
+				dynamicContainer(HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("3D_float32", createTest(hdfFile, "/nD_Datasets/3D_float32")),
+						dynamicTest("3D_int32", createTest(hdfFile, "/nD_Datasets/3D_int32")),
+						dynamicTest("int8", createTest(hdfFile, "/datasets_group/int/int8")),
+						dynamicTest("float64", createTest(hdfFile, "/datasets_group/float/float64")))),
+
+				dynamicContainer(COMPRESSED_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float32", createTest(compressedHdfFile, "/float/float32")),
+						dynamicTest("float64", createTest(compressedHdfFile, "/float/float64")),
+						dynamicTest("int8", createTest(compressedHdfFile, "/int/int8")),
+						dynamicTest("int16", createTest(compressedHdfFile, "/int/int16")),
+						dynamicTest("int32", createTest(compressedHdfFile, "/int/int32")))),
+
+				dynamicContainer(ODD_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("8D_int16", createTest(oddHdfFile, "/8D_int16")),
+						dynamicTest("1D_int16", createTest(oddHdfFile, "/1D_int16")))),
+
+				dynamicContainer(SCALAR_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("uint16", createTest(scalarHdfFile, "/scalar_uint_16")),
+						dynamicTest("uint64", createTest(scalarHdfFile, "/scalar_uint_64")),
+						dynamicTest("string", createTest(scalarHdfFile, "/scalar_string"))))
+		);
+	}
+
+	private Executable createTest(HdfFile file, String datasetPath) {
+		return () -> {
+			Dataset dataset = file.getDatasetByPath(datasetPath);
+			Object flatData = dataset.getDataFlat();
+
+			// Should be a single 1D array holding all the elements
+			assertThat(flatData.getClass().isArray(), is(true));
+			assertThat(flatData.getClass().getComponentType().isArray(), is(false));
+			assertThat((long) Array.getLength(flatData), is(equalTo(dataset.getSize())));
+
+			Object data = dataset.getData();
+			if (dataset.isScalar()) {
+				assertThat(Array.get(flatData, 0), is(equalTo(data)));
+			} else {
+				assertThat(flatten(flatData), is(equalTo(flatten(data))));
+			}
+		};
+	}
+
+	@Test
+	void testFlatDataOfEmptyDatasetIsNull() {
+		Dataset dataset = scalarHdfFile.getDatasetByPath("/empty_float_32");
+		assertThat(dataset.getDataFlat(), is(nullValue()));
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset;
+
+import io.jhdf.exceptions.HdfException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HyperslabTest {
+
+	@Test
+	void testSliceOfDatasetLargerThanIntegerMaxValue() {
+		long[] datasetDimensions = new long[]{10_000_000_000L};
+		Hyperslab hyperslab = new Hyperslab(datasetDimensions, new long[]{9_999_999_990L}, new int[]{10});
+
+		List<long[]> runs = getRuns(hyperslab);
+		assertThat(runs.size(), is(equalTo(1)));
+		assertThat(runs.get(0), is(equalTo(new long[]{9_999_999_990L, 0, 10})));
+	}
+
+	@Test
+	void testChunkBeyondIntegerMaxValue() {
+		long[] datasetDimensions = new long[]{3_000_000_000L, 4};
+		Hyperslab hyperslab = new Hyperslab(datasetDimensions, new long[]{2_500_000_001L, 0}, new int[]{3, 4});
+
+		long[] chunkDimensions = new long[]{2, 4};
+		assertThat(hyperslab.intersects(new long[]{2_499_999_998L, 0}, chunkDimensions), is(false));
+		assertThat(hyperslab.intersects(new long[]{2_500_000_000L, 0}, chunkDimensions), is(true));
+
+		List<long[]> runs = new ArrayList<>();
+		hyperslab.forEachRunInBox(new long[]{2_500_000_002L, 0}, chunkDimensions,
+				(boxIndex, sliceIndex, length) -> runs.add(new long[]{boxIndex, sliceIndex, length}));
+		// Both rows of the chunk are selected and full width so merged into one run
+		assertThat(runs.size(), is(equalTo(1)));
+		assertThat(runs.get(0), is(equalTo(new long[]{0, 4, 8})));
+	}
+
+	@Test
+	void testLongRunsAreSplit() {
+		long[] datasetDimensions = new long[]{4, Hyperslab.MAX_RUN_LENGTH};
+		Hyperslab hyperslab = new Hyperslab(datasetDimensions, new long[]{1, 0},
+				new int[]{3, Hyperslab.MAX_RUN_LENGTH});
+
+		List<long[]> runs = getRuns(hyperslab);
+		assertThat(runs.size(), is(equalTo(3)));
+		for (int i = 0; i < runs.size(); i++) {
+			long expectedSliceIndex = (long) i * Hyperslab.MAX_RUN_LENGTH;
+			assertThat(runs.get(i), is(equalTo(new long[]{
+					Hyperslab.MAX_RUN_LENGTH + expectedSliceIndex, expectedSliceIndex, Hyperslab.MAX_RUN_LENGTH})));
+		}
+	}
+
+	@Test
+	void testStridedRuns() {
+		Hyperslab hyperslab = new Hyperslab(new long[]{2, 10}, new long[]{0, 1}, new long[]{1, 4},
+				new int[]{2, 2}, new int[]{1, 2});
+
+		assertThat(hyperslab.getDimensions(), is(equalTo(new int[]{2, 4})));
+		List<long[]> runs = getRuns(hyperslab);
+		assertThat(runs.size(), is(equalTo(4)));
+		assertThat(runs.get(0), is(equalTo(new long[]{1, 0, 2})));
+		assertThat(runs.get(1), is(equalTo(new long[]{5, 2, 2})));
+		assertThat(runs.get(2), is(equalTo(new long[]{11, 4, 2})));
+		assertThat(runs.get(3), is(equalTo(new long[]{15, 6, 2})));
+	}
+
+	@Test
+	void testIntersectingBoxes() {
+		// Blocks of 2 every 10 elements starting at 3, the boxes of 4 between blocks are skipped
+		Hyperslab hyperslab = new Hyperslab(new long[]{100, 8}, new long[]{3, 0}, new long[]{10, 1},
+				new int[]{5, 1}, new int[]{2, 8});
+
+		assertThat(hyperslab.getIntersectingBoxes(0, 4), is(equalTo(new int[]{0, 1, 3, 5, 6, 8, 10, 11})));
+		assertThat(hyperslab.getIntersectingBoxes(0, 100), is(equalTo(new int[]{0})));
+		assertThat(hyperslab.getIntersectingBoxes(1, 3), is(equalTo(new int[]{0, 1, 2})));
+
+		// Agrees with checking every box
+		for (int boxLength = 1; boxLength <= 12; boxLength++) {
+			List<Integer> expected = new ArrayList<>();
+			for (int box = 0; box * boxLength < 100; box++) {
+				if (hyperslab.intersects(new long[]{(long) box * boxLength, 0}, new long[]{boxLength, 8})) {
+					expected.add(box);
+				}
+			}
+			assertThat(hyperslab.getIntersectingBoxes(0, boxLength),
+					is(equalTo(expected.stream().mapToInt(Integer::intValue).toArray())));
+		}
+	}
+
+	@Test
+	void testIntersectingBoxesOfEmptySelection() {
+		Hyperslab hyperslab = new Hyperslab(new long[]{10, 10}, new long[]{2, 2}, new int[]{0, 5});
+
+		assertThat(hyperslab.getIntersectingBoxes(1, 4).length, is(equalTo(0)));
+	}
+
+	@Test
+	void testSelectionOutsideDatasetThrows() {
+		long[] datasetDimensions = new long[]{3_000_000_000L};
+		assertThrows(HdfException.class,
+				() -> new Hyperslab(datasetDimensions, new long[]{2_999_999_999L}, new int[]{2}));
+	}
+
+	@Test
+	void testCountTimesBlockOverflowThrows() {
+		long[] datasetDimensions = new long[]{10_000_000_000L};
+		HdfException e = assertThrows(HdfException.class, () -> new Hyperslab(datasetDimensions, new long[]{0},
+				new long[]{65_536}, new int[]{65_536}, new int[]{65_536}));
+		assertThat(e.getMessage(), containsString("count=[65536], block=[65536]"));
+	}
+
+	private static List<long[]> getRuns(Hyperslab hyperslab) {
+		List<long[]> runs = new ArrayList<>();
+		hyperslab.forEachRun((boxIndex, sliceIndex, length) -> runs.add(new long[]{boxIndex, sliceIndex, length}));
+		return runs;
+	}
+}
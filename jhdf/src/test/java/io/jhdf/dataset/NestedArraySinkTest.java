@@ -0,0 +1,65 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class NestedArraySinkTest {
+
+	@Test
+	void testRunsSpanningRows() {
+		int[] dimensions = new int[]{2, 3, 4};
+		int[][][] data = new int[2][3][4];
+		NestedArraySink sink = new NestedArraySink(data, dimensions);
+
+		ByteBuffer source = ByteBuffer.allocate(24 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < 24; i++) {
+			source.putInt(i);
+		}
+
+		// Put in uneven runs which cross row boundaries
+		source.position(0);
+		sink.put(source, 0, 3);
+		sink.put(source, 3, 10);
+		sink.put(source, 13, 11);
+
+		int expected = 0;
+		for (int[][] plane : data) {
+			for (int[] row : plane) {
+				for (int value : row) {
+					assertThat(value, is(equalTo(expected++)));
+				}
+			}
+		}
+		// The source should be advanced past all the elements
+		assertThat(source.position(), is(equalTo(source.capacity())));
+	}
+
+	@Test
+	void testDoubles() {
+		int[] dimensions = new int[]{3, 2};
+		double[][] data = new double[3][2];
+		NestedArraySink sink = new NestedArraySink(data, dimensions);
+
+		ByteBuffer source = ByteBuffer.allocate(3 * Double.BYTES).order(ByteOrder.BIG_ENDIAN);
+		source.putDouble(1.5).putDouble(2.5).putDouble(3.5);
+		source.position(0);
+		sink.put(source, 3, 3);
+
+		assertThat(data, is(equalTo(new double[][]{{0, 0}, {0, 1.5}, {2.5, 3.5}})));
+	}
+}
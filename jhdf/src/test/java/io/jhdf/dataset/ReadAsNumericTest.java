@@ -0,0 +1,160 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset;
+
+import io.jhdf.HdfFile;
+import io.jhdf.api.Dataset;
+import io.jhdf.exceptions.HdfTypeException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.function.Executable;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static io.jhdf.TestUtils.flatten;
+import static io.jhdf.TestUtils.loadTestHdfFile;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.DynamicContainer.dynamicContainer;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class ReadAsNumericTest {
+
+	private static final String HDF5_TEST_FILE_NAME = "test_file.hdf5";
+	private static final String COMPRESSED_HDF5_TEST_FILE_NAME = "test_compressed_chunked_datasets_earliest.hdf5";
+	private static final String CHUNKED_V4_HDF5_TEST_FILE_NAME = "chunked_v4_datasets.hdf5";
+	private static final String SCALAR_HDF5_TEST_FILE_NAME = "test_scalar_empty_datasets_latest.hdf5";
+
+	private static HdfFile hdfFile;
+	private static HdfFile compressedHdfFile;
+	private static HdfFile chunkedV4HdfFile;
+	private static HdfFile scalarHdfFile;
+
+	@BeforeAll
+	static void setup() throws Exception {
+		hdfFile = loadTestHdfFile(HDF5_TEST_FILE_NAME);
+		compressedHdfFile = loadTestHdfFile(COMPRESSED_HDF5_TEST_FILE_NAME);
+		chunkedV4HdfFile = loadTestHdfFile(CHUNKED_V4_HDF5_TEST_FILE_NAME);
+		scalarHdfFile = loadTestHdfFile(SCALAR_HDF5_TEST_FILE_NAME);
+	}
+
+	@AfterAll
+	static void tearDown() {
+		hdfFile.close();
+		compressedHdfFile.close();
+		chunkedV4HdfFile.close();
+		scalarHdfFile.close();
+	}
+
+	@TestFactory
+	Collection<DynamicNode> readAsNumericTests() {
+		return Arrays.asList(
+				dynamicContainer(HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("3D_float32", createTest(hdfFile, "/nD_Datasets/3D_float32")),
+						dynamicTest("3D_int32", createTest(hdfFile, "/nD_Datasets/3D_int32")),
+						dynamicTest("int8", createTest(hdfFile, "/datasets_group/int/int8")),
+						dynamicTest("int16", createTest(hdfFile, "/datasets_group/int/int16")),
+						dynamicTest("float64", createTest(hdfFile, "/datasets_group/float/float64")))),
+
+				dynamicContainer(COMPRESSED_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float32", createTest(compressedHdfFile, "/float/float32")),
+						dynamicTest("float64", createTest(compressedHdfFile, "/float/float64")),
+						dynamicTest("int8", createTest(compressedHdfFile, "/int/int8")),
+						dynamicTest("int16", createTest(compressedHdfFile, "/int/int16")),
+						dynamicTest("int32", createTest(compressedHdfFile, "/int/int32")))),
+
+				dynamicContainer(CHUNKED_V4_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("btree_v2", createTest(chunkedV4HdfFile, "/btree_v2/large_int16")),
+						dynamicTest("fixed_array", createTest(chunkedV4HdfFile, "/fixed_array/float64")))),
+
+				dynamicContainer(SCALAR_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("int8", createTest(scalarHdfFile, "/scalar_int_8")),
+						dynamicTest("uint8", createTest(scalarHdfFile, "/scalar_uint_8")),
+						dynamicTest("uint16", createTest(scalarHdfFile, "/scalar_uint_16")),
+						dynamicTest("uint32", createTest(scalarHdfFile, "/scalar_uint_32")),
+						dynamicTest("int64", createTest(scalarHdfFile, "/scalar_int_64")),
+						dynamicTest("uint64", createTest(scalarHdfFile, "/scalar_uint_64")),
+						dynamicTest("float64", createTest(scalarHdfFile, "/scalar_float_64"))))
+		);
+	}
+
+	private Executable createTest(HdfFile file, String datasetPath) {
+		return () -> {
+			Dataset dataset = file.getDatasetByPath(datasetPath);
+			Object data = dataset.getData();
+			Object[] expected = dataset.isScalar() ? new Object[]{data} : flatten(data);
+
+			double[] doubles = dataset.readAsDoubles();
+			float[] floats = dataset.readAsFloats();
+			assertThat(doubles.length, is(equalTo(expected.length)));
+			assertThat(floats.length, is(equalTo(expected.length)));
+			for (int i = 0; i < expected.length; i++) {
+				Number number = (Number) expected[i];
+				assertThat(doubles[i], is(equalTo(number.doubleValue())));
+				assertThat(floats[i], is(equalTo(number.floatValue())));
+			}
+
+			Class<?> javaType = dataset.getDataType().getJavaType();
+			if (javaType == float.class || javaType == double.class) {
+				assertThrows(HdfTypeException.class, dataset::readAsLongs);
+			} else {
+				long[] longs = dataset.readAsLongs();
+				assertThat(longs.length, is(equalTo(expected.length)));
+				for (int i = 0; i < expected.length; i++) {
+					assertThat(longs[i], is(equalTo(((Number) expected[i]).longValue())));
+				}
+			}
+		};
+	}
+
+	@Test
+	void testNonNumericThrows() {
+		Dataset dataset = scalarHdfFile.getDatasetByPath("/scalar_string");
+		assertThrows(HdfTypeException.class, dataset::readAsDoubles);
+		assertThrows(HdfTypeException.class, dataset::readAsFloats);
+		assertThrows(HdfTypeException.class, dataset::readAsLongs);
+	}
+
+	@Test
+	void testEmptyDatasetIsNull() {
+		Dataset dataset = scalarHdfFile.getDatasetByPath("/empty_float_32");
+		assertThat(dataset.readAsDoubles(), is(nullValue()));
+		assertThat(dataset.readAsFloats(), is(nullValue()));
+	}
+
+	@Test
+	void testUnsigned64BitConversion() {
+		long[] values = new long[]{0, 1, Long.MAX_VALUE, Long.MIN_VALUE, -1, 0xF000_0000_0000_0801L};
+		ByteBuffer buffer = ByteBuffer.allocate(values.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.asLongBuffer().put(values);
+
+		double[] doubles = new double[values.length];
+		NumericType.UINT64.toDoubles(doubles, 0).put(buffer, 0, values.length);
+		for (int i = 0; i < values.length; i++) {
+			double expected = new BigInteger(Long.toUnsignedString(values[i])).doubleValue();
+			assertThat(doubles[i], is(equalTo(expected)));
+		}
+
+		// Values above Long.MAX_VALUE cannot be held in a long
+		buffer.position(0);
+		long[] longs = new long[values.length];
+		assertThrows(HdfTypeException.class, () -> NumericType.UINT64.toLongs(longs, 0).put(buffer, 0, values.length));
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset;
+
+import io.jhdf.HdfFile;
+import io.jhdf.api.Dataset;
+import io.jhdf.exceptions.HdfException;
+import io.jhdf.exceptions.HdfTypeException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.function.Executable;
+
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static io.jhdf.TestUtils.loadTestHdfFile;
+import static io.jhdf.TestUtils.loadTestHdfFileWithUnwrittenChunk;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.DynamicContainer.dynamicContainer;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class ReadIntoDatasetTest {
+
+	private static final String HDF5_TEST_FILE_NAME = "test_file2.hdf5";
+	private static final String CHUNKED_HDF5_TEST_FILE_NAME = "test_chunked_datasets_latest.hdf5";
+	private static final String COMPRESSED_HDF5_TEST_FILE_NAME = "test_compressed_chunked_datasets_earliest.hdf5";
+	private static final String CHUNKED_V4_HDF5_TEST_FILE_NAME = "chunked_v4_datasets.hdf5";
+	private static final String SCALAR_HDF5_TEST_FILE_NAME = "test_scalar_empty_datasets_latest.hdf5";
+
+	/** Extra elements at each end of the destination to check only the expected region is written */
+	private static final int PADDING = 3;
+
+	private static HdfFile hdfFile;
+	private static HdfFile chunkedHdfFile;
+	private static HdfFile compressedHdfFile;
+	private static HdfFile chunkedV4HdfFile;
+	private static HdfFile scalarHdfFile;
+
+	@BeforeAll
+	static void setup() throws Exception {
+		hdfFile = loadTestHdfFile(HDF5_TEST_FILE_NAME);
+		chunkedHdfFile = loadTestHdfFile(CHUNKED_HDF5_TEST_FILE_NAME);
+		compressedHdfFile = loadTestHdfFile(COMPRESSED_HDF5_TEST_FILE_NAME);
+		chunkedV4HdfFile = loadTestHdfFile(CHUNKED_V4_HDF5_TEST_FILE_NAME);
+		scalarHdfFile = loadTestHdfFile(SCALAR_HDF5_TEST_FILE_NAME);
+	}
+
+	@AfterAll
+	static void tearDown() {
+		hdfFile.close();
+		chunkedHdfFile.close();
+		compressedHdfFile.close();
+		chunkedV4HdfFile.close();
+		scalarHdfFile.close();
+	}
+
+	@TestFactory
+	Collection<DynamicNode> readIntoTests() {
+		return Arrays.asList(
+				dynamicContainer(HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float32", createTest(hdfFile, "/nD_Datasets/3D_float32")),
+						dynamicTest("int32", createTest(hdfFile, "/nD_Datasets/3D_int32")),
+						dynamicTest("int8", createTest(hdfFile, "/datasets_group/int/int8")),
+						dynamicTest("int16", createTest(hdfFile, "/datasets_group/int/int16")),
+						dynamicTest("float64", createTest(hdfFile, "/datasets_group/float/float64")))),
+
+				dynamicContainer(CHUNKED_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float32", createTest(chunkedHdfFile, "/float/float32")),
+						dynamicTest("float64", createTest(chunkedHdfFile, "/float/float64")),
+						dynamicTest("int8", createTest(chunkedHdfFile, "/int/int8")),
+						dynamicTest("int16", createTest(chunkedHdfFile, "/int/int16")),
+						dynamicTest("int32", createTest(chunkedHdfFile, "/int/int32")))),
+
+				dynamicContainer(COMPRESSED_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float32", createTest(compressedHdfFile, "/float/float32")),
+						dynamicTest("float64", createTest(compressedHdfFile, "/float/float64")),
+						dynamicTest("int16", createTest(compressedHdfFile, "/int/int16")))),
+
+				dynamicContainer(CHUNKED_V4_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("filtered_fixed_array", createTest(chunkedV4HdfFile, "/filtered_fixed_array/float32")),
+						dynamicTest("extensible_array_large", createTest(chunkedV4HdfFile, "/extensible_array/large_int16")),
+						dynamicTest("btree_v2", createTest(chunkedV4HdfFile, "/btree_v2/large_int16")))),
+
+				dynamicContainer(SCALAR_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("int8", createTest(scalarHdfFile, "/scalar_int_8")),
+						dynamicTest("int64", createTest(scalarHdfFile, "/scalar_int_64")),
+						dynamicTest("float64", createTest(scalarHdfFile, "/scalar_float_64"))))
+		);
+	}
+
+	private Executable createTest(HdfFile file, String datasetPath) {
+		return () -> {
+			Dataset dataset = file.getDatasetByPath(datasetPath);
+			Object expected = dataset.getDataFlat();
+			int size = Array.getLength(expected);
+
+			// Read into the middle of a larger array, twice to check the array is reused
+			Object destination = Array.newInstance(expected.getClass().getComponentType(), size + 2 * PADDING);
+			for (int i = 0; i < 2; i++) {
+				readInto(dataset, destination, PADDING);
+				for (int j = 0; j < size; j++) {
+					assertThat(Array.get(destination, PADDING + j), is(equalTo(Array.get(expected, j))));
+				}
+				for (int j = 0; j < PADDING; j++) {
+					assertThat(((Number) Array.get(destination, j)).intValue(), is(equalTo(0)));
+					assertThat(((Number) Array.get(destination, PADDING + size + j)).intValue(), is(equalTo(0)));
+				}
+			}
+
+			// Raw bytes into a direct buffer
+			ByteBuffer buffer = ByteBuffer.allocateDirect((int) dataset.getDiskSize() + PADDING);
+			buffer.position(PADDING);
+			dataset.readInto(buffer);
+			assertThat(buffer.position(), is(equalTo(buffer.capacity())));
+			buffer.position(PADDING);
+			assertThat(buffer.slice(), is(equalTo(((DatasetBase) dataset).getDataBuffer())));
+		};
+	}
+
+	private void readInto(Dataset dataset, Object destination, int offset) {
+		if (destination instanceof byte[]) {
+			dataset.readInto((byte[]) destination, offset);
+		} else if (destination instanceof short[]) {
+			dataset.readInto((short[]) destination, offset);
+		} else if (destination instanceof int[]) {
+			dataset.readInto((int[]) destination, offset);
+		} else if (destination instanceof long[]) {
+			dataset.readInto((long[]) destination, offset);
+		} else if (destination instanceof float[]) {
+			dataset.readInto((float[]) destination, offset);
+		} else {
+			dataset.readInto((double[]) destination, offset);
+		}
+	}
+
+	@Test
+	void testReadIntoOverwritesUnwrittenChunks() throws Exception {
+		// 5 x 3 of 0 to 14 in chunks of 2 x 3, with the chunk of rows 2 and 3 not written
+		try (HdfFile sparseHdfFile = loadTestHdfFileWithUnwrittenChunk(CHUNKED_V4_HDF5_TEST_FILE_NAME,
+				"/fixed_array/int8", 2, 0)) {
+			Dataset dataset = sparseHdfFile.getDatasetByPath("/fixed_array/int8");
+			byte[] expected = new byte[]{0, 1, 2, 3, 4, 5, 0, 0, 0, 0, 0, 0, 12, 13, 14};
+
+			byte[] destination = new byte[expected.length];
+			Arrays.fill(destination, (byte) 99);
+			dataset.readInto(destination, 0);
+			assertThat(destination, is(equalTo(expected)));
+
+			ByteBuffer buffer = ByteBuffer.allocateDirect(expected.length);
+			for (int i = 0; i < expected.length; i++) {
+				buffer.put(i, (byte) 99);
+			}
+			dataset.readInto(buffer);
+			buffer.flip();
+			assertThat(buffer, is(equalTo(ByteBuffer.wrap(expected))));
+		}
+	}
+
+	@Test
+	void testReadIntoWrongTypeThrows() {
+		Dataset dataset = chunkedHdfFile.getDatasetByPath("/float/float32");
+		assertThrows(HdfTypeException.class, () -> dataset.readInto(new double[(int) dataset.getSize()], 0));
+		assertThrows(HdfTypeException.class, () -> dataset.readInto(new int[(int) dataset.getSize()], 0));
+	}
+
+	@Test
+	void testReadIntoUnsignedThrows() {
+		// uint16 is held in an int[] but the element size does not match
+		Dataset dataset = scalarHdfFile.getDatasetByPath("/scalar_uint_16");
+		assertThrows(HdfTypeException.class, () -> dataset.readInto(new int[(int) dataset.getSize()], 0));
+	}
+
+	@Test
+	void testReadIntoTooSmallThrows() {
+		Dataset dataset = chunkedHdfFile.getDatasetByPath("/float/float64");
+		int size = (int) dataset.getSize();
+		assertThrows(HdfException.class, () -> dataset.readInto(new double[size - 1], 0));
+		assertThrows(HdfException.class, () -> dataset.readInto(new double[size], 1));
+		assertThrows(HdfException.class, () -> dataset.readInto(new double[size], -1));
+		assertThrows(HdfException.class, () -> dataset.readInto(ByteBuffer.allocate((int) dataset.getDiskSize() - 1)));
+	}
+}
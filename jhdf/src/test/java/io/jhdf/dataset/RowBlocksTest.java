@@ -0,0 +1,132 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset;
+
+import io.jhdf.HdfFile;
+import io.jhdf.api.Dataset;
+import io.jhdf.exceptions.HdfException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static io.jhdf.TestUtils.flatten;
+import static io.jhdf.TestUtils.getDimensions;
+import static io.jhdf.TestUtils.loadTestHdfFile;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.DynamicContainer.dynamicContainer;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class RowBlocksTest {
+
+	private static final String HDF5_TEST_FILE_NAME = "test_file.hdf5";
+	private static final String CHUNKED_HDF5_TEST_FILE_NAME = "test_chunked_datasets_latest.hdf5";
+	private static final String COMPRESSED_HDF5_TEST_FILE_NAME = "test_compressed_chunked_datasets_earliest.hdf5";
+	private static final String CHUNKED_V4_HDF5_TEST_FILE_NAME = "chunked_v4_datasets.hdf5";
+	private static final String SCALAR_HDF5_TEST_FILE_NAME = "test_scalar_empty_datasets_latest.hdf5";
+
+	private static HdfFile hdfFile;
+	private static HdfFile chunkedHdfFile;
+	private static HdfFile compressedHdfFile;
+	private static HdfFile chunkedV4HdfFile;
+	private static HdfFile scalarHdfFile;
+
+	@BeforeAll
+	static void setup() throws Exception {
+		hdfFile = loadTestHdfFile(HDF5_TEST_FILE_NAME);
+		chunkedHdfFile = loadTestHdfFile(CHUNKED_HDF5_TEST_FILE_NAME);
+		compressedHdfFile = loadTestHdfFile(COMPRESSED_HDF5_TEST_FILE_NAME);
+		chunkedV4HdfFile = loadTestHdfFile(CHUNKED_V4_HDF5_TEST_FILE_NAME);
+		scalarHdfFile = loadTestHdfFile(SCALAR_HDF5_TEST_FILE_NAME);
+	}
+
+	@AfterAll
+	static void tearDown() {
+		hdfFile.close();
+		chunkedHdfFile.close();
+		compressedHdfFile.close();
+		chunkedV4HdfFile.close();
+		scalarHdfFile.close();
+	}
+
+	@TestFactory
+	Collection<DynamicNode> rowBlocksTests() {
+		return Arrays.asList(
+				dynamicContainer(HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("3D_float32 1 row", createTest(hdfFile, "/nD_Datasets/3D_float32", 1)),
+						dynamicTest("3D_int32 all rows", createTest(hdfFile, "/nD_Datasets/3D_int32", 2)),
+						dynamicTest("int8 3 rows", createTest(hdfFile, "/datasets_group/int/int8", 3)),
+						dynamicTest("float64 more rows", createTest(hdfFile, "/datasets_group/float/float64", 100)))),
+
+				dynamicContainer(CHUNKED_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float32 1 row", createTest(chunkedHdfFile, "/float/float32", 1)),
+						dynamicTest("float64 2 rows", createTest(chunkedHdfFile, "/float/float64", 2)),
+						dynamicTest("int32 3 rows", createTest(chunkedHdfFile, "/int/int32", 3)))),
+
+				dynamicContainer(COMPRESSED_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("float32 2 rows", createTest(compressedHdfFile, "/float/float32", 2)),
+						dynamicTest("int16 4 rows", createTest(compressedHdfFile, "/int/int16", 4)))),
+
+				dynamicContainer(CHUNKED_V4_HDF5_TEST_FILE_NAME, Arrays.asList(
+						dynamicTest("extensible_array 7 rows", createTest(chunkedV4HdfFile, "/extensible_array/large_int16", 7)),
+						dynamicTest("btree_v2 64 rows", createTest(chunkedV4HdfFile, "/filtered_btree_v2/large_int16", 64)),
+						dynamicTest("fixed_array string 2 rows", createTest(chunkedV4HdfFile, "/fixed_array/string", 2))))
+		);
+	}
+
+	private Executable createTest(HdfFile file, String datasetPath, int rowsPerBlock) {
+		return () -> {
+			Dataset dataset = file.getDatasetByPath(datasetPath);
+			int[] dimensions = dataset.getDimensions();
+			Object[] expected = flatten(dataset.getData());
+			int rowSize = expected.length / dimensions[0];
+
+			Iterator<Object> blocks = dataset.rowBlocks(rowsPerBlock);
+			int row = 0;
+			while (blocks.hasNext()) {
+				Object block = blocks.next();
+				int[] blockDimensions = getDimensions(block);
+				int expectedRows = Math.min(rowsPerBlock, dimensions[0] - row);
+				assertThat(blockDimensions[0], is(equalTo(expectedRows)));
+				assertThat(Arrays.copyOfRange(blockDimensions, 1, blockDimensions.length),
+						is(equalTo(Arrays.copyOfRange(dimensions, 1, dimensions.length))));
+
+				Object[] expectedBlock = Arrays.copyOfRange(expected, row * rowSize, (row + expectedRows) * rowSize);
+				assertThat(flatten(block), is(equalTo(expectedBlock)));
+				row += expectedRows;
+			}
+			assertThat(row, is(equalTo(dimensions[0])));
+			assertThrows(NoSuchElementException.class, blocks::next);
+		};
+	}
+
+	@Test
+	void testScalarDatasetThrows() {
+		Dataset dataset = scalarHdfFile.getDatasetByPath("/scalar_int_8");
+		assertThrows(HdfException.class, () -> dataset.rowBlocks(1));
+	}
+
+	@Test
+	void testInvalidRowsPerBlockThrows() {
+		Dataset dataset = chunkedHdfFile.getDatasetByPath("/int/int32");
+		assertThrows(HdfException.class, () -> dataset.rowBlocks(0));
+		assertThrows(HdfException.class, () -> dataset.rowBlocks(-1));
+	}
+}
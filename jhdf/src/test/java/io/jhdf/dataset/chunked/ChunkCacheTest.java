@@ -0,0 +1,130 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked;
+
+import io.jhdf.HdfFile;
+import io.jhdf.api.Dataset;
+import io.jhdf.exceptions.HdfException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ReadOnlyBufferException;
+
+import static io.jhdf.TestUtils.loadTestHdfFile;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChunkCacheTest {
+
+    private static final String COMPRESSED_HDF5_TEST_FILE_NAME = "test_compressed_chunked_datasets_earliest.hdf5";
+
+    @Test
+    void testDisabledByDefault() {
+        ChunkCache cache = new ChunkCache();
+        assertThat(cache.getBudget(), is(equalTo(0L)));
+
+        cache.put(1, new byte[10]);
+        assertThat(cache.get(1), is(nullValue()));
+        assertThat(cache.getSize(), is(equalTo(0L)));
+        assertThat(cache.getMissCount(), is(equalTo(0L)));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEviction() {
+        ChunkCache cache = new ChunkCache();
+        cache.setBudget(30);
+
+        byte[] first = new byte[10];
+        byte[] second = new byte[10];
+        byte[] third = new byte[10];
+        cache.put(1, first);
+        cache.put(2, second);
+        cache.put(3, third);
+        assertThat(cache.getSize(), is(equalTo(30L)));
+
+        // Use the first so the second is the least recently used
+        assertThat(cache.get(1), is(sameInstance(first)));
+        cache.put(4, new byte[10]);
+
+        assertThat(cache.get(2), is(nullValue()));
+        assertThat(cache.get(1), is(sameInstance(first)));
+        assertThat(cache.get(3), is(sameInstance(third)));
+        assertThat(cache.get(4), is(notNullValue()));
+        assertThat(cache.getSize(), is(equalTo(30L)));
+        assertThat(cache.getHitCount(), is(equalTo(4L)));
+        assertThat(cache.getMissCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    void testChunkLargerThanBudgetNotCached() {
+        ChunkCache cache = new ChunkCache();
+        cache.setBudget(10);
+        cache.put(1, new byte[11]);
+        assertThat(cache.get(1), is(nullValue()));
+        assertThat(cache.getSize(), is(equalTo(0L)));
+    }
+
+    @Test
+    void testReducingBudgetEvicts() {
+        ChunkCache cache = new ChunkCache();
+        cache.setBudget(100);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, new byte[10]);
+        }
+        cache.setBudget(25);
+        assertThat(cache.getSize(), is(equalTo(20L)));
+        assertThat(cache.get(9), is(notNullValue()));
+        assertThat(cache.get(0), is(nullValue()));
+
+        cache.clear();
+        assertThat(cache.getSize(), is(equalTo(0L)));
+        assertThat(cache.get(9), is(nullValue()));
+    }
+
+    @Test
+    void testNegativeBudgetThrows() {
+        ChunkCache cache = new ChunkCache();
+        assertThrows(HdfException.class, () -> cache.setBudget(-1));
+    }
+
+    @Test
+    void testRepeatedReadsUseCache() throws Exception {
+        try (HdfFile hdfFile = loadTestHdfFile(COMPRESSED_HDF5_TEST_FILE_NAME)) {
+            Dataset dataset = hdfFile.getDatasetByPath("/float/float32");
+            Object expected = dataset.getData();
+
+            ChunkCache cache = hdfFile.getChunkCache();
+            cache.setBudget(1024 * 1024);
+            assertThat(dataset.getData(), is(equalTo(expected)));
+            long misses = cache.getMissCount();
+            assertThat(misses, is(greaterThan(0L)));
+            assertThat(cache.getHitCount(), is(equalTo(0L)));
+
+            // Every chunk should now be cached
+            assertThat(dataset.getData(), is(equalTo(expected)));
+            float[][] expectedArray = (float[][]) expected;
+            assertThat(dataset.getData(new long[]{1, 1}, new int[]{2, 2}), is(equalTo(new float[][]{
+                    {expectedArray[1][1], expectedArray[1][2]}, {expectedArray[2][1], expectedArray[2][2]}})));
+            assertThat(cache.getMissCount(), is(equalTo(misses)));
+            assertThat(cache.getHitCount(), is(greaterThan(0L)));
+            assertThat(cache.getSize(), is(lessThanOrEqualTo(cache.getBudget())));
+
+            // Decoded chunks are shared with the cache so must not be writable
+            DecodedChunk chunk = ((ChunkedDatasetBase) dataset).chunks().findFirst().orElseThrow(AssertionError::new);
+            assertThrows(ReadOnlyBufferException.class, () -> chunk.getBuffer().put(0, (byte) 1));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked;
+
+import io.jhdf.HdfFile;
+import io.jhdf.dataset.chunked.indexing.ChunkIndex;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicNode;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+import static io.jhdf.TestUtils.loadTestHdfFile;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.DynamicContainer.dynamicContainer;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class ChunkIndexCachingTest {
+
+    private static final String CHUNKED_HDF5_TEST_FILE_NAME = "test_chunked_datasets_earliest.hdf5";
+    private static final String CHUNKED_V4_HDF5_TEST_FILE_NAME = "chunked_v4_datasets.hdf5";
+
+    private static HdfFile chunkedHdfFile;
+    private static HdfFile chunkedV4HdfFile;
+
+    @BeforeAll
+    static void setup() throws Exception {
+        chunkedHdfFile = loadTestHdfFile(CHUNKED_HDF5_TEST_FILE_NAME);
+        chunkedV4HdfFile = loadTestHdfFile(CHUNKED_V4_HDF5_TEST_FILE_NAME);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        chunkedHdfFile.close();
+        chunkedV4HdfFile.close();
+    }
+
+    @TestFactory
+    Collection<DynamicNode> chunkIndexTests() {
+        return Arrays.asList(
+                dynamicContainer(CHUNKED_HDF5_TEST_FILE_NAME, Arrays.asList(
+                        dynamicTest("btree_v1", createTest(chunkedHdfFile, "/int/int32")))),
+
+                dynamicContainer(CHUNKED_V4_HDF5_TEST_FILE_NAME, Arrays.asList(
+                        dynamicTest("single_chunk", createTest(chunkedV4HdfFile, "/single_chunk/int8")),
+                        dynamicTest("fixed_array", createTest(chunkedV4HdfFile, "/fixed_array/int16")),
+                        dynamicTest("extensible_array", createTest(chunkedV4HdfFile, "/extensible_array/large_int16")),
+                        dynamicTest("btree_v2", createTest(chunkedV4HdfFile, "/btree_v2/large_int16"))))
+        );
+    }
+
+    private Executable createTest(HdfFile file, String datasetPath) {
+        return () -> {
+            ChunkedDatasetBase dataset = (ChunkedDatasetBase) file.getDatasetByPath(datasetPath);
+            Object expected = dataset.getData();
+
+            // The index is read once then shared by all reads, including concurrent ones
+            ChunkIndex chunkIndex = dataset.lazyChunkIndex.get();
+            Collection<Chunk> chunks = dataset.getAllChunks();
+            IntStream.range(0, 8).parallel().forEach(i -> {
+                assertThat(dataset.getData(), is(equalTo(expected)));
+                assertThat(dataset.getAllChunks(), is(equalTo(chunks)));
+            });
+            assertThat(dataset.lazyChunkIndex.get(), is(sameInstance(chunkIndex)));
+
+            // Shared so must not be modifiable
+            assertThrows(UnsupportedOperationException.class, chunks::clear);
+        };
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked;
+
+import io.jhdf.HdfFile;
+import io.jhdf.dataset.chunked.indexing.ChunkTable;
+import io.jhdf.exceptions.HdfException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static io.jhdf.TestUtils.loadTestHdfFile;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChunkPipelineTest {
+
+    private static final String COMPRESSED_HDF5_TEST_FILE_NAME = "test_compressed_chunked_datasets_earliest.hdf5";
+    private static final int THREADS = 4;
+
+    private static List<Chunk> createChunks(int numberOfChunks) {
+        ChunkTable chunkTable = new ChunkTable(1, numberOfChunks);
+        for (int i = 0; i < numberOfChunks; i++) {
+            chunkTable.add(i, 1, 0, new long[]{i});
+        }
+        return chunkTable;
+    }
+
+    @Test
+    void testFetchesInOrderAndProcessesEveryChunkOnce() {
+        List<Chunk> chunks = createChunks(500);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Long> fetchOrder = new ArrayList<>();
+            AtomicIntegerArray processed = new AtomicIntegerArray(chunks.size());
+            AtomicInteger inFlight = new AtomicInteger();
+            AtomicInteger maxInFlight = new AtomicInteger();
+
+            ChunkPipeline.run(chunks, chunk -> {
+                // Only one thread fetches at a time so this list doesn't need to be synchronized
+                fetchOrder.add(chunk.getAddress());
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                return chunk.getAddress();
+            }, (chunk, address) -> {
+                assertThat(address, is(equalTo(chunk.getAddress())));
+                processed.incrementAndGet((int) chunk.getAddress());
+                inFlight.decrementAndGet();
+            }, executor);
+
+            for (int i = 0; i < chunks.size(); i++) {
+                assertThat(fetchOrder.get(i), is(equalTo((long) i)));
+                assertThat(processed.get(i), is(equalTo(1)));
+            }
+            // The memory used is bounded by limiting the chunks fetched but not processed
+            assertThat(maxInFlight.get(), is(lessThanOrEqualTo(2 * THREADS)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testSequentialExecutor() {
+        List<Chunk> chunks = createChunks(20);
+        Map<Thread, Boolean> threads = new ConcurrentHashMap<>();
+        AtomicInteger processed = new AtomicInteger();
+        ChunkPipeline.run(chunks, chunk -> threads.put(Thread.currentThread(), true),
+                (chunk, fetched) -> processed.incrementAndGet(), Runnable::run);
+        assertThat(processed.get(), is(equalTo(20)));
+        assertThat(threads.keySet(), is(equalTo(Collections.singleton(Thread.currentThread()))));
+    }
+
+    @Test
+    void testNoChunks() {
+        ChunkPipeline.run(createChunks(0), chunk -> chunk, (chunk, fetched) -> {
+            throw new AssertionError("No chunks to process");
+        }, Runnable::run);
+    }
+
+    @Test
+    void testFetchFailurePropagated() {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            assertThrows(HdfException.class, () -> ChunkPipeline.run(createChunks(100), chunk -> {
+                if (chunk.getAddress() == 50) {
+                    throw new HdfException("Failed to read");
+                }
+                return chunk;
+            }, (chunk, fetched) -> {
+            }, executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testProcessFailurePropagated() {
+        // Parallelism is set explicitly, so the processors run in parallel even on a single CPU
+        ExecutorService executor = new ForkJoinPool(THREADS);
+        try {
+            AtomicInteger running = new AtomicInteger();
+            assertThrows(HdfException.class, () -> ChunkPipeline.run(createChunks(100), chunk -> chunk,
+                    (chunk, fetched) -> {
+                        if (chunk.getAddress() == 50) {
+                            throw new HdfException("Failed to decode");
+                        }
+                        running.incrementAndGet();
+                        try {
+                            // Slow, so other threads are still processing when the failure happens
+                            Thread.sleep(20);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            running.decrementAndGet();
+                        }
+                    }, executor));
+            // No processor is still writing to the output after the failure is thrown
+            assertThat(running.get(), is(equalTo(0)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testForEachChunkMatchesChunksStream() throws Exception {
+        try (HdfFile hdfFile = loadTestHdfFile(COMPRESSED_HDF5_TEST_FILE_NAME)) {
+            ChunkedDatasetBase dataset = (ChunkedDatasetBase) hdfFile.getDatasetByPath("/float/float32");
+
+            Map<String, Object> expected = new ConcurrentHashMap<>();
+            dataset.chunks().forEach(chunk -> expected.put(Arrays.toString(chunk.getChunkOffset()), chunk.getData()));
+
+            Map<String, Object> actual = new ConcurrentHashMap<>();
+            AtomicInteger concurrentCalls = new AtomicInteger();
+            dataset.forEachChunk(chunk -> {
+                // The consumer is never called concurrently
+                assertThat(concurrentCalls.incrementAndGet(), is(equalTo(1)));
+                actual.put(Arrays.toString(chunk.getChunkOffset()), chunk.getData());
+                concurrentCalls.decrementAndGet();
+            });
+
+            assertThat(actual.keySet(), is(equalTo(expected.keySet())));
+            for (String chunkOffset : expected.keySet()) {
+                assertThat(actual.get(chunkOffset), is(equalTo(expected.get(chunkOffset))));
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked;
+
+import io.jhdf.HdfFile;
+import io.jhdf.HdfFileChannel;
+import io.jhdf.Superblock;
+import io.jhdf.dataset.chunked.indexing.ChunkTable;
+import io.jhdf.exceptions.HdfException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static io.jhdf.TestUtils.loadTestHdfFile;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChunkReadPlanTest {
+
+    private static final String HDF5_TEST_FILE_NAME = "test_chunked_datasets_earliest.hdf5";
+    private static final String COMPRESSED_HDF5_TEST_FILE_NAME = "test_compressed_chunked_datasets_earliest.hdf5";
+
+    private static ChunkTable createChunks(long[] addresses, int size) {
+        ChunkTable chunkTable = new ChunkTable(1, addresses.length);
+        for (int i = 0; i < addresses.length; i++) {
+            chunkTable.add(addresses[i], size, 0, new long[]{i});
+        }
+        return chunkTable;
+    }
+
+    @Test
+    void testChunksSortedByAddress() {
+        ChunkReadPlan readPlan = new ChunkReadPlan(createChunks(new long[]{300, 100, 200, 0}, 100), 0);
+        List<Long> addresses = readPlan.getChunks().stream().map(Chunk::getAddress).collect(toList());
+        assertThat(addresses, contains(0L, 100L, 200L, 300L));
+    }
+
+    @Test
+    void testAdjacentChunksMerged() {
+        ChunkReadPlan readPlan = new ChunkReadPlan(createChunks(new long[]{300, 100, 200, 0}, 100), 0);
+        assertThat(readPlan.getNumberOfReads(), is(equalTo(1)));
+    }
+
+    @Test
+    void testChunksWithinGapMerged() {
+        // Gaps of 50 bytes between the first three chunks then a gap of 1000
+        ChunkTable chunks = createChunks(new long[]{0, 150, 300, 1400}, 100);
+        assertThat(new ChunkReadPlan(chunks, 0).getNumberOfReads(), is(equalTo(4)));
+        assertThat(new ChunkReadPlan(chunks, 49).getNumberOfReads(), is(equalTo(4)));
+        assertThat(new ChunkReadPlan(chunks, 50).getNumberOfReads(), is(equalTo(2)));
+        assertThat(new ChunkReadPlan(chunks, 1000).getNumberOfReads(), is(equalTo(1)));
+    }
+
+    @Test
+    void testReadSizeLimited() {
+        int chunkSize = ChunkReadPlan.MAX_READ_SIZE / 4;
+        long[] addresses = new long[10];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = (long) i * chunkSize;
+        }
+        // All adjacent but only 4 fit in a read
+        ChunkReadPlan readPlan = new ChunkReadPlan(createChunks(addresses, chunkSize), 0);
+        assertThat(readPlan.getNumberOfReads(), is(equalTo(3)));
+    }
+
+    @Test
+    void testNoChunks() {
+        ChunkReadPlan readPlan = new ChunkReadPlan(createChunks(new long[0], 100), 0);
+        assertThat(readPlan.getNumberOfReads(), is(equalTo(0)));
+        assertThat(readPlan.getChunks().isEmpty(), is(true));
+    }
+
+    @Test
+    void testReaderReturnsSameBytesAsSeparateReads() throws Exception {
+        try (HdfFile hdfFile = loadTestHdfFile(HDF5_TEST_FILE_NAME);
+             FileChannel fc = FileChannel.open(hdfFile.getFile().toPath(), StandardOpenOption.READ)) {
+            ChunkedDatasetBase dataset = (ChunkedDatasetBase) hdfFile.getDatasetByPath("/int/int32");
+            HdfFileChannel hdfFc = new HdfFileChannel(fc, Superblock.readSuperblock(fc, 0));
+
+            // A large gap so chunks are merged, even if they are not adjacent
+            ChunkReadPlan readPlan = new ChunkReadPlan(dataset.getAllChunks(), 1024 * 1024);
+            assertThat(readPlan.getNumberOfReads(), is(lessThan(readPlan.getChunks().size())));
+
+            ChunkReadPlan.Reader reader = readPlan.reader(hdfFc);
+            for (Chunk chunk : readPlan.getChunks()) {
+                ByteBuffer expected = hdfFc.readBufferFromAddress(chunk.getAddress(), chunk.getSize());
+                assertThat(reader.read(chunk), is(equalTo(expected)));
+            }
+        }
+    }
+
+    @Test
+    void testDatasetReadsWithChunkReadGaps() throws Exception {
+        try (HdfFile hdfFile = loadTestHdfFile(COMPRESSED_HDF5_TEST_FILE_NAME)) {
+            assertThat(hdfFile.getChunkReadGap(), is(equalTo(HdfFileChannel.DEFAULT_CHUNK_READ_GAP)));
+            Object expected = hdfFile.getDatasetByPath("/float/float32").getData();
+
+            hdfFile.setChunkReadGap(0);
+            assertThat(hdfFile.getDatasetByPath("/float/float32").getData(), is(equalTo(expected)));
+
+            hdfFile.setChunkReadGap(Integer.MAX_VALUE);
+            assertThat(hdfFile.getDatasetByPath("/float/float32").getData(), is(equalTo(expected)));
+
+            assertThrows(HdfException.class, () -> hdfFile.setChunkReadGap(-1));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked;
+
+import io.jhdf.HdfFile;
+import io.jhdf.api.Dataset;
+import io.jhdf.exceptions.HdfException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.jhdf.TestUtils.loadTestHdfFile;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChunkTasksTest {
+
+    private static final String COMPRESSED_HDF5_TEST_FILE_NAME = "test_compressed_chunked_datasets_earliest.hdf5";
+
+    private static final List<Integer> ITEMS = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+
+    @Test
+    void testEveryItemProcessedOnce() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            AtomicIntegerArray counts = new AtomicIntegerArray(ITEMS.size());
+            // Uneven costs so the batches are different sizes
+            ChunkTasks.forEach(ITEMS, item -> item % 10 == 0 ? 100 : 1, counts::incrementAndGet, executor);
+            for (int i = 0; i < ITEMS.size(); i++) {
+                assertThat(counts.get(i), is(equalTo(1)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testSequentialExecutorUsesCallingThread() {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        ChunkTasks.forEach(ITEMS, item -> 1, item -> threads.add(Thread.currentThread()), Runnable::run);
+        assertThat(threads, contains(Thread.currentThread()));
+    }
+
+    @Test
+    void testThreadsLimitedByPool() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Set<Thread> threads = ConcurrentHashMap.newKeySet();
+            ChunkTasks.forEach(ITEMS, item -> 1, item -> threads.add(Thread.currentThread()), pool);
+            assertThat(threads.size(), is(lessThanOrEqualTo(2)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testReadFromPoolThreadDoesNotDeadlock() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AtomicIntegerArray counts = new AtomicIntegerArray(ITEMS.size());
+            // The only pool thread is busy running this, so the calling thread must do all the work
+            Future<?> future = executor.submit(() ->
+                    ChunkTasks.forEach(ITEMS, item -> 1, counts::incrementAndGet, executor));
+            future.get();
+            assertThat(counts.get(ITEMS.size() - 1), is(equalTo(1)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testFailurePropagated() {
+        HdfException exception = new HdfException("Failed");
+        HdfException thrown = assertThrows(HdfException.class, () ->
+                ChunkTasks.forEach(ITEMS, item -> 1, item -> {
+                    if (item == 500) {
+                        throw exception;
+                    }
+                }, ForkJoinPool.commonPool()));
+        assertThat(thrown, is(sameInstance(exception)));
+    }
+
+    @Test
+    void testDatasetReadsWithExecutors() throws Exception {
+        try (HdfFile hdfFile = loadTestHdfFile(COMPRESSED_HDF5_TEST_FILE_NAME)) {
+            Dataset dataset = hdfFile.getDatasetByPath("/float/float32");
+            Object expected = dataset.getData();
+            assertThat(hdfFile.getExecutor(), is(sameInstance(ForkJoinPool.commonPool())));
+
+            hdfFile.setExecutor(Runnable::run);
+            assertThat(dataset.getData(), is(equalTo(expected)));
+
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                ChunkedDatasetBase chunkedDataset = (ChunkedDatasetBase) dataset;
+                chunkedDataset.setExecutor(executor);
+                assertThat(chunkedDataset.getExecutor(), is(sameInstance(executor)));
+                assertThat(dataset.getData(), is(equalTo(expected)));
+
+                chunkedDataset.setExecutor(null);
+                hdfFile.setExecutor(null);
+                assertThat(chunkedDataset.getExecutor(), is(sameInstance(ForkJoinPool.commonPool())));
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked;
+
+import io.jhdf.HdfFile;
+import io.jhdf.Utils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static io.jhdf.TestUtils.flatten;
+import static io.jhdf.TestUtils.loadTestHdfFile;
+import static io.jhdf.TestUtils.loadTestHdfFileWithUnwrittenChunk;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.DynamicContainer.dynamicContainer;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class ChunksStreamTest {
+
+    private static final String CHUNKED_HDF5_TEST_FILE_NAME = "test_chunked_datasets_earliest.hdf5";
+    private static final String COMPRESSED_HDF5_TEST_FILE_NAME = "test_compressed_chunked_datasets_latest.hdf5";
+    private static final String CHUNKED_V4_HDF5_TEST_FILE_NAME = "chunked_v4_datasets.hdf5";
+
+    private static HdfFile chunkedHdfFile;
+    private static HdfFile compressedHdfFile;
+    private static HdfFile chunkedV4HdfFile;
+
+    @BeforeAll
+    static void setup() throws Exception {
+        chunkedHdfFile = loadTestHdfFile(CHUNKED_HDF5_TEST_FILE_NAME);
+        compressedHdfFile = loadTestHdfFile(COMPRESSED_HDF5_TEST_FILE_NAME);
+        chunkedV4HdfFile = loadTestHdfFile(CHUNKED_V4_HDF5_TEST_FILE_NAME);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        chunkedHdfFile.close();
+        compressedHdfFile.close();
+        chunkedV4HdfFile.close();
+    }
+
+    @TestFactory
+    Collection<DynamicNode> chunksTests() {
+        return Arrays.asList(
+                dynamicContainer(CHUNKED_HDF5_TEST_FILE_NAME, Arrays.asList(
+                        dynamicTest("float32", createTest(chunkedHdfFile, "/float/float32")),
+                        dynamicTest("float64", createTest(chunkedHdfFile, "/float/float64")),
+                        dynamicTest("int8", createTest(chunkedHdfFile, "/int/int8")),
+                        dynamicTest("int16", createTest(chunkedHdfFile, "/int/int16")),
+                        dynamicTest("int32", createTest(chunkedHdfFile, "/int/int32")))),
+
+                dynamicContainer(COMPRESSED_HDF5_TEST_FILE_NAME, Arrays.asList(
+                        dynamicTest("float32", createTest(compressedHdfFile, "/float/float32")),
+                        dynamicTest("int16", createTest(compressedHdfFile, "/int/int16")))),
+
+                dynamicContainer(CHUNKED_V4_HDF5_TEST_FILE_NAME, Arrays.asList(
+                        dynamicTest("single_chunk", createTest(chunkedV4HdfFile, "/single_chunk/int8")),
+                        dynamicTest("fixed_array_string", createTest(chunkedV4HdfFile, "/fixed_array/string")),
+                        dynamicTest("filtered_fixed_array", createTest(chunkedV4HdfFile, "/filtered_fixed_array/float32")),
+                        dynamicTest("extensible_array_large", createTest(chunkedV4HdfFile, "/extensible_array/large_int16")),
+                        dynamicTest("btree_v2", createTest(chunkedV4HdfFile, "/btree_v2/large_int16"))))
+        );
+    }
+
+    private Executable createTest(HdfFile file, String datasetPath) {
+        return () -> {
+            ChunkedDatasetBase dataset = (ChunkedDatasetBase) file.getDatasetByPath(datasetPath);
+            long[] datasetDimensions = dataset.getLongDimensions();
+            Object[] expected = flatten(dataset.getData());
+
+            // Decode in parallel and check every valid element is in the right place in the dataset
+            List<DecodedChunk> chunks = dataset.chunks().parallel().collect(toList());
+            long elements = 0;
+            for (DecodedChunk chunk : chunks) {
+                int[] dimensions = chunk.getDimensions();
+                long[] chunkOffset = chunk.getChunkOffset();
+                Object[] chunkData = flatten(chunk.getData());
+                assertThat(chunkData.length, is(equalTo(Arrays.stream(dimensions).reduce(1, (a, b) -> a * b))));
+
+                for (int i = 0; i < chunkData.length; i++) {
+                    int[] chunkIndex = Utils.linearIndexToDimensionIndex(i, dimensions);
+                    long[] index = new long[chunkIndex.length];
+                    for (int j = 0; j < index.length; j++) {
+                        index[j] = chunkIndex[j] + chunkOffset[j];
+                    }
+                    long datasetIndex = Utils.dimensionIndexToLinearIndex(index, datasetDimensions);
+                    assertThat(chunkData[i], is(equalTo(expected[(int) datasetIndex])));
+                }
+                elements += chunkData.length;
+            }
+            assertThat(elements, is(equalTo(dataset.getSize())));
+        };
+    }
+
+    @Test
+    void testPartialEdgeChunk() {
+        // 7x5x3 dataset with 1x3x2 chunks so the last chunk in each row is only partly inside the dataset
+        ChunkedDatasetBase dataset = (ChunkedDatasetBase) chunkedHdfFile.getDatasetByPath("/int/int32");
+        DecodedChunk edgeChunk = dataset.chunks()
+                .filter(chunk -> Arrays.equals(chunk.getChunkOffset(), new long[]{6, 3, 2}))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+
+        assertThat(edgeChunk.getChunkDimensions(), is(equalTo(new int[]{1, 3, 2})));
+        assertThat(edgeChunk.getDimensions(), is(equalTo(new int[]{1, 2, 1})));
+        // The buffer holds the whole stored chunk
+        assertThat(edgeChunk.getBuffer().remaining(), is(equalTo(6 * Integer.BYTES)));
+        assertThat(edgeChunk.getData(), is(equalTo(new int[][][]{{{101}, {104}}})));
+    }
+
+    @Test
+    void testFixedArrayWithUnwrittenChunk() throws Exception {
+        // 5x3 dataset of 0 to 14 with 2x3 chunks, the chunk of rows 2 and 3 not written
+        try (HdfFile sparseHdfFile = loadTestHdfFileWithUnwrittenChunk(CHUNKED_V4_HDF5_TEST_FILE_NAME,
+                "/fixed_array/int8", 2, 0)) {
+            ChunkedDatasetBase dataset = (ChunkedDatasetBase) sparseHdfFile.getDatasetByPath("/fixed_array/int8");
+
+            List<long[]> chunkOffsets = dataset.chunks().map(DecodedChunk::getChunkOffset).collect(toList());
+            assertThat(chunkOffsets.size(), is(equalTo(2)));
+            assertThat(chunkOffsets.get(0), is(equalTo(new long[]{0, 0})));
+            assertThat(chunkOffsets.get(1), is(equalTo(new long[]{4, 0})));
+
+            List<String> chunkData = new ArrayList<>();
+            dataset.forEachChunk(chunk -> chunkData.add(Arrays.deepToString((Object[]) chunk.getData())));
+            assertThat(chunkData, containsInAnyOrder("[[0, 1, 2], [3, 4, 5]]", "[[12, 13, 14]]"));
+
+            assertThat(dataset.getChunk(2, 0), is(nullValue()));
+            assertThat(dataset.getChunk(4, 2).getChunkOffset(), is(equalTo(new long[]{4, 0})));
+            assertThat(dataset.getData(), is(equalTo(new byte[][]{{0, 1, 2}, {3, 4, 5}, {0, 0, 0}, {0, 0, 0},
+                    {12, 13, 14}})));
+        }
+    }
+}
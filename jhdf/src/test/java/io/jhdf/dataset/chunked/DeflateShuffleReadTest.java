@@ -0,0 +1,54 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked;
+
+import io.jhdf.HdfFile;
+import org.junit.jupiter.api.Test;
+
+import static io.jhdf.TestUtils.loadTestHdfFile;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class DeflateShuffleReadTest {
+
+    private static final String HDF5_TEST_FILE_NAME = "test_byteshuffle_compressed_datasets_earliest.hdf5";
+
+    private static final String[] DATASET_PATHS = {"/float/float32", "/float/float64", "/int/int16", "/int/int32"};
+
+    @Test
+    void testDecodingIntoDestinationMatchesDecodingChunks() throws Exception {
+        for (String path : DATASET_PATHS) {
+            testDataset(path);
+        }
+    }
+
+    private void testDataset(String path) throws Exception {
+        try (HdfFile hdfFile = loadTestHdfFile(HDF5_TEST_FILE_NAME)) {
+            ChunkedDatasetBase dataset = (ChunkedDatasetBase) hdfFile.getDatasetByPath(path);
+            int elementSize = dataset.getDataType().getSize();
+            assertThat(dataset.lazyPipeline.get().isDeflateShuffle(elementSize), is(true));
+
+            // The chunk cache needs the decoded chunks, so enabling it means decoding chunks
+            hdfFile.getChunkCache().setBudget(1024 * 1024);
+            Object expected = dataset.getData();
+            Object expectedSlice = dataset.getData(new long[]{1, 1}, new int[]{5, 3});
+            Object expectedStrided = dataset.getData(new long[]{0, 1}, new long[]{3, 2}, new int[]{3, 2},
+                    new int[]{1, 1});
+
+            // Disabled cache so decoded straight into the destination
+            hdfFile.getChunkCache().setBudget(0);
+            assertThat(dataset.getData(), is(equalTo(expected)));
+            assertThat(dataset.getData(new long[]{1, 1}, new int[]{5, 3}), is(equalTo(expectedSlice)));
+            assertThat(dataset.getData(new long[]{0, 1}, new long[]{3, 2}, new int[]{3, 2}, new int[]{1, 1}),
+                    is(equalTo(expectedStrided)));
+        }
+    }
+}
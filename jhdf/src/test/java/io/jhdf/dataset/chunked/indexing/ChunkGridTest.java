@@ -0,0 +1,57 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked.indexing;
+
+import io.jhdf.Utils;
+import io.jhdf.exceptions.HdfException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChunkGridTest {
+
+    // 7 x 5 x 3 dataset in 1 x 3 x 2 chunks, so the edge chunks are partial
+    private final ChunkGrid chunkGrid = new ChunkGrid(new int[]{1, 3, 2}, new long[]{7, 5, 3});
+
+    @Test
+    void testGridDimensions() {
+        assertThat(chunkGrid.getGridDimensions(), is(equalTo(new long[]{7, 2, 2})));
+        assertThat(chunkGrid.getNumberOfChunks(), is(equalTo(28L)));
+    }
+
+    @Test
+    void testChunkIndexMatchesChunkOffset() {
+        for (long i = 0; i < chunkGrid.getNumberOfChunks(); i++) {
+            final long[] chunkOffset = Arrays.stream(Utils.chunkIndexToChunkOffset((int) i, new int[]{1, 3, 2},
+                    new int[]{7, 5, 3})).asLongStream().toArray();
+            assertThat(chunkGrid.getChunkIndex(chunkOffset), is(equalTo(i)));
+            assertThat(chunkGrid.getChunkIndex(chunkGrid.getChunkGridPosition(chunkOffset)), is(equalTo(i)));
+        }
+    }
+
+    @Test
+    void testChunkGridPosition() {
+        assertThat(chunkGrid.getChunkGridPosition(new long[]{6, 4, 2}), is(equalTo(new int[]{6, 1, 1})));
+        assertThat(chunkGrid.getChunkGridPosition(new long[]{3, 2, 1}), is(equalTo(new int[]{3, 0, 0})));
+    }
+
+    @Test
+    void testOutsideGrid() {
+        assertThat(chunkGrid.getChunkIndex(new long[]{7, 0, 0}), is(equalTo(-1L)));
+        assertThrows(HdfException.class, () -> chunkGrid.getChunkIndex(new int[]{7, 0, 0}));
+        assertThrows(HdfException.class, () -> chunkGrid.getChunkIndex(new int[]{0, -1, 0}));
+        assertThrows(HdfException.class, () -> chunkGrid.getChunkIndex(new int[]{0, 0}));
+    }
+}
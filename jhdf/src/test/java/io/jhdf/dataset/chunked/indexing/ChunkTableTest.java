@@ -0,0 +1,90 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.dataset.chunked.indexing;
+
+import io.jhdf.dataset.chunked.Chunk;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChunkTableTest {
+
+    @Test
+    void testAddAndGet() {
+        ChunkTable chunkTable = new ChunkTable(2, 1);
+        long[] chunkOffset = new long[]{0, 0};
+        chunkTable.add(100, 10, 0, chunkOffset);
+        // The offset is copied so can be reused
+        chunkOffset[1] = 5;
+        chunkTable.add(200, 20, 0b101, chunkOffset);
+
+        assertThat(chunkTable.size(), is(equalTo(2)));
+        Chunk first = chunkTable.get(0);
+        assertThat(first.getAddress(), is(equalTo(100L)));
+        assertThat(first.getSize(), is(equalTo(10)));
+        assertThat(first.getChunkOffset(), is(equalTo(new long[]{0, 0})));
+        assertThat(first.getFilterMask().isEmpty(), is(true));
+        assertThat(first.getFilterMaskBits(), is(equalTo(0)));
+
+        Chunk second = chunkTable.get(1);
+        assertThat(second.getAddress(), is(equalTo(200L)));
+        assertThat(second.getSize(), is(equalTo(20)));
+        assertThat(second.getChunkOffset(), is(equalTo(new long[]{0, 5})));
+        assertThat(second.getFilterMask(), is(equalTo(BitSet.valueOf(new byte[]{0b101}))));
+        assertThat(second.getFilterMaskBits(), is(equalTo(0b101)));
+        // Chunks from elsewhere get the mask from the bit set
+        Chunk chunk = new ChunkImpl(300, 30, new long[]{5, 0}, BitSet.valueOf(new byte[]{0b110}));
+        assertThat(chunk.getFilterMaskBits(), is(equalTo(0b110)));
+        assertThat(chunkTable.getChunkOffset(1, 1), is(equalTo(5L)));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> chunkTable.get(2));
+    }
+
+    @Test
+    void testChunksEqualByAddress() {
+        ChunkTable chunkTable = new ChunkTable(1);
+        chunkTable.add(100, 10, 0, new long[]{0});
+        chunkTable.add(200, 10, 0, new long[]{10});
+
+        assertThat(chunkTable.get(0), is(equalTo(chunkTable.get(0))));
+        assertThat(chunkTable.get(0).hashCode(), is(equalTo(chunkTable.get(0).hashCode())));
+        assertThat(chunkTable.get(0), is(not(equalTo(chunkTable.get(1)))));
+    }
+
+    @Test
+    void testAddAll() {
+        ChunkTable first = new ChunkTable(1);
+        first.add(100, 10, 0, new long[]{0});
+        ChunkTable second = new ChunkTable(1);
+        second.add(200, 20, 1, new long[]{10});
+        second.add(300, 30, 0, new long[]{20});
+
+        ChunkTable all = new ChunkTable(1);
+        all.addAll(first);
+        all.addAll(second);
+        all.add(new ChunkImpl(400, 40, new long[]{30}, BitSet.valueOf(new byte[]{2})));
+        all.trimToSize();
+
+        assertThat(all.size(), is(equalTo(4)));
+        for (int i = 0; i < 4; i++) {
+            assertThat(all.getAddress(i), is(equalTo(100L * (i + 1))));
+            assertThat(all.getChunkSize(i), is(equalTo(10 * (i + 1))));
+            assertThat(all.get(i).getChunkOffset(), is(equalTo(new long[]{10L * i})));
+        }
+        assertThat(all.getFilterMask(1), is(equalTo(1)));
+        assertThat(all.getFilterMask(3), is(equalTo(2)));
+    }
+}
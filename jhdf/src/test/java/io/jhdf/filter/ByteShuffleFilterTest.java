@@ -0,0 +1,93 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class ByteShuffleFilterTest {
+
+	private static final int[] ELEMENT_SIZES = {1, 2, 3, 4, 5, 7, 8, 12, 16};
+	// Includes lengths which are not a multiple of the element sizes, and larger than the unshuffle block
+	private static final int[] LENGTHS = {0, 1, 17, 1000, 100_003};
+
+	private final ByteShuffleFilter filter = new ByteShuffleFilter();
+
+	private static byte[] createData(int length) {
+		byte[] data = new byte[length];
+		new Random(length).nextBytes(data);
+		return data;
+	}
+
+	/**
+	 * Shuffles the data in the same way as the HDF5 library, any bytes after the last whole element are not shuffled.
+	 */
+	private static byte[] shuffle(byte[] data, int elementSize) {
+		byte[] shuffled = data.clone();
+		int elements = data.length / elementSize;
+		for (int i = 0; i < elements; i++) {
+			for (int j = 0; j < elementSize; j++) {
+				shuffled[j * elements + i] = data[i * elementSize + j];
+			}
+		}
+		return shuffled;
+	}
+
+	@Test
+	void testDecodeArrays() {
+		for (int elementSize : ELEMENT_SIZES) {
+			for (int length : LENGTHS) {
+				byte[] data = createData(length);
+				byte[] decoded = filter.decode(shuffle(data, elementSize), new int[]{elementSize});
+				assertThat("Element size " + elementSize + " length " + length, decoded, is(equalTo(data)));
+			}
+		}
+	}
+
+	@Test
+	void testDecodeBuffers() {
+		for (int elementSize : ELEMENT_SIZES) {
+			for (int length : LENGTHS) {
+				byte[] data = createData(length);
+				ByteBuffer decoded = ByteBuffer.allocate(length);
+				filter.decode(ByteBuffer.wrap(shuffle(data, elementSize)), decoded, new int[]{elementSize});
+				assertThat("Element size " + elementSize + " length " + length, decoded.array(), is(equalTo(data)));
+			}
+		}
+	}
+
+	@Test
+	void testUnshuffleRanges() {
+		for (int elementSize : ELEMENT_SIZES) {
+			byte[] data = createData(elementSize * 5000);
+			byte[] shuffled = shuffle(data, elementSize);
+
+			// Unshuffle in uneven ranges into an offset destination
+			byte[] unshuffled = new byte[data.length + 3];
+			int element = 0;
+			for (int rangeSize = 1; element < 5000; rangeSize = rangeSize * 3 + 1) {
+				int elements = Math.min(rangeSize, 5000 - element);
+				ByteShuffleFilter.unshuffle(shuffled, 0, 5000, element, elements, elementSize, unshuffled,
+						3 + element * elementSize);
+				element += elements;
+			}
+
+			for (int i = 0; i < data.length; i++) {
+				assertThat("Element size " + elementSize + " byte " + i, unshuffled[i + 3], is(equalTo(data[i])));
+			}
+		}
+	}
+}
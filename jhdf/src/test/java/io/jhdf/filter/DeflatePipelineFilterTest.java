@@ -0,0 +1,90 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.filter;
+
+import io.jhdf.exceptions.HdfFilterException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DeflatePipelineFilterTest {
+
+	private static final int[] NO_FILTER_DATA = new int[0];
+
+	private static byte[] data;
+	private static byte[] compressedData;
+
+	private final DeflatePipelineFilter filter = new DeflatePipelineFilter();
+
+	@BeforeAll
+	static void setup() {
+		// Partly random so it doesn't compress too well
+		data = new byte[100_000];
+		Random random = new Random(123);
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i % 7 == 0 ? random.nextInt() : i / 100);
+		}
+
+		Deflater deflater = new Deflater();
+		deflater.setInput(data);
+		deflater.finish();
+		byte[] buffer = new byte[data.length * 2];
+		int length = deflater.deflate(buffer);
+		deflater.end();
+		compressedData = Arrays.copyOf(buffer, length);
+	}
+
+	@Test
+	void testDecodeWithoutDecodedLength() {
+		assertThat(filter.decode(compressedData, NO_FILTER_DATA), is(equalTo(data)));
+	}
+
+	@Test
+	void testDecodeWithExactDecodedLength() {
+		assertThat(filter.decode(compressedData, NO_FILTER_DATA, data.length), is(equalTo(data)));
+	}
+
+	@Test
+	void testDecodeWithWrongDecodedLength() {
+		assertThat(filter.decode(compressedData, NO_FILTER_DATA, 0), is(equalTo(data)));
+		assertThat(filter.decode(compressedData, NO_FILTER_DATA, data.length - 1), is(equalTo(data)));
+		assertThat(filter.decode(compressedData, NO_FILTER_DATA, data.length + 1), is(equalTo(data)));
+		assertThat(filter.decode(compressedData, NO_FILTER_DATA, data.length * 3), is(equalTo(data)));
+	}
+
+	@Test
+	void testRepeatedDecodesReuseInflater() {
+		for (int i = 0; i < 10; i++) {
+			assertThat(filter.decode(compressedData, NO_FILTER_DATA, data.length), is(equalTo(data)));
+		}
+	}
+
+	@Test
+	void testTruncatedDataFails() {
+		byte[] truncated = Arrays.copyOf(compressedData, compressedData.length / 2);
+		assertThrows(HdfFilterException.class, () -> filter.decode(truncated, NO_FILTER_DATA, data.length));
+		// A failed decode doesn't break the next one on this thread
+		assertThat(filter.decode(compressedData, NO_FILTER_DATA, data.length), is(equalTo(data)));
+	}
+
+	@Test
+	void testInvalidDataFails() {
+		byte[] invalid = new byte[]{1, 2, 3, 4, 5, 6, 7, 8};
+		assertThrows(HdfFilterException.class, () -> filter.decode(invalid, NO_FILTER_DATA, data.length));
+	}
+}
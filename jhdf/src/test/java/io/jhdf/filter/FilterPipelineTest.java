@@ -0,0 +1,276 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.filter;
+
+import io.jhdf.exceptions.HdfFilterException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FilterPipelineTest {
+
+	private static final int[] NO_FILTER_DATA = new int[0];
+
+	/** A first generation filter which reverses the data */
+	private static final Filter REVERSE_FILTER = new Filter() {
+		@Override
+		public int getId() {
+			return 40000;
+		}
+
+		@Override
+		public String getName() {
+			return "reverse";
+		}
+
+		@Override
+		public byte[] decode(byte[] encodedData, int[] filterData) {
+			byte[] decodedData = new byte[encodedData.length];
+			for (int i = 0; i < encodedData.length; i++) {
+				decodedData[i] = encodedData[encodedData.length - 1 - i];
+			}
+			return decodedData;
+		}
+	};
+
+	/** A first generation filter which returns its input */
+	private static final Filter NO_OP_FILTER = new Filter() {
+		@Override
+		public int getId() {
+			return 40001;
+		}
+
+		@Override
+		public String getName() {
+			return "no-op";
+		}
+
+		@Override
+		public byte[] decode(byte[] encodedData, int[] filterData) {
+			return encodedData;
+		}
+	};
+
+	private static byte[] createData(int length) {
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (byte) (i / 3 + i % 5);
+		}
+		return data;
+	}
+
+	private static byte[] shuffle(byte[] data, int elementSize) {
+		byte[] shuffled = new byte[data.length];
+		int elements = data.length / elementSize;
+		for (int i = 0; i < elements; i++) {
+			for (int j = 0; j < elementSize; j++) {
+				shuffled[j * elements + i] = data[i * elementSize + j];
+			}
+		}
+		return shuffled;
+	}
+
+	private static byte[] deflate(byte[] data) {
+		Deflater deflater = new Deflater();
+		deflater.setInput(data);
+		deflater.finish();
+		byte[] buffer = new byte[data.length * 2 + 64];
+		int length = deflater.deflate(buffer);
+		deflater.end();
+		return Arrays.copyOf(buffer, length);
+	}
+
+	@Test
+	void testShuffleAndDeflate() {
+		byte[] data = createData(4000);
+		FilterPipeline pipeline = new FilterPipeline();
+		pipeline.addFilter(new DeflatePipelineFilter(), NO_FILTER_DATA);
+		pipeline.addFilter(new ByteShuffleFilter(), new int[]{4});
+
+		byte[] encoded = deflate(shuffle(data, 4));
+		assertThat(pipeline.decode(encoded, data.length), is(equalTo(data)));
+		assertThat(pipeline.decode(encoded), is(equalTo(data)));
+	}
+
+	@Test
+	void testDecodeFromDirectBuffer() {
+		byte[] data = createData(4000);
+		FilterPipeline pipeline = new FilterPipeline();
+		pipeline.addFilter(new DeflatePipelineFilter(), NO_FILTER_DATA);
+		pipeline.addFilter(new ByteShuffleFilter(), new int[]{8});
+
+		byte[] encoded = deflate(shuffle(data, 8));
+		ByteBuffer directBuffer = ByteBuffer.allocateDirect(encoded.length + 10);
+		directBuffer.position(10);
+		directBuffer.put(encoded);
+		directBuffer.position(10);
+		assertThat(pipeline.decode(directBuffer, data.length), is(equalTo(data)));
+		// The position of the encoded buffer is not changed
+		assertThat(directBuffer.position(), is(equalTo(10)));
+	}
+
+	@Test
+	void testFirstGenerationFiltersAdapted() {
+		byte[] data = createData(1000);
+		FilterPipeline pipeline = new FilterPipeline();
+		pipeline.addFilter(new DeflatePipelineFilter(), NO_FILTER_DATA);
+		pipeline.addFilter(REVERSE_FILTER, NO_FILTER_DATA);
+		pipeline.addFilter(new ByteShuffleFilter(), new int[]{2});
+
+		byte[] encoded = deflate(REVERSE_FILTER.decode(shuffle(data, 2), NO_FILTER_DATA));
+		assertThat(pipeline.decode(encoded, data.length), is(equalTo(data)));
+	}
+
+	@Test
+	void testResultDoesNotShareScratch() {
+		byte[] data = createData(1000);
+		FilterPipeline pipeline = new FilterPipeline();
+		pipeline.addFilter(new DeflatePipelineFilter(), NO_FILTER_DATA);
+		pipeline.addFilter(new ByteShuffleFilter(), new int[]{4});
+		// Returns its input which is the scratch array
+		pipeline.addFilter(NO_OP_FILTER, NO_FILTER_DATA);
+
+		byte[] encoded = deflate(shuffle(data, 4));
+		byte[] first = pipeline.decode(encoded, data.length);
+		byte[] second = pipeline.decode(encoded, data.length);
+		assertThat(first, is(not(sameInstance(second))));
+		assertThat(first, is(equalTo(data)));
+		assertThat(second, is(equalTo(data)));
+	}
+
+	@Test
+	void testDecodeShuffled() {
+		byte[] data = createData(4000);
+		FilterPipeline pipeline = new FilterPipeline();
+		pipeline.addFilter(new DeflatePipelineFilter(), NO_FILTER_DATA);
+		pipeline.addFilter(new ByteShuffleFilter(), new int[]{4});
+		assertThat(pipeline.isDeflateShuffle(4), is(true));
+		assertThat(pipeline.isDeflateShuffle(8), is(false));
+
+		ShuffledData shuffledData = pipeline.decodeShuffled(ByteBuffer.wrap(deflate(shuffle(data, 4))), data.length);
+		assertThat(shuffledData.getElementSize(), is(equalTo(4)));
+		assertThat(shuffledData.getNumberOfElements(), is(equalTo(1000)));
+
+		// Unshuffle in uneven pieces
+		byte[] unshuffled = new byte[data.length];
+		int element = 0;
+		for (int pieceSize = 1; element < 1000; pieceSize += 7) {
+			int elements = Math.min(pieceSize, 1000 - element);
+			shuffledData.unshuffle(element, elements, unshuffled, element * 4);
+			element += elements;
+		}
+		assertThat(unshuffled, is(equalTo(data)));
+
+		assertThrows(IndexOutOfBoundsException.class, () -> shuffledData.unshuffle(999, 2, new byte[8], 0));
+		assertThrows(IndexOutOfBoundsException.class, () -> shuffledData.unshuffle(0, 2, new byte[7], 0));
+	}
+
+	@Test
+	void testDecodeShuffledWithChecksum() {
+		byte[] data = createData(4000);
+		FilterPipeline pipeline = new FilterPipeline();
+		pipeline.addFilter(new FletcherChecksumFilter(), NO_FILTER_DATA);
+		pipeline.addFilter(new DeflatePipelineFilter(), NO_FILTER_DATA);
+		pipeline.addFilter(new ByteShuffleFilter(), new int[]{4});
+		assertThat(pipeline.isDeflateShuffle(4), is(true));
+
+		byte[] deflated = deflate(shuffle(data, 4));
+		byte[] encoded = Arrays.copyOf(deflated, deflated.length + 4);
+		ByteBuffer.wrap(encoded).order(ByteOrder.LITTLE_ENDIAN)
+				.putInt(deflated.length, FletcherChecksumFilter.fletcher32(deflated, 0, deflated.length));
+
+		ShuffledData shuffledData = pipeline.decodeShuffled(ByteBuffer.wrap(encoded), data.length);
+		byte[] unshuffled = new byte[data.length];
+		shuffledData.unshuffle(0, 1000, unshuffled, 0);
+		assertThat(unshuffled, is(equalTo(data)));
+		assertThat(pipeline.decode(encoded, data.length), is(equalTo(data)));
+
+		encoded[10]++;
+		assertThrows(HdfFilterException.class, () -> pipeline.decodeShuffled(ByteBuffer.wrap(encoded), data.length));
+	}
+
+	@Test
+	void testFilterMaskSkipsFilters() {
+		byte[] data = createData(4000);
+		FilterPipeline pipeline = new FilterPipeline();
+		pipeline.addFilter(new DeflatePipelineFilter(), NO_FILTER_DATA);
+		pipeline.addFilter(new ByteShuffleFilter(), new int[]{4});
+
+		// The mask is in encoding order, shuffle is filter 0 and deflate is filter 1
+		byte[] shuffled = shuffle(data, 4);
+		assertThat(pipeline.decode(ByteBuffer.wrap(deflate(shuffled)), data.length, 0b00), is(equalTo(data)));
+		assertThat(pipeline.decode(ByteBuffer.wrap(shuffled), data.length, 0b10), is(equalTo(data)));
+		assertThat(pipeline.decode(ByteBuffer.wrap(deflate(data)), data.length, 0b01), is(equalTo(data)));
+		assertThat(pipeline.decode(ByteBuffer.wrap(data), data.length, 0b11), is(equalTo(data)));
+		// Bits beyond the filters are ignored
+		assertThat(pipeline.decode(ByteBuffer.wrap(data), data.length, 0xfffffff), is(equalTo(data)));
+	}
+
+	@Test
+	void testFilterMaskWithFirstGenerationFilter() {
+		byte[] data = createData(1000);
+		FilterPipeline pipeline = new FilterPipeline();
+		pipeline.addFilter(REVERSE_FILTER, NO_FILTER_DATA);
+		pipeline.addFilter(new DeflatePipelineFilter(), NO_FILTER_DATA);
+
+		// Deflate was applied before reverse when encoding so is filter 0
+		byte[] reversed = REVERSE_FILTER.decode(data, NO_FILTER_DATA);
+		assertThat(pipeline.decode(ByteBuffer.wrap(reversed), data.length, 0b01), is(equalTo(data)));
+		assertThat(pipeline.decode(ByteBuffer.wrap(deflate(data)), data.length, 0b10), is(equalTo(data)));
+	}
+
+	@Test
+	void testDecodeShuffledNeedsDeflateShuffle() {
+		FilterPipeline pipeline = new FilterPipeline();
+		pipeline.addFilter(new DeflatePipelineFilter(), NO_FILTER_DATA);
+		assertThat(pipeline.isDeflateShuffle(4), is(false));
+		assertThrows(HdfFilterException.class, () -> pipeline.decodeShuffled(ByteBuffer.wrap(new byte[10]), 10));
+	}
+
+	@Test
+	void testAdapter() {
+		BufferFilter adapted = BufferFilter.adapt(REVERSE_FILTER);
+		assertThat(adapted.getId(), is(equalTo(REVERSE_FILTER.getId())));
+		assertThat(adapted.getName(), is(equalTo(REVERSE_FILTER.getName())));
+		assertThat(adapted.getDecodedLength(ByteBuffer.wrap(new byte[3]), NO_FILTER_DATA, 3), is(equalTo(-1)));
+
+		ByteBuffer decoded = ByteBuffer.allocate(3);
+		adapted.decode(ByteBuffer.wrap(new byte[]{1, 2, 3}), decoded, NO_FILTER_DATA);
+		assertThat(decoded.array(), is(equalTo(new byte[]{3, 2, 1})));
+
+		assertThrows(HdfFilterException.class, () ->
+				adapted.decode(ByteBuffer.wrap(new byte[]{1, 2, 3}), ByteBuffer.allocate(4), NO_FILTER_DATA));
+
+		// Buffer filters are not adapted
+		ByteShuffleFilter shuffleFilter = new ByteShuffleFilter();
+		assertThat(BufferFilter.adapt(shuffleFilter), is(sameInstance(shuffleFilter)));
+	}
+
+	@Test
+	void testWrongDecodedLengthFails() {
+		byte[] data = createData(1000);
+		FilterPipeline pipeline = new FilterPipeline();
+		pipeline.addFilter(new DeflatePipelineFilter(), NO_FILTER_DATA);
+
+		byte[] encoded = deflate(data);
+		assertThrows(HdfFilterException.class, () -> pipeline.decode(encoded, data.length - 1));
+		assertThrows(HdfFilterException.class, () -> pipeline.decode(encoded, data.length + 1));
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.filter;
+
+import io.jhdf.exceptions.HdfFilterException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FletcherChecksumFilterTest {
+
+	private static final int[] NO_FILTER_DATA = new int[0];
+	// Includes odd lengths, and lengths needing more than one block of the fast checksum
+	private static final int[] LENGTHS = {0, 1, 2, 7, 720, 721, 1000, 100_001, 2_100_003};
+
+	private final FletcherChecksumFilter filter = new FletcherChecksumFilter();
+
+	/**
+	 * A direct port of H5_checksum_fletcher32 from the HDF5 library
+	 */
+	private static int referenceFletcher32(byte[] data) {
+		int sum1 = 0;
+		int sum2 = 0;
+		int pos = 0;
+		int len = data.length / 2;
+		while (len > 0) {
+			int tlen = Math.min(len, 360);
+			len -= tlen;
+			do {
+				sum1 += (data[pos] & 0xff) << 8 | (data[pos + 1] & 0xff);
+				pos += 2;
+				sum2 += sum1;
+			} while (--tlen > 0);
+			sum1 = (sum1 & 0xffff) + (sum1 >>> 16);
+			sum2 = (sum2 & 0xffff) + (sum2 >>> 16);
+		}
+		if (data.length % 2 != 0) {
+			sum1 += (data[pos] & 0xff) << 8;
+			sum2 += sum1;
+			sum1 = (sum1 & 0xffff) + (sum1 >>> 16);
+			sum2 = (sum2 & 0xffff) + (sum2 >>> 16);
+		}
+		sum1 = (sum1 & 0xffff) + (sum1 >>> 16);
+		sum2 = (sum2 & 0xffff) + (sum2 >>> 16);
+		return sum2 << 16 | sum1;
+	}
+
+	private static byte[] withChecksum(byte[] data, int checksum) {
+		byte[] encoded = Arrays.copyOf(data, data.length + 4);
+		ByteBuffer.wrap(encoded).order(ByteOrder.LITTLE_ENDIAN).putInt(data.length, checksum);
+		return encoded;
+	}
+
+	@Test
+	void testChecksumMatchesHdf5() {
+		for (int length : LENGTHS) {
+			byte[] random = new byte[length];
+			new Random(length).nextBytes(random);
+			assertThat("Random length " + length, FletcherChecksumFilter.fletcher32(random, 0, length),
+					is(equalTo(referenceFletcher32(random))));
+
+			// All bits set makes sums which are multiples of 65535
+			byte[] ones = new byte[length];
+			Arrays.fill(ones, (byte) 0xff);
+			assertThat("Ones length " + length, FletcherChecksumFilter.fletcher32(ones, 0, length),
+					is(equalTo(referenceFletcher32(ones))));
+		}
+	}
+
+	@Test
+	void testDecodeStripsChecksum() {
+		byte[] data = new byte[1001];
+		new Random(1).nextBytes(data);
+		byte[] encoded = withChecksum(data, referenceFletcher32(data));
+
+		assertThat(filter.decode(encoded, NO_FILTER_DATA), is(equalTo(data)));
+
+		ByteBuffer decoded = ByteBuffer.allocate(data.length);
+		filter.decode(ByteBuffer.wrap(encoded), decoded, NO_FILTER_DATA);
+		assertThat(decoded.array(), is(equalTo(data)));
+	}
+
+	@Test
+	void testSwappedChecksumAccepted() {
+		byte[] data = new byte[100];
+		new Random(2).nextBytes(data);
+		int checksum = referenceFletcher32(data);
+		int swappedChecksum = ((checksum & 0xff00ff00) >>> 8) | ((checksum & 0x00ff00ff) << 8);
+		assertThat(filter.decode(withChecksum(data, swappedChecksum), NO_FILTER_DATA), is(equalTo(data)));
+	}
+
+	@Test
+	void testCorruptedDataFails() {
+		byte[] data = new byte[100];
+		new Random(3).nextBytes(data);
+		byte[] encoded = withChecksum(data, referenceFletcher32(data));
+		encoded[50]++;
+
+		assertThrows(HdfFilterException.class, () -> filter.decode(encoded, NO_FILTER_DATA));
+		// Not verifying only strips the checksum
+		data[50]++;
+		assertThat(new FletcherChecksumFilter(false).decode(encoded, NO_FILTER_DATA), is(equalTo(data)));
+	}
+
+	@Test
+	void testTooShortFails() {
+		assertThrows(HdfFilterException.class, () -> filter.decode(new byte[3], NO_FILTER_DATA));
+	}
+
+	@Test
+	void testPipelineWithoutChecksumVerification() {
+		FilterPipeline pipeline = new FilterPipeline();
+		pipeline.addFilter(filter, NO_FILTER_DATA);
+		FilterPipeline notVerifying = pipeline.withoutChecksumVerification();
+		assertThat(notVerifying == pipeline.withoutChecksumVerification(), is(true));
+
+		byte[] data = new byte[100];
+		byte[] encoded = withChecksum(data, 12345);
+		assertThrows(HdfFilterException.class, () -> pipeline.decode(encoded, data.length));
+		assertThat(notVerifying.decode(encoded, data.length), is(equalTo(data)));
+
+		// Pipelines without checksums are unchanged
+		FilterPipeline shufflePipeline = new FilterPipeline();
+		shufflePipeline.addFilter(new ByteShuffleFilter(), new int[]{4});
+		assertThat(shufflePipeline.withoutChecksumVerification() == shufflePipeline, is(true));
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.filter;
+
+import io.jhdf.exceptions.HdfFilterException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class Lz4FilterTest {
+
+	private static final int[] NO_FILTER_DATA = new int[0];
+
+	private final Lz4Filter filter = new Lz4Filter();
+
+	/**
+	 * Data with runs of repeated bytes, repeated sequences and random bytes
+	 */
+	private static byte[] createData(int length) {
+		byte[] data = new byte[length];
+		Random random = new Random(length);
+		int i = 0;
+		while (i < length) {
+			int runLength = Math.min(length - i, 1 + random.nextInt(300));
+			switch (random.nextInt(3)) {
+				case 0:
+					Arrays.fill(data, i, i + runLength, (byte) random.nextInt());
+					break;
+				case 1:
+					for (int j = 0; j < runLength; j++) {
+						data[i + j] = (byte) (j % 7);
+					}
+					break;
+				default:
+					for (int j = 0; j < runLength; j++) {
+						data[i + j] = (byte) random.nextInt();
+					}
+			}
+			i += runLength;
+		}
+		return data;
+	}
+
+	/**
+	 * Encodes in the format of the HDF5 LZ4 plugin, blocks which don't compress are stored as is.
+	 */
+	private static byte[] encode(byte[] data, int blockSize) {
+		ByteBuffer header = ByteBuffer.allocate(12);
+		header.putLong(data.length);
+		header.putInt(blockSize);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(header.array(), 0, 12);
+		for (int start = 0; start < data.length; start += blockSize) {
+			int end = Math.min(data.length, start + blockSize);
+			byte[] block = compressBlock(data, start, end);
+			if (block.length >= end - start) {
+				block = Arrays.copyOfRange(data, start, end);
+			}
+			out.write(ByteBuffer.allocate(4).putInt(block.length).array(), 0, 4);
+			out.write(block, 0, block.length);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * A simple greedy LZ4 block compressor
+	 */
+	private static byte[] compressBlock(byte[] src, int start, int end) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int[] table = new int[4096];
+		Arrays.fill(table, -1);
+		int anchor = start;
+		int ip = start;
+		while (ip <= end - 12) {
+			int hash = ((src[ip] & 0xff) | (src[ip + 1] & 0xff) << 8 | (src[ip + 2] & 0xff) << 16
+					| (src[ip + 3] & 0xff) << 24) * -1640531535 >>> 20;
+			int ref = table[hash];
+			table[hash] = ip;
+			if (ref >= start && ip - ref < 65536 && src[ref] == src[ip] && src[ref + 1] == src[ip + 1]
+					&& src[ref + 2] == src[ip + 2] && src[ref + 3] == src[ip + 3]) {
+				int matchLength = 4;
+				while (ip + matchLength < end - 5 && src[ref + matchLength] == src[ip + matchLength]) {
+					matchLength++;
+				}
+				writeSequence(out, src, anchor, ip, ip - ref, matchLength);
+				ip += matchLength;
+				anchor = ip;
+			} else {
+				ip++;
+			}
+		}
+		writeSequence(out, src, anchor, end, 0, 0);
+		return out.toByteArray();
+	}
+
+	private static void writeSequence(ByteArrayOutputStream out, byte[] src, int literalStart, int literalEnd,
+									  int offset, int matchLength) {
+		int literalLength = literalEnd - literalStart;
+		int extraMatchLength = matchLength - 4;
+		out.write(Math.min(literalLength, 15) << 4 | (matchLength == 0 ? 0 : Math.min(extraMatchLength, 15)));
+		writeLength(out, literalLength);
+		out.write(src, literalStart, literalLength);
+		if (matchLength > 0) {
+			out.write(offset & 0xff);
+			out.write(offset >>> 8);
+			writeLength(out, extraMatchLength);
+		}
+	}
+
+	private static void writeLength(ByteArrayOutputStream out, int length) {
+		if (length >= 15) {
+			int remaining = length - 15;
+			while (remaining >= 255) {
+				out.write(255);
+				remaining -= 255;
+			}
+			out.write(remaining);
+		}
+	}
+
+	@Test
+	void testDecode() {
+		for (int length : new int[]{0, 1, 13, 1000, 100_000}) {
+			for (int blockSize : new int[]{1 << 30, 4096, 999}) {
+				byte[] data = createData(length);
+				byte[] encoded = encode(data, blockSize);
+				assertThat("Length " + length + " block size " + blockSize, filter.decode(encoded, NO_FILTER_DATA),
+						is(equalTo(data)));
+			}
+		}
+	}
+
+	@Test
+	void testDecodeIntoBuffer() {
+		byte[] data = createData(10_000);
+		byte[] encoded = encode(data, 4096);
+		assertThat(filter.getDecodedLength(ByteBuffer.wrap(encoded), NO_FILTER_DATA, -1), is(equalTo(10_000)));
+
+		// Direct buffers and offset heap buffers
+		ByteBuffer directEncoded = ByteBuffer.allocateDirect(encoded.length);
+		directEncoded.put(encoded).flip();
+		ByteBuffer decoded = ByteBuffer.allocate(data.length + 5);
+		decoded.position(5);
+		filter.decode(directEncoded, decoded.slice(), NO_FILTER_DATA);
+		assertThat(Arrays.copyOfRange(decoded.array(), 5, decoded.capacity()), is(equalTo(data)));
+	}
+
+	@Test
+	void testOverlappingMatch() {
+		// "ab" then a match of 10 bytes at offset 2 repeats "ab" 5 more times, then a final literal "c"
+		byte[] block = {0x26, 'a', 'b', 2, 0, 0x10, 'c'};
+		byte[] encoded = ByteBuffer.allocate(12 + 4 + block.length).putLong(13).putInt(1024).putInt(block.length)
+				.put(block).array();
+		assertThat(new String(filter.decode(encoded, NO_FILTER_DATA)), is(equalTo("ababababababc")));
+	}
+
+	@Test
+	void testCorruptDataFails() {
+		byte[] data = createData(10_000);
+		byte[] encoded = encode(data, 4096);
+
+		// Truncated
+		assertThrows(HdfFilterException.class, () ->
+				filter.decode(Arrays.copyOf(encoded, encoded.length - 10), NO_FILTER_DATA));
+		assertThrows(HdfFilterException.class, () -> filter.decode(new byte[5], NO_FILTER_DATA));
+		// Wrong decoded length
+		ByteBuffer wrongLength = ByteBuffer.wrap(encoded.clone());
+		wrongLength.putLong(0, 10_001);
+		assertThrows(HdfFilterException.class, () -> filter.decode(wrongLength.array(), NO_FILTER_DATA));
+		// Match before the start of the data, the block decodes to 7 bytes so isn't stored as is
+		byte[] block = {0x11, 'a', 5, 0, 0x10, 'c'};
+		byte[] badOffset = ByteBuffer.allocate(12 + 4 + block.length).putLong(7).putInt(1024).putInt(block.length)
+				.put(block).array();
+		assertThrows(HdfFilterException.class, () -> filter.decode(badOffset, NO_FILTER_DATA));
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.filter;
+
+import io.jhdf.HdfFile;
+import io.jhdf.api.Dataset;
+import io.jhdf.exceptions.HdfFilterException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static io.jhdf.TestUtils.flatten;
+import static io.jhdf.TestUtils.loadTestHdfFile;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LzfFilterTest {
+
+	/** Written by h5py with lzf compression, originally to test missing filters */
+	private static final String HDF5_TEST_FILE_NAME = "test_missing_filter.hdf5bad";
+
+	private static final int[] NO_FILTER_DATA = new int[0];
+
+	private final LzfFilter filter = new LzfFilter();
+
+	/**
+	 * Data with runs of repeated bytes, repeated sequences and random bytes
+	 */
+	private static byte[] createData(int length) {
+		byte[] data = new byte[length];
+		Random random = new Random(length);
+		int i = 0;
+		while (i < length) {
+			int runLength = Math.min(length - i, 1 + random.nextInt(300));
+			switch (random.nextInt(3)) {
+				case 0:
+					Arrays.fill(data, i, i + runLength, (byte) random.nextInt());
+					break;
+				case 1:
+					for (int j = 0; j < runLength; j++) {
+						data[i + j] = (byte) (j % 7);
+					}
+					break;
+				default:
+					for (int j = 0; j < runLength; j++) {
+						data[i + j] = (byte) random.nextInt();
+					}
+			}
+			i += runLength;
+		}
+		return data;
+	}
+
+	/**
+	 * A simple greedy LZF compressor
+	 */
+	private static byte[] encode(byte[] src) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int[] table = new int[4096];
+		Arrays.fill(table, -1);
+		int anchor = 0;
+		int ip = 0;
+		while (ip < src.length - 2) {
+			int hash = ((src[ip] & 0xff) << 16 | (src[ip + 1] & 0xff) << 8 | (src[ip + 2] & 0xff)) * -1640531535 >>> 20;
+			int ref = table[hash];
+			table[hash] = ip;
+			if (ref >= 0 && ip - ref - 1 < 8192 && src[ref] == src[ip] && src[ref + 1] == src[ip + 1]
+					&& src[ref + 2] == src[ip + 2]) {
+				int length = 3;
+				while (length < 264 && ip + length < src.length && src[ref + length] == src[ip + length]) {
+					length++;
+				}
+				writeLiterals(out, src, anchor, ip);
+				int offset = ip - ref - 1;
+				if (length - 2 < 7) {
+					out.write((length - 2) << 5 | offset >>> 8);
+				} else {
+					out.write(7 << 5 | offset >>> 8);
+					out.write(length - 2 - 7);
+				}
+				out.write(offset & 0xff);
+				ip += length;
+				anchor = ip;
+			} else {
+				ip++;
+			}
+		}
+		writeLiterals(out, src, anchor, src.length);
+		return out.toByteArray();
+	}
+
+	private static void writeLiterals(ByteArrayOutputStream out, byte[] src, int start, int end) {
+		for (int i = start; i < end; i += 32) {
+			int length = Math.min(32, end - i);
+			out.write(length - 1);
+			out.write(src, i, length);
+		}
+	}
+
+	@Test
+	void testDecode() {
+		for (int length : new int[]{0, 1, 13, 1000, 100_000}) {
+			byte[] data = createData(length);
+			byte[] encoded = encode(data);
+			// Without the chunk size the decoded length is found from the encoded data
+			assertThat("Length " + length, filter.decode(encoded, NO_FILTER_DATA), is(equalTo(data)));
+			assertThat("Length " + length, filter.decode(encoded, new int[]{4, 261, length}), is(equalTo(data)));
+		}
+	}
+
+	@Test
+	void testDecodeIntoBuffer() {
+		byte[] data = createData(10_000);
+		byte[] encoded = encode(data);
+		assertThat(filter.getDecodedLength(ByteBuffer.wrap(encoded), NO_FILTER_DATA, 123), is(equalTo(123)));
+
+		ByteBuffer directEncoded = ByteBuffer.allocateDirect(encoded.length);
+		directEncoded.put(encoded).flip();
+		ByteBuffer decoded = ByteBuffer.allocate(data.length + 5);
+		decoded.position(5);
+		filter.decode(directEncoded, decoded.slice(), NO_FILTER_DATA);
+		assertThat(Arrays.copyOfRange(decoded.array(), 5, decoded.capacity()), is(equalTo(data)));
+	}
+
+	@Test
+	void testOverlappingBackReference() {
+		// Literal "ab" then a back reference of 6 bytes at offset 2
+		byte[] encoded = {1, 'a', 'b', (byte) 0x80, 1};
+		assertThat(new String(filter.decode(encoded, NO_FILTER_DATA)), is(equalTo("abababab")));
+	}
+
+	@Test
+	void testCorruptDataFails() {
+		byte[] data = createData(10_000);
+		byte[] encoded = encode(data);
+
+		// Truncated
+		assertThrows(HdfFilterException.class, () ->
+				filter.decode(Arrays.copyOf(encoded, encoded.length - 10), new int[]{4, 261, data.length}));
+		// Wrong decoded length
+		assertThrows(HdfFilterException.class, () -> filter.decode(encoded, new int[]{4, 261, data.length + 1}));
+		// Back reference before the start of the data
+		assertThrows(HdfFilterException.class, () -> filter.decode(new byte[]{1, 'a', 'b', (byte) 0x80, 5}, NO_FILTER_DATA));
+	}
+
+	@Test
+	void testReadingLzfDataset() throws Exception {
+		try (HdfFile hdfFile = loadTestHdfFile(HDF5_TEST_FILE_NAME)) {
+			Dataset dataset = hdfFile.getDatasetByPath("/float32");
+			Object[] flatData = flatten(dataset.getData());
+			assertThat(flatData.length, is(equalTo(35)));
+			for (int i = 0; i < flatData.length; i++) {
+				assertThat(flatData[i], is(equalTo((float) i)));
+			}
+		}
+	}
+}
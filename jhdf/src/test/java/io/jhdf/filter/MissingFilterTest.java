@@ -9,14 +9,15 @@
  */
 package io.jhdf.filter;
 
-import io.jhdf.HdfFile;
-import io.jhdf.api.Dataset;
 import io.jhdf.exceptions.HdfFilterException;
-import org.junit.jupiter.api.AfterAll;
-import org.junit.jupiter.api.BeforeAll;
+import io.jhdf.object.message.FilterPipelineMessage;
 import org.junit.jupiter.api.Test;
 
-import static io.jhdf.TestUtils.loadTestHdfFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
@@ -25,29 +26,38 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class MissingFilterTest {
 
-	private static final String HDF5_TEST_FILE_NAME = "test_missing_filter.hdf5bad";
-
-	private static HdfFile hdfFile;
-
-	@BeforeAll
-	static void setup() throws Exception {
-		hdfFile = loadTestHdfFile(HDF5_TEST_FILE_NAME);
-	}
-
-	@AfterAll
-	static void tearDown() {
-		hdfFile.close();
+	/**
+	 * Creates a version 2 filter pipeline message with one filter
+	 */
+	private static FilterPipelineMessage createFilterPipelineMessage(int id, String name) {
+		byte[] nameBytes = (name + '\0').getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer bb = ByteBuffer.allocate(10 + nameBytes.length).order(ByteOrder.LITTLE_ENDIAN);
+		bb.put((byte) 2); // Version
+		bb.put((byte) 1); // Number of filters
+		bb.putShort((short) id);
+		bb.putShort((short) nameBytes.length);
+		bb.putShort((short) 0); // Flags
+		bb.putShort((short) 0); // Number of data values
+		bb.put(nameBytes);
+		bb.flip();
+		return new FilterPipelineMessage(bb, new BitSet());
 	}
 
 	@Test
 	void testMissingFilter() {
-		Dataset dataset = hdfFile.getDatasetByPath("/float32");
-		assertThat(dataset, is(notNullValue()));
-		HdfFilterException exception = assertThrows(HdfFilterException.class, dataset::getData);
+		// Blosc isn't included
+		FilterPipelineMessage message = createFilterPipelineMessage(32001, "blosc");
+		HdfFilterException exception = assertThrows(HdfFilterException.class, () -> FilterManager.getPipeline(message));
 
 		// The missing filter name
-		assertThat(exception.getMessage(), containsString("lzf"));
+		assertThat(exception.getMessage(), containsString("blosc"));
 		// The missing filter id
-		assertThat(exception.getMessage(), containsString("32000"));
+		assertThat(exception.getMessage(), containsString("32001"));
+	}
+
+	@Test
+	void testServiceLoadedFiltersAvailable() {
+		assertThat(FilterManager.getPipeline(createFilterPipelineMessage(32000, "lzf")), is(notNullValue()));
+		assertThat(FilterManager.getPipeline(createFilterPipelineMessage(32004, "lz4")), is(notNullValue()));
 	}
 }
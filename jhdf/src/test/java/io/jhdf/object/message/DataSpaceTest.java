@@ -0,0 +1,93 @@
+/*
+ * This file is part of jHDF. A pure Java library for accessing HDF5 files.
+ *
+ * http://jhdf.io
+ *
+ * Copyright 2019 James Mudd
+ *
+ * MIT License see 'LICENSE' file
+ */
+package io.jhdf.object.message;
+
+import io.jhdf.Superblock;
+import io.jhdf.exceptions.HdfException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DataSpaceTest {
+
+	private static final long LARGE_DIMENSION = 3L * Integer.MAX_VALUE;
+
+	private RandomAccessFile raf;
+	private Superblock sb;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		final String testFileUrl = this.getClass().getResource("/hdf5/test_file.hdf5").getFile();
+		raf = new RandomAccessFile(new File(testFileUrl), "r");
+		// Lengths are 8 bytes
+		sb = Superblock.readSuperblock(raf.getChannel(), 0);
+	}
+
+	@AfterEach
+	void after() throws IOException {
+		raf.close();
+	}
+
+	/**
+	 * Creates a version 2 simple dataspace message with max sizes
+	 */
+	private static ByteBuffer createDataSpaceMessage(long[] dimensions, long[] maxSizes) {
+		ByteBuffer bb = ByteBuffer.allocate(4 + 16 * dimensions.length).order(LITTLE_ENDIAN);
+		bb.put((byte) 2); // Version
+		bb.put((byte) dimensions.length);
+		bb.put((byte) 1); // Flags, max sizes present
+		bb.put((byte) 1); // Type, simple
+		for (long dimension : dimensions) {
+			bb.putLong(dimension);
+		}
+		for (long maxSize : maxSizes) {
+			bb.putLong(maxSize);
+		}
+		bb.flip();
+		return bb;
+	}
+
+	@Test
+	void testLargeDimensionWithMaxSizes() {
+		// libhdf5 sets the max sizes to the dimensions when none are given
+		long[] dimensions = {LARGE_DIMENSION, 5};
+		DataSpace dataSpace = DataSpace.readDataSpace(createDataSpaceMessage(dimensions, dimensions), sb);
+
+		assertThat(dataSpace.getLongDimensions(), is(equalTo(dimensions)));
+		assertThat(dataSpace.isMaxSizesPresent(), is(true));
+		assertThat(dataSpace.getLongMaxSizes(), is(equalTo(dimensions)));
+		assertThat(dataSpace.getTotalLength(), is(equalTo(LARGE_DIMENSION * 5)));
+
+		assertThrows(HdfException.class, dataSpace::getDimensions);
+		assertThrows(HdfException.class, dataSpace::getMaxSizes);
+	}
+
+	@Test
+	void testUnlimitedMaxSize() {
+		DataSpace dataSpace = DataSpace.readDataSpace(
+				createDataSpaceMessage(new long[]{7, 5}, new long[]{DataSpace.UNLIMITED, 5}), sb);
+
+		assertThat(dataSpace.getDimensions(), is(equalTo(new int[]{7, 5})));
+		assertThat(dataSpace.getMaxSizes(), is(equalTo(new int[]{-1, 5})));
+		assertThat(dataSpace.getLongMaxSizes(), is(equalTo(new long[]{DataSpace.UNLIMITED, 5})));
+	}
+}
@@ -19,7 +19,7 @@ The idea of this test is to write a dataset with a missing filter
 def write_chunked_datasets(f):
     data = np.arange(35).reshape(7, 5)
 
-    # Compress with lzf which jhdf doesn't include by default
+    # Compress with lzf, which jhdf didn't include when this was written, it's now used to test the lzf filter
     f.create_dataset('float32', data=data, dtype='f4', chunks=(2, 1), shuffle=True, compression="lzf")
 
     f.flush()